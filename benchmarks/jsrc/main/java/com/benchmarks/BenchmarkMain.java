@@ -0,0 +1,48 @@
+package com.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks jar: regular JMH command line, with the GC profiler always added so every
+ * result reports {@code gc.alloc.rate.norm}, the bytes allocated per operation. Forked JVMs get a region for
+ * the SDK client builders and a logging configuration that discards log events.
+ * <pre>
+ * java -jar target/benchmarks.jar RouterBenchmark -f 1 -wi 3 -i 5
+ * </pre>
+ */
+public final class BenchmarkMain {
+
+	private static final List<String> FORK_JVM_ARGS = Arrays.asList(
+			"-Daws.region=eu-west-1",
+			"-Dlog4j.configurationFile=log4j2-benchmark.xml");
+
+	private BenchmarkMain() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+				|| commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		List<String> jvmArgs = new ArrayList<>(FORK_JVM_ARGS);
+		if (commandLine.getJvmArgsAppend().hasValue()) {
+			jvmArgs.addAll(commandLine.getJvmArgsAppend().get());
+		}
+		new Runner(new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.jvmArgsAppend(jvmArgs.toArray(new String[0]))
+				.build())
+				.run();
+	}
+}
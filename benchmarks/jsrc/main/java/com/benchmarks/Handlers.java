@@ -0,0 +1,28 @@
+package com.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.function.Supplier;
+
+/**
+ * Handler construction for benchmarks. Each handler's Metrics writes its EMF lines to the System.out it saw
+ * when it was created, so handlers are created while System.out discards everything: flushing metrics is
+ * still measured, but the benchmark output is not flooded.
+ */
+public final class Handlers {
+
+	public static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+	private Handlers() {
+	}
+
+	public static synchronized <T> T create(Supplier<T> constructor) {
+		PrintStream out = System.out;
+		System.setOut(DISCARD);
+		try {
+			return constructor.get();
+		} finally {
+			System.setOut(out);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.benchmarks;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process DynamoDbClient that keeps the network out of handler benchmarks. Query and Scan return a fixed
+ * item list in pages of {@code pageSize}, ignoring key conditions and filters; PutItem and BatchWriteItem
+ * succeed without storing anything. Other operations keep the interface default and throw
+ * UnsupportedOperationException.
+ */
+public final class StubDynamoDbClient implements DynamoDbClient {
+
+	private static final String OFFSET = "offset";
+	private static final PutItemResponse PUT_ITEM_RESPONSE = PutItemResponse.builder().build();
+	private static final BatchWriteItemResponse BATCH_WRITE_ITEM_RESPONSE = BatchWriteItemResponse.builder()
+			.unprocessedItems(Collections.emptyMap())
+			.build();
+
+	private final List<Map<String, AttributeValue>> items;
+	private final int pageSize;
+
+	public StubDynamoDbClient(List<Map<String, AttributeValue>> items, int pageSize) {
+		this.items = items;
+		this.pageSize = pageSize;
+	}
+
+	public static StubDynamoDbClient empty() {
+		return new StubDynamoDbClient(Collections.emptyList(), 1);
+	}
+
+	@Override
+	public QueryResponse query(QueryRequest request) {
+		int from = offset(request.hasExclusiveStartKey() ? request.exclusiveStartKey() : null);
+		int to = Math.min(items.size(), from + pageSize);
+		return QueryResponse.builder()
+				.items(items.subList(from, to))
+				.count(to - from)
+				.lastEvaluatedKey(lastEvaluatedKey(to))
+				.build();
+	}
+
+	@Override
+	public ScanResponse scan(ScanRequest request) {
+		int from = offset(request.hasExclusiveStartKey() ? request.exclusiveStartKey() : null);
+		int to = Math.min(items.size(), from + pageSize);
+		return ScanResponse.builder()
+				.items(items.subList(from, to))
+				.count(to - from)
+				.lastEvaluatedKey(lastEvaluatedKey(to))
+				.build();
+	}
+
+	@Override
+	public PutItemResponse putItem(PutItemRequest request) {
+		return PUT_ITEM_RESPONSE;
+	}
+
+	@Override
+	public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+		return BATCH_WRITE_ITEM_RESPONSE;
+	}
+
+	@Override
+	public String serviceName() {
+		return SERVICE_NAME;
+	}
+
+	@Override
+	public void close() {
+	}
+
+	private static int offset(Map<String, AttributeValue> exclusiveStartKey) {
+		return exclusiveStartKey == null ? 0 : Integer.parseInt(exclusiveStartKey.get(OFFSET).n());
+	}
+
+	private Map<String, AttributeValue> lastEvaluatedKey(int next) {
+		return next < items.size() ? Collections.singletonMap(OFFSET, AttributeValue.fromN(Integer.toString(next))) : null;
+	}
+}
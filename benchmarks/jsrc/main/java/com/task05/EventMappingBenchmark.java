@@ -0,0 +1,81 @@
+package com.task05;
+
+import com.common.IdGenerator;
+import com.common.IdempotencyStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.task05.dto.Event;
+import com.task05.dto.Request;
+import com.task05.dto.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Everything createEvent does around the write for an event with {@code contentFields} content entries:
+ * building the Lombok DTOs, mapping the event to an item, serializing the response, and the idempotency key
+ * of a request that carries no client key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventMappingBenchmark {
+
+	@Param({"2", "20"})
+	public int contentFields;
+
+	private final IdGenerator idGenerator = new IdGenerator(IdGenerator.Mode.V7);
+	private Request request;
+	private Event event;
+
+	@Setup
+	public void setUp() {
+		Map<String, String> content = new LinkedHashMap<>();
+		for (int i = 0; i < contentFields; i++) {
+			content.put("field" + i, "value " + i);
+		}
+		request = Request.builder().principalId(10).content(content).build();
+		event = buildEvent();
+	}
+
+	@Benchmark
+	public Event buildEvent() {
+		String createdAt = DateTimeFormatter.ISO_INSTANT.format(Instant.now().atOffset(ZoneOffset.UTC));
+		return ApiHandler.toEvent(idGenerator.next(), request.getPrincipalId(), createdAt, request.getContent());
+	}
+
+	@Benchmark
+	public Map<String, AttributeValue> itemToMap() {
+		return EventTable.SCHEMA.itemToMap(event, true);
+	}
+
+	@Benchmark
+	public String serializeResponse() throws JsonProcessingException {
+		Response response = ApiHandler.toResponse(event);
+		return ApiHandler.OBJECT_MAPPER.writeValueAsString(response);
+	}
+
+	@Benchmark
+	public String idempotencyKey() {
+		return IdempotencyStore.key("events", Integer.toString(request.getPrincipalId()), request.getIdempotencyKey(),
+				ApiHandler.canonicalBody(request));
+	}
+}
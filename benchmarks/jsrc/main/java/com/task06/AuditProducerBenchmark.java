@@ -0,0 +1,97 @@
+package com.task06;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.benchmarks.Handlers;
+import com.benchmarks.StubDynamoDbClient;
+import com.common.IdGenerator;
+import com.common.Metrics;
+import com.testsupport.SimulatedContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit item construction for single INSERT and MODIFY records, and a whole stream batch of
+ * {@code records} alternating inserts and modifications written through a stubbed BatchWriteItem.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditProducerBenchmark {
+
+	@Param({"100", "1000"})
+	public int records;
+
+	private AuditProducer producer;
+	private SimulatedContext context;
+	private Map<String, AttributeValue> oldImage;
+	private Map<String, AttributeValue> newImage;
+	private DynamodbEvent event;
+
+	@Setup
+	public void setUp() {
+		producer = new AuditProducer(StubDynamoDbClient.empty(), "Audit", new IdGenerator(IdGenerator.Mode.V7),
+				new Metrics("audit_producer", "SyndicateTasks", true, Handlers.DISCARD));
+		context = new SimulatedContext("audit_producer", 30_000);
+		oldImage = image("CACHE_TTL_SEC", 3600);
+		newImage = image("CACHE_TTL_SEC", 1800);
+
+		List<DynamodbEvent.DynamodbStreamRecord> streamRecords = new ArrayList<>(records);
+		for (int i = 0; i < records; i++) {
+			boolean insert = i % 2 == 0;
+			DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+			record.setEventName(insert ? "INSERT" : "MODIFY");
+			record.setEventID(Integer.toHexString(i));
+			record.setDynamodb(new StreamRecord()
+					.withSequenceNumber(Integer.toString(i))
+					.withNewImage(image("key" + i, i + 1))
+					.withOldImage(insert ? null : image("key" + i, i)));
+			streamRecords.add(record);
+		}
+		event = new DynamodbEvent();
+		event.setRecords(streamRecords);
+	}
+
+	@Benchmark
+	public Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> processInsert() {
+		return producer.processRecord("0", "INSERT", newImage, null);
+	}
+
+	@Benchmark
+	public Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> processModify() {
+		return producer.processRecord("1", "MODIFY", newImage, oldImage);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public StreamsEventResponse handleRequest() {
+		return producer.handleRequest(event, context);
+	}
+
+	private static Map<String, AttributeValue> image(String key, int value) {
+		Map<String, AttributeValue> image = new HashMap<>();
+		image.put("key", new AttributeValue().withS(key));
+		image.put("value", new AttributeValue().withN(Integer.toString(value)));
+		return image;
+	}
+}
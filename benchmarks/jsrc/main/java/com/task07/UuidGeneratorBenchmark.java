@@ -0,0 +1,90 @@
+package com.task07;
+
+import com.benchmarks.Handlers;
+import com.common.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id generation per mode against UUID.randomUUID, and rendering the uploaded JSON document of {@code count}
+ * ids into a buffered, encoding writer whose bytes are discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidGeneratorBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Ids {
+		@Param({"V4", "V7", "ULID"})
+		public String mode;
+
+		private IdGenerator idGenerator;
+		private char[] id;
+
+		@Setup
+		public void setUp() {
+			idGenerator = new IdGenerator(IdGenerator.Mode.parse(mode));
+			id = new char[idGenerator.length()];
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Document {
+		@Param({"10", "1000"})
+		public int count;
+
+		private UuidGenerator handler;
+		private Writer writer;
+
+		@Setup
+		public void setUp() {
+			handler = Handlers.create(UuidGenerator::new);
+			writer = new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+		}
+	}
+
+	@Benchmark
+	public String next(Ids ids) {
+		return ids.idGenerator.next();
+	}
+
+	@Benchmark
+	public char[] nextInto(Ids ids) {
+		ids.idGenerator.next(ids.id, 0);
+		return ids.id;
+	}
+
+	@Benchmark
+	public String randomUuid() {
+		return UUID.randomUUID().toString();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void writeJsonContent(Document document) throws IOException {
+		document.handler.writeJsonContent(document.writer, document.count);
+		document.writer.flush();
+	}
+}
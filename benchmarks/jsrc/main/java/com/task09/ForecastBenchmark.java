@@ -0,0 +1,64 @@
+package com.task09;
+
+import com.common.IdGenerator;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testsupport.StubForecast;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The processor's JSON mapping: decoding an Open-Meteo body of {@code days} hourly days, and turning the
+ * forecast into the stored item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastBenchmark {
+
+	@Param({"7", "16"})
+	public int days;
+
+	private final JsonFactory jsonFactory = new ObjectMapper().getFactory();
+	private final IdGenerator idGenerator = new IdGenerator(IdGenerator.Mode.V7);
+	private byte[] body;
+	private Forecast forecast;
+
+	@Setup
+	public void setUp() throws IOException {
+		body = new StubForecast().body("forecast_days=" + days);
+		forecast = parse();
+	}
+
+	@Benchmark
+	public Forecast parse() throws IOException {
+		return ForecastParser.parse(jsonFactory, new ByteArrayInputStream(body));
+	}
+
+	@Benchmark
+	public Map<String, AttributeValue> toItem() {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("id", AttributeValue.fromS(idGenerator.next()));
+		item.put("forecast", forecast.toAttributeValue());
+		return item;
+	}
+}
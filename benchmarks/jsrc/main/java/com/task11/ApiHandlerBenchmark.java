@@ -0,0 +1,77 @@
+package com.task11;
+
+import com.benchmarks.Handlers;
+import com.testsupport.SimulatedContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full handleRequest for requests that are answered without AWS calls: routing misses, an invalid table id
+ * and signups rejected by validation. Covers request logging, metrics and response building.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiHandlerBenchmark {
+
+	@Param({"notFound", "methodNotAllowed", "invalidTableId", "invalidEmail", "invalidPassword"})
+	public String scenario;
+
+	private ApiHandler handler;
+	private SimulatedContext context;
+	private Map<String, Object> request;
+
+	@Setup
+	public void setUp() {
+		handler = Handlers.create(ApiHandler::new);
+		context = new SimulatedContext("api_handler", 30_000);
+		switch (scenario) {
+			case "notFound":
+				request = request("GET", "/unknown/path", null);
+				break;
+			case "methodNotAllowed":
+				request = request("DELETE", "/reservations", null);
+				break;
+			case "invalidTableId":
+				request = request("GET", "/tables/abc", null);
+				break;
+			case "invalidEmail":
+				request = request("POST", "/signup", "{\"email\":\"not-an-email\",\"password\":\"Passw0rd_42\"}");
+				break;
+			case "invalidPassword":
+				request = request("POST", "/signup", "{\"email\":\"john@example.com\",\"password\":\"password\"}");
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown scenario " + scenario);
+		}
+	}
+
+	@Benchmark
+	public Map<String, Object> handleRequest() {
+		return handler.handleRequest(request, context);
+	}
+
+	private static Map<String, Object> request(String httpMethod, String path, String body) {
+		Map<String, Object> request = new HashMap<>();
+		request.put("httpMethod", httpMethod);
+		request.put("path", path);
+		request.put("body", body);
+		return request;
+	}
+}
@@ -0,0 +1,74 @@
+package com.task11;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * validPassword and validEmail under the deployed password policy, next to the regex checks they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CredentialValidatorBenchmark {
+
+	private CredentialValidator validator;
+
+	@State(Scope.Benchmark)
+	public static class Passwords {
+		@Param({"Passw0rd_42", "password", "PASSWORD_NO_DIGIT", "Sh0rt!"})
+		public String password;
+	}
+
+	@State(Scope.Benchmark)
+	public static class Emails {
+		@Param({"john.smith@example.com", "not-an-email", "first.last+tag@sub.domain.example.org"})
+		public String email;
+	}
+
+	@Setup
+	public void setUp() {
+		validator = CredentialValidator.fromDeploymentResources(new ObjectMapper());
+	}
+
+	@Benchmark
+	public boolean validPassword(Passwords passwords) {
+		return validator.validPassword(passwords.password);
+	}
+
+	@Benchmark
+	public boolean regexPassword(Passwords passwords) {
+		String password = passwords.password;
+		return password.length() >= 8 &&
+				password.length() <= 20 &&
+				password.matches(".*[A-Z].*") &&
+				password.matches(".*[a-z].*") &&
+				password.matches(".*\\d.*") &&
+				password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>/?].*");
+	}
+
+	@Benchmark
+	public boolean validEmail(Emails emails) {
+		return validator.validEmail(emails.email);
+	}
+
+	@Benchmark
+	public boolean regexEmail(Emails emails) {
+		return Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$").matcher(emails.email).matches();
+	}
+}
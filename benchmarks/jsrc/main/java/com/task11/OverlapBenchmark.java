@@ -0,0 +1,152 @@
+package com.task11;
+
+import com.benchmarks.StubDynamoDbClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservation overlap check for one table and day in a reservations table of {@code tableSize} items, of which
+ * {@value #TABLE_DAY_RESERVATIONS} are on the checked table and day: the table-day query through
+ * {@link ReservationRepository#byTableDay}, which only reads those, and the former check, which scans the whole
+ * table and compares the items of that table and day. Both stubs page like the service, the query in pages of
+ * {@value #QUERY_PAGE_SIZE} and the scan in pages of {@value #SCAN_PAGE_SIZE}, about 1 MB of reservations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class OverlapBenchmark {
+
+	private static final int TABLE_DAY_RESERVATIONS = 20;
+	private static final int QUERY_PAGE_SIZE = 100;
+	private static final int SCAN_PAGE_SIZE = 4000;
+	private static final int TABLES = 50;
+	private static final int DAYS = 365;
+	private static final String TABLE_NUMBER = "1";
+	private static final String DATE = "2026-11-01";
+	private static final String SLOT_TIME_START = "23:30";
+	private static final String SLOT_TIME_END = "23:45";
+
+	@Param({"10000", "100000", "1000000"})
+	public int tableSize;
+
+	private StubDynamoDbClient table;
+	private ReservationRepository repository;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		AttributeValue[] tableNumbers = new AttributeValue[TABLES];
+		for (int i = 0; i < TABLES; i++) {
+			tableNumbers[i] = AttributeValue.fromS(Integer.toString(i + 1));
+		}
+		AttributeValue[] dates = new AttributeValue[DAYS];
+		for (int i = 0; i < DAYS; i++) {
+			dates[i] = AttributeValue.fromS(LocalDate.parse(DATE).plusDays(i).toString());
+		}
+		AttributeValue[] times = new AttributeValue[24 * 60];
+		for (int minute = 0; minute < times.length; minute++) {
+			times[minute] = AttributeValue.fromS(LocalTime.of(minute / 60, minute % 60).toString());
+		}
+
+		// the checked table and day are spread over the scan order, the way hashed keys would be
+		List<Map<String, AttributeValue>> items = new ArrayList<>(tableSize);
+		List<Map<String, AttributeValue>> tableDay = new ArrayList<>(TABLE_DAY_RESERVATIONS);
+		int stride = tableSize / TABLE_DAY_RESERVATIONS;
+		for (int i = 0; i < tableSize; i++) {
+			int tableIndex;
+			int dayIndex;
+			if (i % stride == 0 && tableDay.size() < TABLE_DAY_RESERVATIONS) {
+				tableIndex = 0;
+				dayIndex = 0;
+			} else {
+				tableIndex = random.nextInt(TABLES);
+				dayIndex = tableIndex == 0 ? 1 + random.nextInt(DAYS - 1) : random.nextInt(DAYS);
+			}
+			int start = 8 * 60 + random.nextInt(15 * 60);
+			int end = Math.min(23 * 60 + 15, start + 30 + random.nextInt(90));
+			Map<String, AttributeValue> item = Map.of(
+					"tableNumber", tableNumbers[tableIndex],
+					"date", dates[dayIndex],
+					"slotTimeStart", times[start],
+					"slotTimeEnd", times[end]);
+			items.add(item);
+			if (tableIndex == 0 && dayIndex == 0) {
+				tableDay.add(item);
+			}
+		}
+		table = new StubDynamoDbClient(items, SCAN_PAGE_SIZE);
+		repository = new ReservationRepository(new StubDynamoDbClient(tableDay, QUERY_PAGE_SIZE), "Reservations");
+	}
+
+	/**
+	 * The requested slot is after every booked one, so neither approach can stop early.
+	 */
+	@Benchmark
+	public boolean tableDayQuery() {
+		LocalTime start = LocalTime.parse(SLOT_TIME_START);
+		LocalTime end = LocalTime.parse(SLOT_TIME_END);
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		do {
+			ItemPage page = repository.byTableDay(TABLE_NUMBER, DATE, null, lastEvaluatedKey);
+			for (Map<String, AttributeValue> item : page.getItems()) {
+				if (overlaps(item, start, end)) {
+					return true;
+				}
+			}
+			lastEvaluatedKey = page.getLastEvaluatedKey();
+		} while (lastEvaluatedKey != null);
+		return false;
+	}
+
+	/**
+	 * The check before the table-day key: every page of the table scanned, the items of the table and day compared.
+	 */
+	@Benchmark
+	public boolean fullScan() {
+		LocalTime start = LocalTime.parse(SLOT_TIME_START);
+		LocalTime end = LocalTime.parse(SLOT_TIME_END);
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		do {
+			ScanResponse scanResult = table.scan(ScanRequest.builder()
+					.tableName("Reservations")
+					.exclusiveStartKey(lastEvaluatedKey)
+					.build());
+			for (Map<String, AttributeValue> item : scanResult.items()) {
+				if (TABLE_NUMBER.equals(item.get("tableNumber").s()) && DATE.equals(item.get("date").s())
+						&& overlaps(item, start, end)) {
+					return true;
+				}
+			}
+			lastEvaluatedKey = scanResult.lastEvaluatedKey();
+		} while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
+		return false;
+	}
+
+	private static boolean overlaps(Map<String, AttributeValue> item, LocalTime start, LocalTime end) {
+		return start.isBefore(LocalTime.parse(item.get("slotTimeEnd").s()))
+				&& end.isAfter(LocalTime.parse(item.get("slotTimeStart").s()));
+	}
+}
@@ -0,0 +1,54 @@
+package com.task11;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Router lookup on the api_handler route table, for hits, typed parameters and each kind of miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+
+	@Param({"GET /tables", "GET /tables/42", "POST /reservations", "GET /tables/abc", "DELETE /reservations", "GET /unknown/path"})
+	public String request;
+
+	private Router<String> router;
+	private String method;
+	private String path;
+
+	@Setup
+	public void setUp() {
+		router = Router.<String>builder()
+				.add("GET", "/tables", "getTables")
+				.add("GET", "/tables/{tableId:int}", "getTableById")
+				.add("POST", "/tables", "createTable")
+				.add("POST", "/signup", "signup")
+				.add("POST", "/signin", "signin")
+				.add("POST", "/reservations", "createReservation")
+				.add("GET", "/reservations", "getReservations")
+				.build();
+		method = request.substring(0, request.indexOf(' '));
+		path = request.substring(request.indexOf(' ') + 1);
+	}
+
+	@Benchmark
+	public Router.Match<String> route() {
+		return router.route(method, path);
+	}
+}
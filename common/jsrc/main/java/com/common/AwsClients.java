@@ -0,0 +1,59 @@
+package com.common;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.ContainerCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Builder settings shared by the SDK v2 clients of the tasks, which keep one holder class per client in their
+ * own ClientRegistry. Clients use the URLConnection HTTP client and take region and credentials directly from
+ * the Lambda environment rather than walking the default provider chains.
+ * {@code endpoint_url} points every client at another endpoint, e.g. the test-support LocalAws emulator.
+ */
+public final class AwsClients {
+
+	private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(2);
+	private static final Duration SOCKET_TIMEOUT = Duration.ofSeconds(30);
+
+	private AwsClients() {
+	}
+
+	public static <B extends AwsClientBuilder<B, ?> & AwsSyncClientBuilder<B, ?>> B configure(B builder) {
+		builder.httpClientBuilder(UrlConnectionHttpClient.builder()
+				.connectionTimeout(CONNECTION_TIMEOUT)
+				.socketTimeout(SOCKET_TIMEOUT));
+
+		String region = Optional.ofNullable(System.getenv("region")).orElse(System.getenv("AWS_REGION"));
+		if (region != null && !region.isEmpty()) {
+			builder.region(Region.of(region));
+		}
+		String endpoint = System.getenv("endpoint_url");
+		if (endpoint != null && !endpoint.isEmpty()) {
+			builder.endpointOverride(URI.create(endpoint));
+		}
+		return builder.credentialsProvider(credentialsProvider());
+	}
+
+	/**
+	 * SnapStart functions get credentials from the container endpoint, regular ones from environment variables;
+	 * outside Lambda the default chain is used.
+	 */
+	private static AwsCredentialsProvider credentialsProvider() {
+		if (System.getenv("AWS_CONTAINER_CREDENTIALS_FULL_URI") != null) {
+			return ContainerCredentialsProvider.builder().build();
+		}
+		if (System.getenv("AWS_ACCESS_KEY_ID") != null) {
+			return EnvironmentVariableCredentialsProvider.create();
+		}
+		return DefaultCredentialsProvider.create();
+	}
+}
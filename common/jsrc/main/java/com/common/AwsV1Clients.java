@@ -0,0 +1,34 @@
+package com.common;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.client.builder.AwsClientBuilder;
+
+/**
+ * Builder settings shared by the SDK v1 clients of the tasks that have not moved to v2: one tuned connection
+ * pool configuration, and {@code endpoint_url} to point every client at another endpoint, e.g. the
+ * test-support LocalAws emulator.
+ */
+public final class AwsV1Clients {
+
+	private static final int MAX_CONNECTIONS = 50;
+	private static final int CONNECTION_TIMEOUT_MILLIS = 2_000;
+	private static final long CONNECTION_MAX_IDLE_MILLIS = 30_000;
+
+	private AwsV1Clients() {
+	}
+
+	public static <B extends AwsClientBuilder<B, ?>> B configure(B builder) {
+		String region = System.getenv("region");
+		String endpoint = System.getenv("endpoint_url");
+		if (endpoint != null && !endpoint.isEmpty()) {
+			builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region));
+		} else if (region != null && !region.isEmpty()) {
+			builder.withRegion(region);
+		}
+		return builder.withClientConfiguration(new ClientConfiguration()
+				.withMaxConnections(MAX_CONNECTIONS)
+				.withConnectionTimeout(CONNECTION_TIMEOUT_MILLIS)
+				.withConnectionMaxIdleMillis(CONNECTION_MAX_IDLE_MILLIS)
+				.withTcpKeepAlive(true));
+	}
+}
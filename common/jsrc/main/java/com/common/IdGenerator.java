@@ -0,0 +1,172 @@
+package com.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Item identifiers in one of three formats:
+ * <ul>
+ *     <li>{@code v4} - random UUID;</li>
+ *     <li>{@code v7} - UUID that starts with the Unix time in milliseconds;</li>
+ *     <li>{@code ulid} - 26 character Crockford base32 ULID, also time-prefixed.</li>
+ * </ul>
+ * Randomness comes from {@link ThreadLocalRandom} rather than the shared SecureRandom behind
+ * {@link java.util.UUID#randomUUID()}. The time-ordered formats keep a 12-bit sequence right after the timestamp,
+ * advanced with a CAS loop, so identifiers from one generator are strictly increasing even within a millisecond.
+ * The random bits are mixed with a per-generator salt that {@link #reseed()} replaces, because a JVM restored from
+ * a SnapStart/CRaC snapshot resumes with the same ThreadLocalRandom state as every other restored copy.
+ * <p>
+ * {@link #derive(long, String)} returns the same identifier for the same inputs instead, for writes that may be
+ * replayed: its bits come from the MD5 of the name, and the time-ordered formats take their timestamp from the caller.
+ */
+public final class IdGenerator {
+
+	public enum Mode {
+		V4, V7, ULID;
+
+		public static Mode parse(String mode) {
+			return mode == null || mode.isEmpty() ? V4 : valueOf(mode.trim().toUpperCase(Locale.ROOT));
+		}
+	}
+
+	public static final int UUID_LENGTH = 36;
+	public static final int ULID_LENGTH = 26;
+
+	private static final int SEQUENCE_BITS = 12;
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+	private final Mode mode;
+	private final AtomicLong lastTick = new AtomicLong();
+	private volatile long salt;
+
+	public IdGenerator(Mode mode) {
+		this.mode = mode;
+	}
+
+	public static IdGenerator fromEnvironment() {
+		return new IdGenerator(Mode.parse(System.getenv("id_mode")));
+	}
+
+	public void reseed() {
+		salt = new SecureRandom().nextLong();
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public int length() {
+		return mode == Mode.ULID ? ULID_LENGTH : UUID_LENGTH;
+	}
+
+	public String next() {
+		char[] id = new char[length()];
+		next(id, 0);
+		return new String(id);
+	}
+
+	public void next(char[] destination, int offset) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long salt = this.salt;
+		switch (mode) {
+			case V7: {
+				long tick = nextTick();
+				long mostSigBits = (tick >>> SEQUENCE_BITS << 16) | 0x7000L | (tick & 0xfffL);
+				long leastSigBits = ((random.nextLong() ^ salt) & 0x3fffffffffffffffL) | 0x8000000000000000L;
+				formatUuid(mostSigBits, leastSigBits, destination, offset);
+				break;
+			}
+			case ULID: {
+				long tick = nextTick();
+				long high = (tick << 4) | ((random.nextInt(16) ^ salt) & 0xf);
+				formatUlid(high, random.nextLong() ^ Long.rotateLeft(salt, 32), destination, offset);
+				break;
+			}
+			default: {
+				long mostSigBits = ((random.nextLong() ^ salt) & 0xffffffffffff0fffL) | 0x0000000000004000L;
+				long leastSigBits = ((random.nextLong() ^ Long.rotateLeft(salt, 32)) & 0x3fffffffffffffffL) | 0x8000000000000000L;
+				formatUuid(mostSigBits, leastSigBits, destination, offset);
+			}
+		}
+	}
+
+	/**
+	 * @param unixMillis timestamp of the time-ordered formats; ignored by {@code v4}, which becomes a name-based
+	 *                   version 3 UUID
+	 * @param name       unique name of the identified thing, such as a stream event id
+	 */
+	public String derive(long unixMillis, String name) {
+		byte[] hash = md5(name);
+		long high = toLong(hash, 0);
+		long low = toLong(hash, 8);
+		char[] id = new char[length()];
+		switch (mode) {
+			case V7:
+				formatUuid((unixMillis << 16) | 0x7000L | (high & 0xfffL), (low & 0x3fffffffffffffffL) | 0x8000000000000000L, id, 0);
+				break;
+			case ULID:
+				formatUlid((unixMillis << 16) | (high & 0xffffL), low, id, 0);
+				break;
+			default:
+				formatUuid((high & 0xffffffffffff0fffL) | 0x0000000000003000L, (low & 0x3fffffffffffffffL) | 0x8000000000000000L, id, 0);
+		}
+		return new String(id);
+	}
+
+	/**
+	 * @return (unix millis << 12 | sequence), strictly greater than the previous tick of this generator
+	 */
+	private long nextTick() {
+		long now = System.currentTimeMillis() << SEQUENCE_BITS;
+		return lastTick.updateAndGet(previous -> Math.max(previous + 1, now));
+	}
+
+	private static byte[] md5(String name) {
+		try {
+			return MessageDigest.getInstance("MD5").digest(name.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("MD5 not supported", e);
+		}
+	}
+
+	private static long toLong(byte[] bytes, int offset) {
+		long value = 0;
+		for (int i = offset; i < offset + 8; i++) {
+			value = (value << 8) | (bytes[i] & 0xff);
+		}
+		return value;
+	}
+
+	private static void formatUuid(long mostSigBits, long leastSigBits, char[] destination, int offset) {
+		writeHex(mostSigBits >>> 32, 8, destination, offset);
+		destination[offset + 8] = '-';
+		writeHex(mostSigBits >>> 16, 4, destination, offset + 9);
+		destination[offset + 13] = '-';
+		writeHex(mostSigBits, 4, destination, offset + 14);
+		destination[offset + 18] = '-';
+		writeHex(leastSigBits >>> 48, 4, destination, offset + 19);
+		destination[offset + 23] = '-';
+		writeHex(leastSigBits, 12, destination, offset + 24);
+	}
+
+	private static void writeHex(long value, int digits, char[] destination, int offset) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			destination[i] = HEX[(int) (value & 0xf)];
+			value >>>= 4;
+		}
+	}
+
+	private static void formatUlid(long high, long low, char[] destination, int offset) {
+		for (int i = offset + ULID_LENGTH - 1; i >= offset; i--) {
+			destination[i] = CROCKFORD[(int) (low & 0x1f)];
+			low = (low >>> 5) | ((high & 0x1f) << 59);
+			high >>>= 5;
+		}
+	}
+}
@@ -0,0 +1,260 @@
+package com.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Runs a write action at most once per idempotency key and replays its stored response afterwards.
+ * Keys are looked up in an in-process LRU cache first and then claimed in DynamoDB with a conditional put
+ * that carries a random claim token, so a retried or concurrent request with the same key never reaches the
+ * target table twice. A claim that is still running is reported as {@link InProgressException}.
+ * <p>
+ * The action stores its response through its {@link Completion}: it adds {@link Completion#record} to the
+ * {@code TransactWriteItems} that writes its target item, so the item and the completed record commit together,
+ * and calls {@link Completion#committed()} after that transaction succeeded. The record is conditioned on the
+ * claim token, so a claim that expired and was taken over by another request cancels the whole transaction.
+ * An action that returns without committing (a rejected request) releases the claim, and so does one that
+ * throws before committing, so the next retry runs the action again.
+ * Records carry an {@code expiresAt} epoch-seconds attribute that is also the table's TTL attribute.
+ * Without an {@code idempotency_table} in the environment the store is disabled, actions always run and
+ * {@link Completion#record} adds nothing to their writes.
+ */
+public final class IdempotencyStore {
+
+	public static final String HEADER = "Idempotency-Key";
+
+	private static final int CACHE_SIZE = 1024;
+	private static final long DEFAULT_TTL_SECONDS = 600;
+	private static final long CLAIM_SECONDS = 60;
+	private static final String KEY = "idempotencyKey";
+	private static final String IN_PROGRESS = "IN_PROGRESS";
+	private static final String COMPLETED = "COMPLETED";
+	private static final String CLAIM_TOKEN = "claimToken";
+	private static final String ANONYMOUS = "anonymous";
+
+	private final DynamoDbClient dynamoDb;
+	private final String tableName;
+	private final ObjectMapper objectMapper;
+	private final Duration ttl;
+	private final TtlCache<String, String> responses;
+
+	public IdempotencyStore(DynamoDbClient dynamoDb, String tableName, ObjectMapper objectMapper, Duration ttl) {
+		this.dynamoDb = dynamoDb;
+		this.tableName = tableName;
+		this.objectMapper = objectMapper;
+		this.ttl = ttl;
+		this.responses = new TtlCache<>(CACHE_SIZE, ttl);
+	}
+
+	public static IdempotencyStore fromEnvironment(DynamoDbClient dynamoDb, ObjectMapper objectMapper) {
+		String ttlSeconds = System.getenv("idempotency_ttl_seconds");
+		return new IdempotencyStore(dynamoDb, System.getenv("idempotency_table"), objectMapper,
+				Duration.ofSeconds(ttlSeconds == null ? DEFAULT_TTL_SECONDS : Long.parseLong(ttlSeconds)));
+	}
+
+	/**
+	 * Keys are namespaced by the caller, so two callers that send the same key or the same body never replay
+	 * each other's responses.
+	 *
+	 * @param principal the authenticated caller, or null for an anonymous request
+	 * @return {@code scope#principal#clientKey}, or {@code scope#principal#sha256:<hash of body>} when the client
+	 * sent no key
+	 */
+	public static String key(String scope, String principal, String clientKey, String body) {
+		String prefix = scope + "#" + (principal == null || principal.isEmpty() ? ANONYMOUS : principal) + "#";
+		if (clientKey != null && !clientKey.isEmpty()) {
+			return prefix + clientKey;
+		}
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256")
+					.digest(String.valueOf(body).getBytes(StandardCharsets.UTF_8));
+			return prefix + "sha256:" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public boolean isEnabled() {
+		return tableName != null && !tableName.isEmpty();
+	}
+
+	public <T> T execute(String key, Class<T> type, Function<Completion, T> action) {
+		if (!isEnabled()) {
+			return action.apply(new Completion(null, null));
+		}
+
+		String stored = responses.get(key);
+		if (stored != null) {
+			return decode(stored, type);
+		}
+
+		String claimToken = UUID.randomUUID().toString();
+		if (!claim(key, claimToken)) {
+			stored = storedResponse(key);
+			if (stored == null) {
+				throw new InProgressException(key);
+			}
+			responses.put(key, stored);
+			return decode(stored, type);
+		}
+
+		Completion completion = new Completion(key, claimToken);
+		T response;
+		try {
+			response = action.apply(completion);
+		} catch (RuntimeException e) {
+			if (!completion.committed) {
+				release(key, claimToken);
+			}
+			throw e;
+		}
+
+		if (completion.committed) {
+			responses.put(key, completion.response);
+		} else {
+			release(key, claimToken);
+		}
+		return response;
+	}
+
+	public void clearCache() {
+		responses.clear();
+	}
+
+	private boolean claim(String key, String claimToken) {
+		long now = epochSeconds();
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put(KEY, AttributeValue.fromS(key));
+		item.put("status", AttributeValue.fromS(IN_PROGRESS));
+		item.put(CLAIM_TOKEN, AttributeValue.fromS(claimToken));
+		item.put("expiresAt", AttributeValue.fromN(Long.toString(now + CLAIM_SECONDS)));
+		try {
+			dynamoDb.putItem(request -> request
+					.tableName(tableName)
+					.item(item)
+					.conditionExpression("attribute_not_exists(" + KEY + ") OR expiresAt < :now")
+					.expressionAttributeValues(Collections.singletonMap(":now", AttributeValue.fromN(Long.toString(now)))));
+			return true;
+		} catch (ConditionalCheckFailedException e) {
+			return false;
+		}
+	}
+
+	private String storedResponse(String key) {
+		Map<String, AttributeValue> item = dynamoDb.getItem(request -> request
+				.tableName(tableName)
+				.key(Collections.singletonMap(KEY, AttributeValue.fromS(key)))
+				.consistentRead(true)).item();
+		if (item == null || item.isEmpty() || !COMPLETED.equals(item.get("status").s())
+				|| Long.parseLong(item.get("expiresAt").n()) < epochSeconds()) {
+			return null;
+		}
+		return item.get("response").s();
+	}
+
+	/**
+	 * Deletes the claim unless it was completed or taken over in the meantime.
+	 */
+	private void release(String key, String claimToken) {
+		try {
+			dynamoDb.deleteItem(request -> request
+					.tableName(tableName)
+					.key(Collections.singletonMap(KEY, AttributeValue.fromS(key)))
+					.conditionExpression(CLAIM_TOKEN + " = :claimToken")
+					.expressionAttributeValues(Collections.singletonMap(":claimToken", AttributeValue.fromS(claimToken))));
+		} catch (ConditionalCheckFailedException e) {
+			// nothing of ours left to release
+		}
+	}
+
+	private String encode(Object response) {
+		try {
+			return objectMapper.writeValueAsString(response);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot store response", e);
+		}
+	}
+
+	private <T> T decode(String response, Class<T> type) {
+		try {
+			return objectMapper.readValue(response, type);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot read stored response", e);
+		}
+	}
+
+	private static long epochSeconds() {
+		return System.currentTimeMillis() / 1000;
+	}
+
+	/**
+	 * Handed to the action of one {@link #execute} call.
+	 */
+	public final class Completion {
+		private final String key;
+		private final String claimToken;
+		private String response;
+		private boolean committed;
+
+		private Completion(String key, String claimToken) {
+			this.key = key;
+			this.claimToken = claimToken;
+		}
+
+		/**
+		 * @param response what the action is about to return
+		 * @return the put of the completed record, to be written in the same transaction as the action's target
+		 * item; empty when the store is disabled
+		 */
+		public List<TransactWriteItem> record(Object response) {
+			if (key == null) {
+				return Collections.emptyList();
+			}
+			this.response = encode(response);
+			Map<String, AttributeValue> item = new HashMap<>();
+			item.put(KEY, AttributeValue.fromS(key));
+			item.put("status", AttributeValue.fromS(COMPLETED));
+			item.put("response", AttributeValue.fromS(this.response));
+			item.put("expiresAt", AttributeValue.fromN(Long.toString(epochSeconds() + ttl.getSeconds())));
+			return Collections.singletonList(TransactWriteItem.builder()
+					.put(Put.builder()
+							.tableName(tableName)
+							.item(item)
+							.conditionExpression(CLAIM_TOKEN + " = :claimToken")
+							.expressionAttributeValues(Collections.singletonMap(":claimToken", AttributeValue.fromS(claimToken)))
+							.build())
+					.build());
+		}
+
+		/**
+		 * Marks the response passed to {@link #record} as stored; call it once the transaction succeeded.
+		 */
+		public void committed() {
+			committed = key != null && response != null;
+		}
+	}
+
+	public static final class InProgressException extends RuntimeException {
+		public InProgressException(String key) {
+			super("A request with idempotency key " + key + " is still in progress");
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.common;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Stage timers and counters of one handler, written once per invocation as a CloudWatch Embedded Metric Format
+ * line on stdout, so CloudWatch extracts the metrics from the log stream without a PutMetricData call.
+ * <p>
+ * {@code try (Metrics.Timer timer = metrics.time("putItem")) { ... }} records one sample of a stage and
+ * {@link #flush()} emits everything recorded since the previous flush. Samples are kept in microseconds and
+ * emitted as a value array, from which CloudWatch computes p50/p99 per stage. A stage with more samples than
+ * one array holds ({@value #MAX_VALUES}) is folded into HdrHistogram-style log-linear buckets (16 per power of
+ * two, under 7% error) and emitted as bucket midpoints in proportion to their counts.
+ * Recording is synchronized, so stages may be timed from worker threads.
+ */
+public final class Metrics {
+
+	static final int MAX_VALUES = 100;
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final String DEFAULT_NAMESPACE = "SyndicateTasks";
+
+	private final String function;
+	private final String namespace;
+	private final boolean enabled;
+	private final PrintStream out;
+	private final Map<String, Samples> timers = new LinkedHashMap<>();
+	private final Map<String, long[]> counters = new LinkedHashMap<>();
+
+	public Metrics(String function, String namespace, boolean enabled, PrintStream out) {
+		this.function = function;
+		this.namespace = namespace;
+		this.enabled = enabled;
+		this.out = out;
+	}
+
+	public static Metrics forFunction(String function) {
+		String namespace = System.getenv("metrics_namespace");
+		return new Metrics(function, namespace == null || namespace.isEmpty() ? DEFAULT_NAMESPACE : namespace,
+				!"false".equalsIgnoreCase(System.getenv("metrics_enabled")), System.out);
+	}
+
+	public Timer time(String stage) {
+		return new Timer(stage, System.nanoTime());
+	}
+
+	public <T> T time(String stage, Supplier<T> action) {
+		try (Timer timer = time(stage)) {
+			return action.get();
+		}
+	}
+
+	public synchronized void record(String stage, long nanos) {
+		if (enabled) {
+			timers.computeIfAbsent(stage, name -> new Samples()).add(nanos / 1000);
+		}
+	}
+
+	public synchronized void count(String name, long delta) {
+		if (enabled) {
+			counters.computeIfAbsent(name, key -> new long[1])[0] += delta;
+		}
+	}
+
+	public synchronized void flush() {
+		if (timers.isEmpty() && counters.isEmpty()) {
+			return;
+		}
+		out.println(toJson(System.currentTimeMillis()));
+		timers.clear();
+		counters.clear();
+	}
+
+	synchronized String toJson(long timestamp) {
+		StringBuilder json = new StringBuilder(256);
+		json.append("{\"_aws\":{\"Timestamp\":").append(timestamp).append(",\"CloudWatchMetrics\":[{\"Namespace\":");
+		appendString(json, namespace);
+		json.append(",\"Dimensions\":[[\"function\"]],\"Metrics\":[");
+		boolean first = true;
+		for (String stage : timers.keySet()) {
+			first = appendDefinition(json, stage, "Milliseconds", first);
+		}
+		for (String name : counters.keySet()) {
+			first = appendDefinition(json, name, "Count", first);
+		}
+		json.append("]}]},\"function\":");
+		appendString(json, function);
+
+		for (Map.Entry<String, Samples> timer : timers.entrySet()) {
+			json.append(',');
+			appendString(json, timer.getKey());
+			json.append(':');
+			timer.getValue().appendValues(json);
+		}
+		for (Map.Entry<String, long[]> counter : counters.entrySet()) {
+			json.append(',');
+			appendString(json, counter.getKey());
+			json.append(':').append(counter.getValue()[0]);
+		}
+		return json.append('}').toString();
+	}
+
+	private static boolean appendDefinition(StringBuilder json, String name, String unit, boolean first) {
+		if (!first) {
+			json.append(',');
+		}
+		json.append("{\"Name\":");
+		appendString(json, name);
+		json.append(",\"Unit\":\"").append(unit).append("\"}");
+		return false;
+	}
+
+	private static void appendString(StringBuilder json, String value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\');
+			}
+			json.append(c);
+		}
+		json.append('"');
+	}
+
+	private static void appendMillis(StringBuilder json, long micros) {
+		long fraction = micros % 1000;
+		json.append(micros / 1000).append('.');
+		if (fraction < 100) {
+			json.append(fraction < 10 ? "00" : "0");
+		}
+		json.append(fraction);
+	}
+
+	/**
+	 * @return the midpoint of the log-linear bucket that holds {@code micros}
+	 */
+	static long bucketMidpoint(long micros) {
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		if (exponent < SUB_BUCKET_BITS) {
+			return micros;
+		}
+		int shift = exponent - SUB_BUCKET_BITS;
+		return ((micros >>> shift) << shift) + (1L << shift >>> 1);
+	}
+
+	public final class Timer implements AutoCloseable {
+		private final String stage;
+		private final long start;
+
+		private Timer(String stage, long start) {
+			this.stage = stage;
+			this.start = start;
+		}
+
+		@Override
+		public void close() {
+			record(stage, System.nanoTime() - start);
+		}
+	}
+
+	private static final class Samples {
+		private long[] values = new long[8];
+		private int size;
+
+		private void add(long micros) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = micros;
+		}
+
+		private void appendValues(StringBuilder json) {
+			json.append('[');
+			if (size <= MAX_VALUES) {
+				for (int i = 0; i < size; i++) {
+					if (i > 0) {
+						json.append(',');
+					}
+					appendMillis(json, values[i]);
+				}
+			} else {
+				Arrays.sort(values, 0, size);
+				int emitted = 0;
+				int i = 0;
+				while (i < size) {
+					long bucket = bucketMidpoint(values[i]);
+					while (i < size && bucketMidpoint(values[i]) == bucket) {
+						i++;
+					}
+					int target = (int) Math.round((double) i * MAX_VALUES / size);
+					for (; emitted < target; emitted++) {
+						if (emitted > 0) {
+							json.append(',');
+						}
+						appendMillis(json, bucket);
+					}
+				}
+			}
+			json.append(']');
+		}
+	}
+}
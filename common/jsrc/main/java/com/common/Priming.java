@@ -0,0 +1,61 @@
+package com.common;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SnapStart/CRaC hooks. After every restore the refresh drops state that must not be shared between
+ * restored instances (random seeds, timed caches); it is always registered, because any snapshot of the
+ * function needs it. The warm-up is opt-in, enabled with priming_enabled=true: before the snapshot is taken
+ * it runs synthetic work through the handler so that classes are loaded and JIT-compiled inside the snapshot.
+ */
+public final class Priming implements Resource {
+
+	// the CRaC context only keeps weak references to its resources
+	private static final List<Priming> REGISTERED = new CopyOnWriteArrayList<>();
+	private static final Logger LOG = System.getLogger(Priming.class.getName());
+
+	private final String name;
+	private final Runnable warmUp;
+	private final Runnable refresh;
+
+	private Priming(String name, Runnable warmUp, Runnable refresh) {
+		this.name = name;
+		this.warmUp = warmUp;
+		this.refresh = refresh;
+	}
+
+	public static boolean isEnabled() {
+		return Boolean.parseBoolean(System.getenv("priming_enabled"));
+	}
+
+	public static void register(String name, Runnable warmUp, Runnable refresh) {
+		Priming priming = new Priming(name, isEnabled() ? warmUp : null, refresh);
+		REGISTERED.add(priming);
+		Core.getGlobalContext().register(priming);
+	}
+
+	@Override
+	public void beforeCheckpoint(Context<? extends Resource> context) {
+		if (warmUp == null) {
+			return;
+		}
+		try {
+			warmUp.run();
+		} catch (RuntimeException e) {
+			// a failed warm-up only costs the first request some latency, it must not fail the checkpoint
+			LOG.log(Level.WARNING, name + " priming failed", e);
+		}
+	}
+
+	@Override
+	public void afterRestore(Context<? extends Resource> context) {
+		refresh.run();
+	}
+}
@@ -0,0 +1,218 @@
+package com.common;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * JSON-lines logging facade over log4j2 (Lambda appender, {@code %m%n} layout).
+ * <p>
+ * {@code log.atInfo("message").with("key", value).log()} writes one JSON object per event.
+ * A disabled level returns a shared no-op event, so nothing is formatted or concatenated;
+ * values that are expensive to build should go through {@link Event#withLazy}.
+ * Fields whose name looks like a credential are replaced with {@code "***"} at any depth,
+ * long strings are truncated and collections are cut to their first {@link #MAX_ITEMS} elements.
+ */
+public final class StructuredLogger {
+
+	static final int MAX_ITEMS = 25;
+	private static final int MAX_DEPTH = 4;
+	private static final int DEFAULT_MAX_VALUE_LENGTH = 512;
+	private static final String REDACTED = "***";
+	private static final Set<String> REDACTED_FIELDS = new HashSet<>(Arrays.asList(
+			"password", "accesstoken", "idtoken", "refreshtoken", "token", "authorization",
+			"x-amz-security-token", "authparameters"));
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private static final int MAX_VALUE_LENGTH = maxValueLength();
+
+	private final Logger logger;
+
+	private StructuredLogger(Logger logger) {
+		this.logger = logger;
+	}
+
+	public static StructuredLogger getLogger(Class<?> type) {
+		return new StructuredLogger(LogManager.getLogger(type));
+	}
+
+	public boolean isDebugEnabled() {
+		return logger.isEnabled(Level.DEBUG);
+	}
+
+	public Event atDebug(String message) {
+		return at(Level.DEBUG, "DEBUG", message);
+	}
+
+	public Event atInfo(String message) {
+		return at(Level.INFO, "INFO", message);
+	}
+
+	public Event atWarn(String message) {
+		return at(Level.WARN, "WARN", message);
+	}
+
+	public Event atError(String message) {
+		return at(Level.ERROR, "ERROR", message);
+	}
+
+	private Event at(Level level, String levelName, String message) {
+		return logger.isEnabled(level) ? new JsonEvent(level, levelName, message) : NoopEvent.INSTANCE;
+	}
+
+	public interface Event {
+		Event with(String key, Object value);
+
+		Event withLazy(String key, Supplier<?> value);
+
+		Event withError(Throwable error);
+
+		void log();
+	}
+
+	private enum NoopEvent implements Event {
+		INSTANCE;
+
+		@Override
+		public Event with(String key, Object value) {
+			return this;
+		}
+
+		@Override
+		public Event withLazy(String key, Supplier<?> value) {
+			return this;
+		}
+
+		@Override
+		public Event withError(Throwable error) {
+			return this;
+		}
+
+		@Override
+		public void log() {
+		}
+	}
+
+	private final class JsonEvent implements Event {
+		private final Level level;
+		private final String levelName;
+		private final String message;
+		private final List<Object> fields = new ArrayList<>();
+
+		private JsonEvent(Level level, String levelName, String message) {
+			this.level = level;
+			this.levelName = levelName;
+			this.message = message;
+		}
+
+		@Override
+		public Event with(String key, Object value) {
+			fields.add(key);
+			fields.add(value);
+			return this;
+		}
+
+		@Override
+		public Event withLazy(String key, Supplier<?> value) {
+			return with(key, value.get());
+		}
+
+		@Override
+		public Event withError(Throwable error) {
+			return with("error", error.getClass().getName())
+					.with("errorMessage", error.getMessage());
+		}
+
+		@Override
+		public void log() {
+			StringWriter out = new StringWriter(128);
+			try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+				generator.writeStartObject();
+				generator.writeStringField("level", levelName);
+				generator.writeStringField("logger", logger.getName());
+				String requestId = ThreadContext.get("AWSRequestId");
+				if (requestId != null) {
+					generator.writeStringField("requestId", requestId);
+				}
+				generator.writeStringField("message", message);
+				for (int i = 0; i < fields.size(); i += 2) {
+					String key = (String) fields.get(i);
+					generator.writeFieldName(key);
+					writeValue(generator, key, fields.get(i + 1), 0);
+				}
+				generator.writeEndObject();
+			} catch (IOException e) {
+				logger.log(Level.ERROR, "Cannot format log event: " + message);
+				return;
+			}
+			logger.log(level, out.toString());
+		}
+	}
+
+	private static void writeValue(JsonGenerator generator, String key, Object value, int depth) throws IOException {
+		if (key != null && REDACTED_FIELDS.contains(key.toLowerCase(Locale.ROOT))) {
+			generator.writeString(REDACTED);
+		} else if (value == null) {
+			generator.writeNull();
+		} else if (value instanceof Number) {
+			generator.writeNumber(value.toString());
+		} else if (value instanceof Boolean) {
+			generator.writeBoolean((Boolean) value);
+		} else if (depth >= MAX_DEPTH) {
+			generator.writeString(truncate(value.toString()));
+		} else if (value instanceof Map) {
+			generator.writeStartObject();
+			int written = 0;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				if (written++ == MAX_ITEMS) {
+					generator.writeNumberField("truncatedEntries", ((Map<?, ?>) value).size() - MAX_ITEMS);
+					break;
+				}
+				String name = String.valueOf(entry.getKey());
+				generator.writeFieldName(name);
+				writeValue(generator, name, entry.getValue(), depth + 1);
+			}
+			generator.writeEndObject();
+		} else if (value instanceof Collection) {
+			generator.writeStartArray();
+			int written = 0;
+			for (Object item : (Collection<?>) value) {
+				if (written++ == MAX_ITEMS) {
+					generator.writeString("+" + (((Collection<?>) value).size() - MAX_ITEMS) + " more");
+					break;
+				}
+				writeValue(generator, null, item, depth + 1);
+			}
+			generator.writeEndArray();
+		} else {
+			generator.writeString(truncate(value.toString()));
+		}
+	}
+
+	private static String truncate(String value) {
+		if (value.length() <= MAX_VALUE_LENGTH) {
+			return value;
+		}
+		return value.substring(0, MAX_VALUE_LENGTH) + "...(" + (value.length() - MAX_VALUE_LENGTH) + " more chars)";
+	}
+
+	private static int maxValueLength() {
+		String value = System.getenv("log_max_value_length");
+		return value == null || value.isEmpty() ? DEFAULT_MAX_VALUE_LENGTH : Integer.parseInt(value);
+	}
+}
@@ -0,0 +1,58 @@
+package com.common;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU map whose entries expire a fixed time after they were written.
+ */
+public class TtlCache<K, V> {
+
+	private final long ttlNanos;
+	private final LinkedHashMap<K, Timed<V>> entries;
+
+	public TtlCache(int maxSize, Duration ttl) {
+		this.ttlNanos = ttl.toNanos();
+		this.entries = new LinkedHashMap<K, Timed<V>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Timed<V>> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	public synchronized V get(K key) {
+		Timed<V> entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (System.nanoTime() - entry.expiresAt >= 0) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.value;
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, new Timed<>(value, System.nanoTime() + ttlNanos));
+	}
+
+	public synchronized void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	private static final class Timed<V> {
+		private final V value;
+		private final long expiresAt;
+
+		private Timed(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorTest {
+
+	private static final int IDS = 100_000;
+	private static final int THREADS = 8;
+
+	@ParameterizedTest
+	@EnumSource(value = IdGenerator.Mode.class, names = {"V7", "ULID"})
+	void timeOrderedIdsIncreaseStrictly(IdGenerator.Mode mode) {
+		IdGenerator generator = new IdGenerator(mode);
+		String previous = generator.next();
+		for (int i = 0; i < IDS; i++) {
+			String id = generator.next();
+			assertTrue(id.compareTo(previous) > 0, id + " does not follow " + previous);
+			previous = id;
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(IdGenerator.Mode.class)
+	void idsAreUniqueAcrossThreads(IdGenerator.Mode mode) throws Exception {
+		IdGenerator generator = new IdGenerator(mode);
+		Set<String> ids = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>(THREADS);
+			for (int thread = 0; thread < THREADS; thread++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < IDS; i++) {
+						ids.add(generator.next());
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(THREADS * IDS, ids.size());
+	}
+
+	@Test
+	void uuidsCarryVersionAndVariant() {
+		UUID v4 = UUID.fromString(new IdGenerator(IdGenerator.Mode.V4).next());
+		assertEquals(4, v4.version());
+		assertEquals(2, v4.variant());
+
+		long before = System.currentTimeMillis();
+		UUID v7 = UUID.fromString(new IdGenerator(IdGenerator.Mode.V7).next());
+		assertEquals(7, v7.version());
+		assertEquals(2, v7.variant());
+		long millis = v7.getMostSignificantBits() >>> 16;
+		assertTrue(millis >= before && millis <= System.currentTimeMillis(), "timestamp " + millis);
+	}
+
+	@Test
+	void ulidIsCrockfordBase32() {
+		String ulid = new IdGenerator(IdGenerator.Mode.ULID).next();
+		assertEquals(IdGenerator.ULID_LENGTH, ulid.length());
+		assertTrue(ulid.matches("[0-7][0-9A-HJKMNP-TV-Z]{25}"), ulid);
+	}
+
+	@Test
+	void nextWritesIntoBuffer() {
+		IdGenerator generator = new IdGenerator(IdGenerator.Mode.V7);
+		char[] buffer = new char[2 + generator.length()];
+		buffer[0] = '<';
+		buffer[1] = '>';
+		generator.next(buffer, 2);
+		assertEquals("<>", new String(buffer, 0, 2));
+		assertEquals(7, UUID.fromString(new String(buffer, 2, generator.length())).version());
+	}
+
+	@Test
+	void reseedKeepsIdsUnique() {
+		IdGenerator generator = new IdGenerator(IdGenerator.Mode.V4);
+		String before = generator.next();
+		generator.reseed();
+		assertNotEquals(before, generator.next());
+	}
+
+	@ParameterizedTest
+	@EnumSource(IdGenerator.Mode.class)
+	void deriveIsDeterministic(IdGenerator.Mode mode) {
+		IdGenerator generator = new IdGenerator(mode);
+		assertEquals(generator.derive(1_700_000_000_000L, "event-1"), new IdGenerator(mode).derive(1_700_000_000_000L, "event-1"));
+		assertNotEquals(generator.derive(1_700_000_000_000L, "event-1"), generator.derive(1_700_000_000_000L, "event-2"));
+		assertEquals(generator.length(), generator.derive(1_700_000_000_000L, "event-1").length());
+	}
+
+	@Test
+	void deriveV4IsNameBasedUuid() {
+		String name = "shardId-00000001:49590338271490256608559692538361571095921575989136588898";
+		assertEquals(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString(),
+				new IdGenerator(IdGenerator.Mode.V4).derive(0, name));
+	}
+
+	@Test
+	void deriveTimeOrderedStartsWithTimestamp() {
+		long millis = 1_700_000_000_000L;
+		UUID v7 = UUID.fromString(new IdGenerator(IdGenerator.Mode.V7).derive(millis, "event-1"));
+		assertEquals(millis, v7.getMostSignificantBits() >>> 16);
+		assertEquals(7, v7.version());
+
+		IdGenerator ulid = new IdGenerator(IdGenerator.Mode.ULID);
+		assertTrue(ulid.derive(millis, "b").substring(0, 10).compareTo(ulid.derive(millis + 1, "a").substring(0, 10)) < 0);
+	}
+}
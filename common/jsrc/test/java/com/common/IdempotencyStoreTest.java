@@ -0,0 +1,35 @@
+package com.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+	private static final String BODY = "{\"tableNumber\":1,\"date\":\"2026-11-01\"}";
+
+	@Test
+	void keysAreNamespacedByPrincipal() {
+		assertEquals("reservations#user-a#key-1", IdempotencyStore.key("reservations", "user-a", "key-1", BODY));
+		assertNotEquals(IdempotencyStore.key("reservations", "user-a", "key-1", BODY),
+				IdempotencyStore.key("reservations", "user-b", "key-1", BODY));
+		assertNotEquals(IdempotencyStore.key("reservations", "user-a", null, BODY),
+				IdempotencyStore.key("reservations", "user-b", null, BODY));
+	}
+
+	@Test
+	void bodyKeyIsStableWithoutClientKey() {
+		String key = IdempotencyStore.key("reservations", "user-a", "", BODY);
+		assertTrue(key.startsWith("reservations#user-a#sha256:"), key);
+		assertEquals(key, IdempotencyStore.key("reservations", "user-a", null, BODY));
+		assertNotEquals(key, IdempotencyStore.key("reservations", "user-a", null, BODY + " "));
+	}
+
+	@Test
+	void requestsWithoutPrincipalShareTheAnonymousNamespace() {
+		assertEquals("tables#anonymous#key-1", IdempotencyStore.key("tables", null, "key-1", BODY));
+		assertEquals(IdempotencyStore.key("tables", null, "key-1", BODY), IdempotencyStore.key("tables", "", "key-1", BODY));
+	}
+}
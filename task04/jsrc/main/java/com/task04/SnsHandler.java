@@ -1,8 +1,10 @@
 package com.task04;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SNSEvent;
+import com.common.Metrics;
+import com.common.StructuredLogger;
 import com.syndicate.deployment.annotations.events.SnsEventSource;
 import com.syndicate.deployment.annotations.lambda.LambdaHandler;
 import com.syndicate.deployment.annotations.resources.DependsOn;
@@ -11,6 +13,7 @@ import com.syndicate.deployment.model.ResourceType;
 import com.syndicate.deployment.model.RetentionSetting;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @LambdaHandler(lambdaName = "sns_handler",
@@ -20,16 +23,33 @@ import java.util.Map;
 )
 @SnsEventSource(targetTopic = "lambda_topic")
 @DependsOn(name = "lambda_topic", resourceType = ResourceType.SNS_TOPIC)
-public class SnsHandler implements RequestHandler<Object, Map<String, Object>> {
+public class SnsHandler implements RequestHandler<SNSEvent, Map<String, Object>> {
 
-	public Map<String, Object> handleRequest(Object request, Context context) {
-		LambdaLogger lambdaLogger = context.getLogger();
-		lambdaLogger.log(request.toString());
+	private static final StructuredLogger log = StructuredLogger.getLogger(SnsHandler.class);
+
+	private final Metrics metrics = Metrics.forFunction("sns_handler");
+
+	@Override
+	public Map<String, Object> handleRequest(SNSEvent event, Context context) {
+		List<SNSEvent.SNSRecord> records = event.getRecords();
+		metrics.count("records", records.size());
+
+		// SNS delivers one record per invocation, so records are handled inline
+		try {
+			for (SNSEvent.SNSRecord record : records) {
+				try (Metrics.Timer timer = metrics.time("handleRecord")) {
+					log.atInfo("Notification received").with("messageId", record.getSNS().getMessageId())
+							.with("message", record.getSNS().getMessage()).log();
+				}
+			}
+		} finally {
+			metrics.flush();
+		}
 
 		Map<String, Object> resultMap = new HashMap<String, Object>();
 		resultMap.put("statusCode", 200);
 		resultMap.put("message", "Hello from Lambda");
-		
+
 		return resultMap;
 	}
-}
\ No newline at end of file
+}
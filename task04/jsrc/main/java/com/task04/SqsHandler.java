@@ -1,34 +1,93 @@
 package com.task04;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.common.Metrics;
+import com.common.StructuredLogger;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
 import com.syndicate.deployment.annotations.events.SqsTriggerEventSource;
 import com.syndicate.deployment.annotations.lambda.LambdaHandler;
 import com.syndicate.deployment.annotations.resources.DependsOn;
+import com.syndicate.deployment.model.FunctionResponseType;
 import com.syndicate.deployment.model.ResourceType;
 import com.syndicate.deployment.model.RetentionSetting;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Consumes async_queue in batches. Messages of one batch are processed concurrently on a bounded pool
+ * and only the ones that failed (or did not finish before the invocation deadline) are reported back,
+ * so SQS redelivers those and deletes the rest. The trigger enables ReportBatchItemFailures, without which
+ * the response would be ignored.
+ */
 @LambdaHandler(lambdaName = "sqs_handler",
 		roleName = "sqs_handler-role",
 		isPublishVersion = false,
 		logsExpiration = RetentionSetting.SYNDICATE_ALIASES_SPECIFIED
 )
-@SqsTriggerEventSource(targetQueue = "async_queue", batchSize = 1)
+@SqsTriggerEventSource(targetQueue = "async_queue", batchSize = 10,
+		functionResponseTypes = {FunctionResponseType.REPORT_BATCH_ITEM_FAILURES})
 @DependsOn(name = "async_queue", resourceType = ResourceType.SQS_QUEUE)
-public class SqsHandler implements RequestHandler<Object, Map<String, Object>> {
+@EnvironmentVariables(value = {
+		@EnvironmentVariable(key = "max_concurrency", value = "4")
+})
+public class SqsHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
 
-	public Map<String, Object> handleRequest(Object request, Context context) {
-		LambdaLogger lambdaLogger = context.getLogger();
-		lambdaLogger.log(request.toString());
+	private static final StructuredLogger log = StructuredLogger.getLogger(SqsHandler.class);
+	private static final long DEADLINE_MARGIN_MILLIS = 1_000;
 
-		Map<String, Object> resultMap = new HashMap<String, Object>();
-		resultMap.put("statusCode", 200);
-		resultMap.put("message", "Hello from Lambda");
+	private final ExecutorService workers = Workers.shared();
+	private final Metrics metrics = Metrics.forFunction("sqs_handler");
 
-		return resultMap;
+	@Override
+	public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+		List<SQSEvent.SQSMessage> messages = event.getRecords();
+		metrics.count("messages", messages.size());
+
+		List<Future<?>> results = new ArrayList<>(messages.size());
+		for (SQSEvent.SQSMessage message : messages) {
+			results.add(workers.submit(() -> processMessage(message)));
+		}
+
+		long deadline = System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(context.getRemainingTimeInMillis() - DEADLINE_MARGIN_MILLIS);
+		List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+		for (int i = 0; i < messages.size(); i++) {
+			String messageId = messages.get(i).getMessageId();
+			Future<?> result = results.get(i);
+			try {
+				result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (ExecutionException e) {
+				log.atWarn("Message failed").with("messageId", messageId).withError(e.getCause()).log();
+				failures.add(new SQSBatchResponse.BatchItemFailure(messageId));
+			} catch (TimeoutException e) {
+				log.atWarn("Message did not finish before the deadline").with("messageId", messageId).log();
+				result.cancel(true);
+				failures.add(new SQSBatchResponse.BatchItemFailure(messageId));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				result.cancel(true);
+				failures.add(new SQSBatchResponse.BatchItemFailure(messageId));
+			}
+		}
+
+		metrics.count("failedMessages", failures.size());
+		metrics.flush();
+		return new SQSBatchResponse(failures);
+	}
+
+	private void processMessage(SQSEvent.SQSMessage message) {
+		try (Metrics.Timer timer = metrics.time("processMessage")) {
+			log.atInfo("Message received").with("messageId", message.getMessageId()).with("body", message.getBody()).log();
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.task04;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bounded worker pool of the SQS handler, shared by the invocations of one container and sized by max_concurrency.
+ */
+final class Workers {
+
+	private static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+	private Workers() {
+	}
+
+	static ExecutorService shared() {
+		return Holder.POOL;
+	}
+
+	private static int maxConcurrency() {
+		String value = System.getenv("max_concurrency");
+		return value == null || value.isEmpty() ? DEFAULT_MAX_CONCURRENCY : Math.max(1, Integer.parseInt(value));
+	}
+
+	private static final class Holder {
+		private static final ExecutorService POOL = Executors.newFixedThreadPool(maxConcurrency(), runnable -> {
+			Thread thread = new Thread(runnable, "lambda-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
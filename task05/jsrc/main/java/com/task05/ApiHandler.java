@@ -1,13 +1,16 @@
 package com.task05;
 
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import com.amazonaws.services.dynamodbv2.document.DynamoDB;
-import com.amazonaws.services.dynamodbv2.document.Item;
-import com.amazonaws.services.dynamodbv2.document.Table;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.common.IdGenerator;
+import com.common.IdempotencyStore;
+import com.common.Metrics;
+import com.common.Priming;
+import com.common.StructuredLogger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
 import com.syndicate.deployment.annotations.lambda.LambdaHandler;
@@ -19,8 +22,9 @@ import com.task05.dto.Response;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 @LambdaHandler(lambdaName = "api_handler",
 		roleName = "api_handler-role",
@@ -28,47 +32,118 @@ import java.util.UUID;
 		logsExpiration = RetentionSetting.SYNDICATE_ALIASES_SPECIFIED
 )
 @EnvironmentVariables(value = {
-		@EnvironmentVariable(key = "target_table", value = "${target_table}")
+		@EnvironmentVariable(key = "target_table", value = "${target_table}"),
+		@EnvironmentVariable(key = "id_mode", value = "v7"),
+		@EnvironmentVariable(key = "conditional_put", value = "true"),
+		@EnvironmentVariable(key = "idempotency_table", value = "${idempotency_table}"),
+		@EnvironmentVariable(key = "priming_enabled", value = "false"),
+		@EnvironmentVariable(key = "JAVA_TOOL_OPTIONS", value = "-XX:+TieredCompilation -XX:TieredStopAtLevel=1")
 })
 public class ApiHandler implements RequestHandler<Request, Response> {
 
-	AmazonDynamoDB client = AmazonDynamoDBClientBuilder.standard().build();
-	private DynamoDB dynamoDb = new DynamoDB(client);
-	private String DYNAMODB_TABLE_NAME = System.getenv("target_table");
+	private static final StructuredLogger log = StructuredLogger.getLogger(ApiHandler.class);
 
+	static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+			.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+	private final EventWriter writer = EventWriter.fromEnvironment();
+	private final IdempotencyStore idempotencyStore = IdempotencyStore.fromEnvironment(ClientRegistry.dynamoDb(), OBJECT_MAPPER);
+	private final IdGenerator idGenerator = IdGenerator.fromEnvironment();
+	private final Metrics metrics = Metrics.forFunction("api_handler");
+
+	public ApiHandler() {
+		Priming.register("api_handler", this::prime, this::refresh);
+	}
+
+	/**
+	 * A retried request (same principal and idempotencyKey, or same principal and content when no key is sent)
+	 * gets the stored response of the first one instead of a second event.
+	 */
 	@Override
 	public Response handleRequest(Request event1, Context context) {
+		try (Metrics.Timer timer = metrics.time("handleRequest")) {
+			String principal = Integer.toString(event1.getPrincipalId());
+			String key = idempotencyStore.isEnabled()
+					? IdempotencyStore.key("events", principal, event1.getIdempotencyKey(), canonicalBody(event1)) : null;
+			return idempotencyStore.execute(key, Response.class, completion -> createEvent(event1, completion));
+		} catch (RuntimeException e) {
+			log.atError("Event not created").with("principalId", event1.getPrincipalId()).withError(e).log();
+			throw e;
+		} finally {
+			metrics.flush();
+		}
+	}
 
+	/**
+	 * Writes the event and, when the idempotency store is enabled, its stored response in one transaction.
+	 */
+	private Response createEvent(Request event1, IdempotencyStore.Completion completion) {
 		int principalId = event1.getPrincipalId();
 		Map<String, String> content = event1.getContent();
 
-		String newId = UUID.randomUUID().toString();
+		String newId = idGenerator.next();
 		String currentTime = DateTimeFormatter.ISO_INSTANT
 				.format(Instant.now().atOffset(ZoneOffset.UTC));
 
-		Table table = dynamoDb.getTable(DYNAMODB_TABLE_NAME);
-
-		Item item = new Item()
-				.withPrimaryKey("id", newId)
-				.withInt("principalId", principalId)
-				.withString("createdAt", currentTime)
-				.withMap("body", content);
-
-		table.putItem(item);
+		Event event = toEvent(newId, principalId, currentTime, content);
+		try (Metrics.Timer timer = metrics.time("putItem")) {
+			Response response = toResponse(event);
+			writer.write(event, completion.record(response));
+			completion.committed();
+			metrics.count("eventsCreated", 1);
+			log.atInfo("Event created").with("eventId", newId).with("principalId", principalId).log();
+			return response;
+		}
+	}
 
-		Event event = Event.builder()
-				.id(newId)
+	static Event toEvent(String id, int principalId, String createdAt, Map<String, String> content) {
+		return Event.builder()
+				.id(id)
 				.principalId(principalId)
-				.createdAt(currentTime)
+				.createdAt(createdAt)
 				.body(content)
 				.build();
+	}
 
-		Response response = Response.builder()
+	static Response toResponse(Event event) {
+		return Response.builder()
 				.statusCode(201)
 				.event(event)
 				.build();
+	}
+
+	static String canonicalBody(Request request) {
+		Map<String, Object> body = new HashMap<>();
+		body.put("principalId", request.getPrincipalId());
+		body.put("content", request.getContent());
+		try {
+			return OBJECT_MAPPER.writeValueAsString(body);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void refresh() {
+		idGenerator.reseed();
+		idempotencyStore.clearCache();
+	}
 
-		return response;
+	/**
+	 * Runs a synthetic event through deserialization, item mapping and response serialization, without the put.
+	 */
+	private void prime() {
+		try {
+			Map<String, Object> body = new HashMap<>();
+			body.put("principalId", 1);
+			body.put("content", Collections.singletonMap("name", "priming"));
+			Request request = OBJECT_MAPPER.convertValue(body, Request.class);
 
+			String createdAt = DateTimeFormatter.ISO_INSTANT.format(Instant.now().atOffset(ZoneOffset.UTC));
+			Event event = toEvent(idGenerator.next(), request.getPrincipalId(), createdAt, request.getContent());
+			EventTable.SCHEMA.itemToMap(event, true);
+			OBJECT_MAPPER.writeValueAsString(toResponse(event));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.task05;
+
+import com.task05.dto.Event;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+/**
+ * Mapping of {@link Event} to the Events table, declared up front so the enhanced client does not
+ * introspect the bean on the first request.
+ */
+public final class EventTable {
+
+	public static final TableSchema<Event> SCHEMA = StaticTableSchema.builder(Event.class)
+			.newItemSupplier(Event::new)
+			.addAttribute(String.class, a -> a.name("id")
+					.getter(Event::getId)
+					.setter(Event::setId)
+					.tags(StaticAttributeTags.primaryPartitionKey()))
+			.addAttribute(Integer.class, a -> a.name("principalId")
+					.getter(Event::getPrincipalId)
+					.setter(Event::setPrincipalId))
+			.addAttribute(String.class, a -> a.name("createdAt")
+					.getter(Event::getCreatedAt)
+					.setter(Event::setCreatedAt))
+			.addAttribute(EnhancedType.mapOf(String.class, String.class), a -> a.name("body")
+					.getter(Event::getBody)
+					.setter(Event::setBody))
+			.build();
+
+	private EventTable() {
+	}
+}
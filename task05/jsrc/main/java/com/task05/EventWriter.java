@@ -0,0 +1,105 @@
+package com.task05;
+
+import com.task05.dto.Event;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Puts events into the target table with blocking calls on the shared URLConnection-backed client.
+ * With conditional puts enabled the write fails with {@link DuplicateEventException} instead of
+ * overwriting an existing item that has the same id. Items passed along with the event, such as the
+ * idempotency record of the request, turn the put into one {@code TransactWriteItems}.
+ */
+public final class EventWriter {
+
+	private static final String ID_NOT_EXISTS = "attribute_not_exists(id)";
+
+	private final String tableName;
+	private final boolean conditional;
+	private final DynamoDbTable<Event> table;
+	private final DynamoDbClient client = ClientRegistry.dynamoDb();
+
+	private EventWriter(String tableName, boolean conditional) {
+		this.tableName = tableName;
+		this.conditional = conditional;
+		this.table = ClientRegistry.enhancedDynamoDb().table(tableName, EventTable.SCHEMA);
+	}
+
+	public static EventWriter fromEnvironment() {
+		return new EventWriter(System.getenv("target_table"), Boolean.parseBoolean(System.getenv("conditional_put")));
+	}
+
+	public void write(Event event) {
+		write(event, Collections.emptyList());
+	}
+
+	/**
+	 * @param alongside items written in the same transaction as the event
+	 */
+	public void write(Event event, List<TransactWriteItem> alongside) {
+		try {
+			if (alongside.isEmpty()) {
+				put(event);
+			} else {
+				writeTransaction(event, alongside);
+			}
+		} catch (ConditionalCheckFailedException e) {
+			throw new DuplicateEventException(event.getId(), e);
+		} catch (TransactionCanceledException e) {
+			if (isDuplicate(e)) {
+				throw new DuplicateEventException(event.getId(), e);
+			}
+			throw e;
+		}
+	}
+
+	private void put(Event event) {
+		PutItemEnhancedRequest.Builder<Event> request = PutItemEnhancedRequest.builder(Event.class).item(event);
+		if (conditional) {
+			request.conditionExpression(Expression.builder().expression(ID_NOT_EXISTS).build());
+		}
+		table.putItem(request.build());
+	}
+
+	private void writeTransaction(Event event, List<TransactWriteItem> alongside) {
+		Put.Builder put = Put.builder()
+				.tableName(tableName)
+				.item(EventTable.SCHEMA.itemToMap(event, true));
+		if (conditional) {
+			put.conditionExpression(ID_NOT_EXISTS);
+		}
+		List<TransactWriteItem> items = new ArrayList<>(alongside.size() + 1);
+		items.add(TransactWriteItem.builder().put(put.build()).build());
+		items.addAll(alongside);
+		client.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+	}
+
+	/**
+	 * @return whether a transaction was cancelled by the condition on the event put, its first item
+	 */
+	private static boolean isDuplicate(TransactionCanceledException e) {
+		if (!e.hasCancellationReasons()) {
+			return false;
+		}
+		List<CancellationReason> reasons = e.cancellationReasons();
+		return !reasons.isEmpty() && "ConditionalCheckFailed".equals(reasons.get(0).code());
+	}
+
+	public static final class DuplicateEventException extends RuntimeException {
+		public DuplicateEventException(String id, Throwable cause) {
+			super("Event " + id + " already exists", cause);
+		}
+	}
+}
@@ -13,4 +13,6 @@ import java.util.Map;
 public class Request {
     private int principalId;
     private Map<String, String> content;
+    /** Optional client-supplied key; retries with the same key replay the first response. */
+    private String idempotencyKey;
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.task06;
+
+import com.common.Metrics;
+import com.common.StructuredLogger;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Buffers audit items and writes them with BatchWriteItem, 25 at a time.
+ * Unprocessed items are retried with jittered exponential backoff; items that still fail
+ * are reported by the stream sequence number of the record that produced them.
+ */
+public class AuditBatchWriter {
+
+	static final int MAX_BATCH_SIZE = 25;
+	private static final StructuredLogger log = StructuredLogger.getLogger(AuditBatchWriter.class);
+	private static final int MAX_ATTEMPTS = 6;
+	private static final long BASE_BACKOFF_MILLIS = 50;
+	private static final long MAX_BACKOFF_MILLIS = 2_000;
+
+	private final DynamoDbClient dynamoDbClient;
+	private final String tableName;
+	private final Metrics metrics;
+	private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+
+	public AuditBatchWriter(DynamoDbClient dynamoDbClient, String tableName, Metrics metrics) {
+		this.dynamoDbClient = dynamoDbClient;
+		this.tableName = tableName;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return the sequence number of the first record that could not be written, or null
+	 */
+	public String add(String sequenceNumber, Map<String, AttributeValue> item) {
+		WriteRequest writeRequest = WriteRequest.builder()
+				.putRequest(PutRequest.builder().item(item).build())
+				.build();
+		pending.put(item.get("id").s(), new PendingWrite(sequenceNumber, writeRequest));
+		return pending.size() < MAX_BATCH_SIZE ? null : flush();
+	}
+
+	/**
+	 * @return the sequence number of the first record that could not be written, or null
+	 */
+	public String flush() {
+		if (pending.isEmpty()) {
+			return null;
+		}
+
+		Map<String, PendingWrite> remaining = new LinkedHashMap<>(pending);
+		pending.clear();
+
+		for (int attempt = 1; attempt <= MAX_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+			if (attempt > 1) {
+				metrics.count("batchRetries", 1);
+				backoff(attempt);
+			}
+			try {
+				remaining = write(remaining);
+			} catch (RuntimeException e) {
+				log.atWarn("BatchWriteItem failed").with("attempt", attempt).withError(e).log();
+			}
+		}
+
+		if (remaining.isEmpty()) {
+			return null;
+		}
+		log.atError("Audit items left unprocessed").with("items", remaining.size()).with("attempts", MAX_ATTEMPTS).log();
+		metrics.count("unprocessedItems", remaining.size());
+		return remaining.values().iterator().next().sequenceNumber;
+	}
+
+	private Map<String, PendingWrite> write(Map<String, PendingWrite> batch) {
+		List<WriteRequest> writeRequests = new ArrayList<>(batch.size());
+		for (PendingWrite pendingWrite : batch.values()) {
+			writeRequests.add(pendingWrite.writeRequest);
+		}
+
+		BatchWriteItemResponse response;
+		try (Metrics.Timer timer = metrics.time("batchWriteItem")) {
+			response = dynamoDbClient.batchWriteItem(builder -> builder
+					.requestItems(Collections.singletonMap(tableName, writeRequests)));
+		}
+
+		List<WriteRequest> unprocessed = response.unprocessedItems().get(tableName);
+		if (unprocessed == null || unprocessed.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		Set<String> unprocessedIds = new HashSet<>();
+		for (WriteRequest writeRequest : unprocessed) {
+			unprocessedIds.add(writeRequest.putRequest().item().get("id").s());
+		}
+
+		Map<String, PendingWrite> retry = new LinkedHashMap<>();
+		for (Map.Entry<String, PendingWrite> entry : batch.entrySet()) {
+			if (unprocessedIds.contains(entry.getKey())) {
+				retry.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return retry;
+	}
+
+	private static void backoff(int attempt) {
+		long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempt - 2));
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final class PendingWrite {
+		private final String sequenceNumber;
+		private final WriteRequest writeRequest;
+
+		private PendingWrite(String sequenceNumber, WriteRequest writeRequest) {
+			this.sequenceNumber = sequenceNumber;
+			this.writeRequest = writeRequest;
+		}
+	}
+}
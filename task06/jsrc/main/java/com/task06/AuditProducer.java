@@ -1,26 +1,30 @@
 package com.task06;
 
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import com.amazonaws.services.dynamodbv2.document.DynamoDB;
-import com.amazonaws.services.dynamodbv2.document.Item;
-import com.amazonaws.services.dynamodbv2.document.Table;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
-import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.common.IdGenerator;
+import com.common.Metrics;
+import com.common.Priming;
+import com.common.StructuredLogger;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
 import com.syndicate.deployment.annotations.events.DynamoDbTriggerEventSource;
 import com.syndicate.deployment.annotations.lambda.LambdaHandler;
+import com.syndicate.deployment.model.FunctionResponseType;
 import com.syndicate.deployment.model.RetentionSetting;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @LambdaHandler(lambdaName = "audit_producer",
 		roleName = "audit_producer-role",
@@ -29,63 +33,147 @@ import java.util.UUID;
 )
 @DynamoDbTriggerEventSource(
 		targetTable = "Configuration",
-		batchSize = 1
+		batchSize = 1000,
+		functionResponseTypes = {FunctionResponseType.REPORT_BATCH_ITEM_FAILURES}
 )
 @EnvironmentVariables(value = {
-		@EnvironmentVariable(key = "target_table", value = "${target_table}")
+		@EnvironmentVariable(key = "target_table", value = "${target_table}"),
+		@EnvironmentVariable(key = "id_mode", value = "v7"),
+		@EnvironmentVariable(key = "priming_enabled", value = "false"),
+		@EnvironmentVariable(key = "JAVA_TOOL_OPTIONS", value = "-XX:+TieredCompilation -XX:TieredStopAtLevel=1")
 })
-public class AuditProducer implements RequestHandler<DynamodbEvent, String> {
+public class AuditProducer implements RequestHandler<DynamodbEvent, StreamsEventResponse> {
 
-	private final AmazonDynamoDB dynamoDbClient = AmazonDynamoDBClientBuilder.standard().build();
-	private final DynamoDB dynamoDb = new DynamoDB(dynamoDbClient);
-	private final Table auditTable = dynamoDb.getTable(System.getenv("target_table"));
+	private static final StructuredLogger log = StructuredLogger.getLogger(AuditProducer.class);
+
+	private final DynamoDbClient dynamoDbClient;
+	private final String auditTableName;
+	private final IdGenerator idGenerator;
+	private final Metrics metrics;
+
+	public AuditProducer() {
+		this(ClientRegistry.dynamoDb(), System.getenv("target_table"), IdGenerator.fromEnvironment(), Metrics.forFunction("audit_producer"));
+	}
+
+	public AuditProducer(DynamoDbClient dynamoDbClient, String auditTableName, IdGenerator idGenerator, Metrics metrics) {
+		this.dynamoDbClient = dynamoDbClient;
+		this.auditTableName = auditTableName;
+		this.idGenerator = idGenerator;
+		this.metrics = metrics;
+		Priming.register("audit_producer", this::prime, idGenerator::reseed);
+	}
 
 	@Override
-	public String handleRequest(DynamodbEvent event, Context context) {
-		event.getRecords().forEach(record -> processRecord(record.getEventName(), record.getDynamodb().getNewImage(), record.getDynamodb().getOldImage()));
-		return "";
+	public StreamsEventResponse handleRequest(DynamodbEvent event, Context context) {
+		AuditBatchWriter writer = new AuditBatchWriter(dynamoDbClient, auditTableName, metrics);
+		String failedSequenceNumber = null;
+
+		for (DynamodbEvent.DynamodbStreamRecord record : event.getRecords()) {
+			String sequenceNumber = record.getDynamodb().getSequenceNumber();
+			Map<String, AttributeValue> auditItem;
+			try (Metrics.Timer timer = metrics.time("processRecord")) {
+				auditItem = processRecord(auditId(record), record.getEventName(), record.getDynamodb().getNewImage(),
+						record.getDynamodb().getOldImage());
+			} catch (RuntimeException e) {
+				log.atError("Cannot audit record").with("sequenceNumber", sequenceNumber).withError(e).log();
+				failedSequenceNumber = writer.flush();
+				if (failedSequenceNumber == null) {
+					failedSequenceNumber = sequenceNumber;
+				}
+				break;
+			}
+
+			if (auditItem != null) {
+				metrics.count("auditItems", 1);
+				failedSequenceNumber = writer.add(sequenceNumber, auditItem);
+				if (failedSequenceNumber != null) {
+					break;
+				}
+			}
+		}
+
+		if (failedSequenceNumber == null) {
+			failedSequenceNumber = writer.flush();
+		}
+
+		List<StreamsEventResponse.BatchItemFailure> failures = new ArrayList<>();
+		if (failedSequenceNumber != null) {
+			failures.add(new StreamsEventResponse.BatchItemFailure(failedSequenceNumber));
+			metrics.count("failedBatches", 1);
+		}
+		metrics.flush();
+		return new StreamsEventResponse(failures);
+	}
+
+	/**
+	 * Derives the audit item id from the stream record, so a batch that is retried after a partial failure
+	 * overwrites the audit items it already wrote instead of adding copies.
+	 */
+	private String auditId(DynamodbEvent.DynamodbStreamRecord record) {
+		Date created = record.getDynamodb().getApproximateCreationDateTime();
+		String name = record.getEventID() != null ? record.getEventID() : record.getDynamodb().getSequenceNumber();
+		return idGenerator.derive(created == null ? 0 : created.getTime(), name);
+	}
+
+	/**
+	 * Maps a synthetic INSERT and MODIFY record to audit items without writing them.
+	 */
+	private void prime() {
+		Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> oldImage = new HashMap<>();
+		oldImage.put("key", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue().withS("priming"));
+		oldImage.put("value", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue().withN("1"));
+		Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> newImage = new HashMap<>(oldImage);
+		newImage.put("value", new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue().withN("2"));
+
+		processRecord(idGenerator.derive(System.currentTimeMillis(), "priming-insert"), "INSERT", newImage, null);
+		processRecord(idGenerator.derive(System.currentTimeMillis(), "priming-modify"), "MODIFY", newImage, oldImage);
 	}
 
-	private void processRecord(String eventName, Map<String, AttributeValue> newImage, Map<String, AttributeValue> oldImage) {
+	Map<String, AttributeValue> processRecord(String id, String eventName, Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> newImage,
+											  Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> oldImage) {
 		if ("INSERT".equals(eventName)) {
-			insertIntoAuditTable(newImage);
+			return insertAuditItem(id, newImage);
 		} else if ("MODIFY".equals(eventName)) {
-			updateAuditTable(newImage, oldImage);
+			return updateAuditItem(id, newImage, oldImage);
 		}
+		return null;
 	}
 
-	private void insertIntoAuditTable(Map<String, AttributeValue> newImage) {
+	private Map<String, AttributeValue> insertAuditItem(String id, Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> newImage) {
 		String key = newImage.get("key").getS();
 		int value = Integer.parseInt(newImage.get("value").getN());
 
-		Map<String, Object> newValue = new HashMap<>();
-		newValue.put("key", key);
-		newValue.put("value", value);
+		Map<String, AttributeValue> newValue = new HashMap<>();
+		newValue.put("key", AttributeValue.fromS(key));
+		newValue.put("value", AttributeValue.fromN(Integer.toString(value)));
 
-		Item auditItem = new Item()
-				.withPrimaryKey("id", UUID.randomUUID().toString())
-				.withString("itemKey", key)
-				.withString("modificationTime", DateTimeFormatter.ISO_INSTANT.format(Instant.now().atOffset(ZoneOffset.UTC)))
-				.withMap("newValue", newValue);
-
-		auditTable.putItem(auditItem);
+		Map<String, AttributeValue> item = auditItem(id, key);
+		item.put("newValue", AttributeValue.fromM(newValue));
+		return item;
 	}
 
-	private void updateAuditTable(Map<String, AttributeValue> newImage, Map<String, AttributeValue> oldImage) {
+	private Map<String, AttributeValue> updateAuditItem(String id, Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> newImage,
+														Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> oldImage) {
 		String key = newImage.get("key").getS();
 		int oldValue = Integer.parseInt(oldImage.get("value").getN());
 		int newValue = Integer.parseInt(newImage.get("value").getN());
 
-		if (newValue != oldValue) {
-			Item auditItem = new Item()
-					.withPrimaryKey("id", UUID.randomUUID().toString())
-					.withString("itemKey", key)
-					.withString("modificationTime", DateTimeFormatter.ISO_INSTANT.format(Instant.now().atOffset(ZoneOffset.UTC)))
-					.withString("updatedAttribute", "value")
-					.withInt("oldValue", oldValue)
-					.withInt("newValue", newValue);
-
-			auditTable.putItem(auditItem);
+		if (newValue == oldValue) {
+			return null;
 		}
+
+		Map<String, AttributeValue> item = auditItem(id, key);
+		item.put("updatedAttribute", AttributeValue.fromS("value"));
+		item.put("oldValue", AttributeValue.fromN(Integer.toString(oldValue)));
+		item.put("newValue", AttributeValue.fromN(Integer.toString(newValue)));
+		return item;
+	}
+
+	private Map<String, AttributeValue> auditItem(String id, String key) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("id", AttributeValue.fromS(id));
+		item.put("itemKey", AttributeValue.fromS(key));
+		item.put("modificationTime", AttributeValue.fromS(DateTimeFormatter.ISO_INSTANT.format(Instant.now().atOffset(ZoneOffset.UTC))));
+		return item;
 	}
 }
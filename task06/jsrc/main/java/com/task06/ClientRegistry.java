@@ -0,0 +1,22 @@
+package com.task06;
+
+import com.common.AwsClients;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+/**
+ * Container-wide clients. Each one is built lazily on first use and then shared by every invocation;
+ * {@link AwsClients} holds the builder settings they share with the other tasks.
+ */
+public final class ClientRegistry {
+
+	private ClientRegistry() {
+	}
+
+	public static DynamoDbClient dynamoDb() {
+		return DynamoDbHolder.CLIENT;
+	}
+
+	private static final class DynamoDbHolder {
+		private static final DynamoDbClient CLIENT = AwsClients.configure(DynamoDbClient.builder()).build();
+	}
+}
@@ -0,0 +1,26 @@
+package com.task07;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.common.AwsV1Clients;
+
+/**
+ * Container-wide clients. Each one is built lazily on first use and then shared by every invocation;
+ * {@link AwsV1Clients} holds the builder settings they share with the other tasks.
+ * With {@code endpoint_url} set S3 uses path-style addressing.
+ */
+public final class ClientRegistry {
+
+	private ClientRegistry() {
+	}
+
+	public static AmazonS3 s3() {
+		return S3Holder.CLIENT;
+	}
+
+	private static final class S3Holder {
+		private static final AmazonS3 CLIENT = AwsV1Clients.configure(AmazonS3ClientBuilder.standard())
+				.withPathStyleAccessEnabled(System.getenv("endpoint_url") != null)
+				.build();
+	}
+}
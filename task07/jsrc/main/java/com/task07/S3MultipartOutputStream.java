@@ -0,0 +1,120 @@
+package com.task07;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams an object into S3 without staging it on disk.
+ * Content is uploaded as multipart parts once it outgrows one part; smaller objects are sent with a single PutObject.
+ * {@link #close()} completes the upload, {@link #abort()} discards it.
+ */
+public class S3MultipartOutputStream extends OutputStream {
+
+	static final int PART_SIZE = 8 * 1024 * 1024;
+
+	private final AmazonS3 s3Client;
+	private final String bucket;
+	private final String key;
+	private final PartBuffer buffer = new PartBuffer();
+	private final List<PartETag> partETags = new ArrayList<>();
+	private String uploadId;
+	private boolean closed;
+
+	public S3MultipartOutputStream(AmazonS3 s3Client, String bucket, String key) {
+		this.s3Client = s3Client;
+		this.bucket = bucket;
+		this.key = key;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		buffer.write(b);
+		if (buffer.size() >= PART_SIZE) {
+			uploadPart(false);
+		}
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		ensureOpen();
+		while (length > 0) {
+			int chunk = Math.min(length, PART_SIZE - buffer.size());
+			buffer.write(bytes, offset, chunk);
+			offset += chunk;
+			length -= chunk;
+			if (buffer.size() >= PART_SIZE) {
+				uploadPart(false);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		if (uploadId == null) {
+			ObjectMetadata metadata = new ObjectMetadata();
+			metadata.setContentLength(buffer.size());
+			s3Client.putObject(new PutObjectRequest(bucket, key, buffer.asInputStream(), metadata));
+			return;
+		}
+
+		if (buffer.size() > 0) {
+			uploadPart(true);
+		}
+		s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+	}
+
+	public void abort() {
+		closed = true;
+		if (uploadId != null) {
+			s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+		}
+	}
+
+	private void uploadPart(boolean lastPart) {
+		if (uploadId == null) {
+			uploadId = s3Client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key)).getUploadId();
+		}
+
+		UploadPartRequest uploadPartRequest = new UploadPartRequest()
+				.withBucketName(bucket)
+				.withKey(key)
+				.withUploadId(uploadId)
+				.withPartNumber(partETags.size() + 1)
+				.withInputStream(buffer.asInputStream())
+				.withPartSize(buffer.size())
+				.withLastPart(lastPart);
+		partETags.add(s3Client.uploadPart(uploadPartRequest).getPartETag());
+		buffer.reset();
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private static final class PartBuffer extends ByteArrayOutputStream {
+		private ByteArrayInputStream asInputStream() {
+			return new ByteArrayInputStream(buf, 0, count);
+		}
+	}
+}
@@ -4,8 +4,8 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
-import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.common.IdGenerator;
+import com.common.Metrics;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
 import com.syndicate.deployment.annotations.events.RuleEventSource;
@@ -14,15 +14,14 @@ import com.syndicate.deployment.annotations.resources.DependsOn;
 import com.syndicate.deployment.model.ResourceType;
 import com.syndicate.deployment.model.RetentionSetting;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @LambdaHandler(lambdaName = "uuid_generator",
 		roleName = "uuid_generator-role",
@@ -38,67 +37,71 @@ import java.util.UUID;
 )
 @EnvironmentVariables(value = {
 		@EnvironmentVariable(key = "target_bucket", value = "${target_bucket}"),
-		@EnvironmentVariable(key = "region", value = "${region}")
+		@EnvironmentVariable(key = "region", value = "${region}"),
+		@EnvironmentVariable(key = "uuid_count", value = "10"),
+		@EnvironmentVariable(key = "id_mode", value = "v4")
 })
 public class UuidGenerator implements RequestHandler<ScheduledEvent, Map<String, Object>> {
 
 	private static final String BUCKET = System.getenv("target_bucket");
+	private static final int DEFAULT_UUID_COUNT = 10;
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+	private final IdGenerator idGenerator = IdGenerator.fromEnvironment();
+	private final Metrics metrics = Metrics.forFunction("uuid_generator");
 
 	@Override
 	public Map<String, Object> handleRequest(ScheduledEvent event, Context context) {
-		AmazonS3 s3Client = AmazonS3ClientBuilder.standard()
-				.withRegion(System.getenv("region"))
-				.build();
+		AmazonS3 s3Client = ClientRegistry.s3();
 
 		String timeKey = Instant.now().toString();
+		int count = uuidCount();
 
-		List<String> generatedUuids = generateUuids(10);
-
-		String fileContent = formatJsonContent(generatedUuids);
-		File outputFile = new File("/tmp/AWS.txt");
-
-		if (!writeToFile(outputFile, fileContent, context)) {
-			return createErrorResponse("Error writing to file");
-		}
-
-		if (!uploadToS3(s3Client, outputFile, timeKey, context)) {
+		S3MultipartOutputStream upload = new S3MultipartOutputStream(s3Client, BUCKET, timeKey);
+		try {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(upload, StandardCharsets.US_ASCII), WRITE_BUFFER_SIZE);
+			try (Metrics.Timer timer = metrics.time("writeIds")) {
+				writeJsonContent(writer, count);
+			}
+			try (Metrics.Timer timer = metrics.time("completeUpload")) {
+				writer.close();
+			}
+			metrics.count("ids", count);
+			context.getLogger().log(count + " UUIDs uploaded to S3: " + BUCKET + "/" + timeKey);
+		} catch (IOException | RuntimeException e) {
+			context.getLogger().log("Failed to upload to S3: " + e.getMessage());
+			abortQuietly(upload, context);
+			metrics.count("failedUploads", 1);
 			return createErrorResponse("Error uploading file to S3");
+		} finally {
+			metrics.flush();
 		}
 
 		return createSuccessResponse();
 	}
 
-	private List<String> generateUuids(int count) {
-		List<String> uuids = new ArrayList<>();
-		for (int i = 0; i < count; i++) {
-			uuids.add(UUID.randomUUID().toString());
-		}
-		return uuids;
-	}
-
-	private String formatJsonContent(List<String> uuids) {
-		return "{\n  \"ids\": [\n    \"" + String.join("\",\n    \"", uuids) + "\"\n  ]\n}";
+	private int uuidCount() {
+		String count = System.getenv("uuid_count");
+		return count == null || count.isEmpty() ? DEFAULT_UUID_COUNT : Integer.parseInt(count);
 	}
 
-	private boolean writeToFile(File file, String content, Context context) {
-		try (FileWriter writer = new FileWriter(file)) {
-			writer.write(content);
-			context.getLogger().log("File created successfully: " + file.getAbsolutePath());
-			return true;
-		} catch (IOException e) {
-			context.getLogger().log("Failed to write file: " + e.getMessage());
-			return false;
+	void writeJsonContent(Writer writer, int count) throws IOException {
+		char[] id = new char[idGenerator.length()];
+		writer.write("{\n  \"ids\": [");
+		for (int i = 0; i < count; i++) {
+			writer.write(i == 0 ? "\n    \"" : ",\n    \"");
+			idGenerator.next(id, 0);
+			writer.write(id);
+			writer.write('"');
 		}
+		writer.write("\n  ]\n}");
 	}
 
-	private boolean uploadToS3(AmazonS3 s3Client, File file, String key, Context context) {
+	private void abortQuietly(S3MultipartOutputStream upload, Context context) {
 		try {
-			s3Client.putObject(new PutObjectRequest(BUCKET, key, file));
-			context.getLogger().log("File uploaded to S3: " + BUCKET + "/" + key);
-			return true;
-		} catch (Exception e) {
-			context.getLogger().log("Failed to upload to S3: " + e.getMessage());
-			return false;
+			upload.abort();
+		} catch (RuntimeException e) {
+			context.getLogger().log("Failed to abort multipart upload: " + e.getMessage());
 		}
 	}
 
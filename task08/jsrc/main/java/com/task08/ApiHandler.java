@@ -2,6 +2,7 @@ package com.task08;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.common.Metrics;
 import com.syndicate.deployment.annotations.lambda.LambdaHandler;
 import com.syndicate.deployment.annotations.lambda.LambdaLayer;
 import com.syndicate.deployment.model.RetentionSetting;
@@ -13,7 +14,6 @@ import com.syndicate.deployment.annotations.lambda.LambdaUrlConfig;
 import com.syndicate.deployment.model.Architecture;
 import com.syndicate.deployment.model.ArtifactExtension;
 import com.syndicate.deployment.model.DeploymentRuntime;
-import org.example.weather.WeatherApiClient;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -34,17 +34,21 @@ import java.util.Map;
 @LambdaUrlConfig
 public class ApiHandler implements RequestHandler<Object, Map<String, Object>> {
 
+	private final Metrics metrics = Metrics.forFunction("api_handler");
+
 	public Map<String, Object> handleRequest(Object request, Context context) {
 		Map<String, Object> response = new HashMap<>();
 
-		try {
-			WeatherApiClient weatherApiClient = new WeatherApiClient();
-			String forecast = weatherApiClient.getWeatherForecast();
+		try (Metrics.Timer timer = metrics.time("getWeatherForecast")) {
+			String forecast = ClientRegistry.weatherApiClient().getWeatherForecast();
 			response.put("statusCode", 200);
 			response.put("body", forecast);
 		} catch (Exception e) {
+			metrics.count("errors", 1);
 			response.put("statusCode", 500);
 			response.put("body", "Error: " + e.getMessage());
+		} finally {
+			metrics.flush();
 		}
 
 		return response;
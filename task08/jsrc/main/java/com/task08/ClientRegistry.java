@@ -0,0 +1,35 @@
+package com.task08;
+
+import org.example.weather.WeatherApiClient;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Container-wide clients. Each one is built lazily on first use and then shared by every invocation.
+ * {@code forecast_url} replaces the forecast URL built into the weather-api layer.
+ */
+public final class ClientRegistry {
+
+	private ClientRegistry() {
+	}
+
+	public static WeatherApiClient weatherApiClient() {
+		return WeatherApiClientHolder.CLIENT;
+	}
+
+	private static final class WeatherApiClientHolder {
+		private static final WeatherApiClient CLIENT = weatherApiClient(System.getenv("forecast_url"));
+
+		private static WeatherApiClient weatherApiClient(String forecastUrl) {
+			if (forecastUrl == null || forecastUrl.isEmpty()) {
+				return new WeatherApiClient();
+			}
+			try {
+				return new WeatherUrlClient(new URL(forecastUrl));
+			} catch (MalformedURLException e) {
+				throw new IllegalArgumentException("Invalid forecast_url " + forecastUrl, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.task08;
+
+import org.example.weather.WeatherApiClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link WeatherApiClient} for a forecast URL other than the one built into the weather-api layer,
+ * e.g. the stub upstream of the test-support LocalAws emulator.
+ */
+public class WeatherUrlClient extends WeatherApiClient {
+
+	private static final int CONNECT_TIMEOUT_MILLIS = 2_000;
+	private static final int READ_TIMEOUT_MILLIS = 10_000;
+
+	private final URL forecastUrl;
+
+	public WeatherUrlClient(URL forecastUrl) {
+		this.forecastUrl = forecastUrl;
+	}
+
+	@Override
+	public String getWeatherForecast() throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) forecastUrl.openConnection();
+		connection.setRequestMethod("GET");
+		connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+		connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+		try (InputStream body = connection.getInputStream()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for (int read; (read = body.read(buffer)) > 0; ) {
+				out.write(buffer, 0, read);
+			}
+			return out.toString(StandardCharsets.UTF_8.name());
+		}
+	}
+}
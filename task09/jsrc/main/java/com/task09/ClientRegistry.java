@@ -0,0 +1,31 @@
+package com.task09;
+
+import com.common.AwsClients;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+/**
+ * Container-wide clients. Each one is built lazily on first use and then shared by every invocation;
+ * {@link AwsClients} holds the builder settings they share with the other tasks.
+ */
+public final class ClientRegistry {
+
+	private ClientRegistry() {
+	}
+
+	public static DynamoDbClient dynamoDb() {
+		return DynamoDbHolder.CLIENT;
+	}
+
+	public static ObjectMapper objectMapper() {
+		return ObjectMapperHolder.MAPPER;
+	}
+
+	private static final class DynamoDbHolder {
+		private static final DynamoDbClient CLIENT = AwsClients.configure(DynamoDbClient.builder()).build();
+	}
+
+	private static final class ObjectMapperHolder {
+		private static final ObjectMapper MAPPER = new ObjectMapper();
+	}
+}
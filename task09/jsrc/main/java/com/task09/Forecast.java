@@ -0,0 +1,74 @@
+package com.task09;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decoded forecast payload. Hourly times are kept as epoch seconds of the forecast's local wall-clock time,
+ * temperatures as primitive doubles.
+ */
+public class Forecast {
+
+	double latitude;
+	double longitude;
+	double generationTimeMs;
+	int utcOffsetSeconds;
+	String timezone;
+	String timezoneAbbreviation;
+	double elevation;
+	String timeUnit;
+	String temperatureUnit;
+	long[] hourlyTimes;
+	double[] hourlyTemperatures;
+
+	public long[] getHourlyTimes() {
+		return hourlyTimes;
+	}
+
+	public double[] getHourlyTemperatures() {
+		return hourlyTemperatures;
+	}
+
+	public AttributeValue toAttributeValue() {
+		List<AttributeValue> times = new ArrayList<>(hourlyTimes.length);
+		for (long time : hourlyTimes) {
+			times.add(AttributeValue.fromS(LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC).toString()));
+		}
+
+		List<AttributeValue> temperatures = new ArrayList<>(hourlyTemperatures.length);
+		for (double temperature : hourlyTemperatures) {
+			temperatures.add(number(temperature));
+		}
+
+		Map<String, AttributeValue> hourly = new HashMap<>();
+		hourly.put("time", AttributeValue.fromL(times));
+		hourly.put("temperature_2m", AttributeValue.fromL(temperatures));
+
+		Map<String, AttributeValue> hourlyUnits = new HashMap<>();
+		hourlyUnits.put("time", AttributeValue.fromS(timeUnit));
+		hourlyUnits.put("temperature_2m", AttributeValue.fromS(temperatureUnit));
+
+		Map<String, AttributeValue> forecast = new HashMap<>();
+		forecast.put("elevation", number(elevation));
+		forecast.put("generationtime_ms", number(generationTimeMs));
+		forecast.put("latitude", number(latitude));
+		forecast.put("longitude", number(longitude));
+		forecast.put("timezone", AttributeValue.fromS(timezone));
+		forecast.put("timezone_abbreviation", AttributeValue.fromS(timezoneAbbreviation));
+		forecast.put("utc_offset_seconds", AttributeValue.fromN(Integer.toString(utcOffsetSeconds)));
+		forecast.put("hourly", AttributeValue.fromM(hourly));
+		forecast.put("hourly_units", AttributeValue.fromM(hourlyUnits));
+		return AttributeValue.fromM(forecast);
+	}
+
+	private static AttributeValue number(double value) {
+		return AttributeValue.fromN(BigDecimal.valueOf(value).toPlainString());
+	}
+}
@@ -0,0 +1,85 @@
+package com.task09;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the latest forecast for a fixed TTL. Concurrent misses share a single upstream fetch.
+ */
+public class ForecastCache<T> {
+
+	private final Callable<T> loader;
+	private final long ttlNanos;
+	private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+	private volatile Cached<T> cached;
+
+	public ForecastCache(Callable<T> loader, Duration ttl) {
+		this.loader = loader;
+		this.ttlNanos = ttl.toNanos();
+	}
+
+	public T get() throws Exception {
+		while (true) {
+			T value = freshValue();
+			if (value != null) {
+				return value;
+			}
+
+			CompletableFuture<T> running = inFlight.get();
+			if (running != null) {
+				return await(running);
+			}
+
+			CompletableFuture<T> load = new CompletableFuture<>();
+			if (inFlight.compareAndSet(null, load)) {
+				try {
+					value = freshValue();
+					if (value == null) {
+						value = loader.call();
+						cached = new Cached<>(value, System.nanoTime() + ttlNanos);
+					}
+					load.complete(value);
+					return value;
+				} catch (Exception e) {
+					load.completeExceptionally(e);
+					throw e;
+				} finally {
+					inFlight.set(null);
+				}
+			}
+		}
+	}
+
+	public void invalidate() {
+		cached = null;
+	}
+
+	private T freshValue() {
+		Cached<T> current = cached;
+		return current != null && System.nanoTime() - current.expiresAt < 0 ? current.value : null;
+	}
+
+	private static <T> T await(CompletableFuture<T> load) throws Exception {
+		try {
+			return load.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private static final class Cached<T> {
+		private final T value;
+		private final long expiresAt;
+
+		private Cached(T value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.task09;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Upstream weather API client. One keep-alive connection pool per container; response bodies are handed
+ * to the caller as a stream instead of being buffered into a String.
+ */
+public class ForecastClient {
+
+	public static final String DEFAULT_FORECAST_URL = "https://api.open-meteo.com/v1/forecast?latitude=50.4375&longitude=30.5&hourly=temperature_2m,relative_humidity_2m,wind_speed_10m";
+
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+	private final HttpClient httpClient;
+	private final HttpRequest request;
+
+	public ForecastClient(URI forecastUri) {
+		this.httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(CONNECT_TIMEOUT)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build();
+		this.request = HttpRequest.newBuilder(forecastUri)
+				.timeout(REQUEST_TIMEOUT)
+				.header("Accept", "application/json")
+				.GET()
+				.build();
+	}
+
+	public static ForecastClient fromEnvironment() {
+		String forecastUrl = System.getenv("forecast_url");
+		return new ForecastClient(URI.create(forecastUrl == null || forecastUrl.isEmpty() ? DEFAULT_FORECAST_URL : forecastUrl));
+	}
+
+	public <T> T fetch(BodyReader<T> bodyReader) throws IOException, InterruptedException {
+		HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+		try (InputStream body = response.body()) {
+			if (response.statusCode() != 200) {
+				throw new IOException("Forecast request failed with HTTP " + response.statusCode());
+			}
+			return bodyReader.read(body);
+		}
+	}
+
+	@FunctionalInterface
+	public interface BodyReader<T> {
+		T read(InputStream body) throws IOException;
+	}
+}
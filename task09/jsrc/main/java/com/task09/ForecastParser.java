@@ -0,0 +1,176 @@
+package com.task09;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Single-pass streaming decoder for open-meteo forecast payloads. Fields that are not stored are skipped
+ * without being materialised.
+ */
+public final class ForecastParser {
+
+	private static final int INITIAL_CAPACITY = 192;
+
+	private ForecastParser() {
+	}
+
+	public static Forecast parse(JsonFactory jsonFactory, InputStream body) throws IOException {
+		try (JsonParser parser = jsonFactory.createParser(body)) {
+			return parse(parser);
+		}
+	}
+
+	public static Forecast parse(JsonParser parser) throws IOException {
+		Forecast forecast = new Forecast();
+		expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			switch (field) {
+				case "latitude":
+					forecast.latitude = parser.getValueAsDouble();
+					break;
+				case "longitude":
+					forecast.longitude = parser.getValueAsDouble();
+					break;
+				case "generationtime_ms":
+					forecast.generationTimeMs = parser.getValueAsDouble();
+					break;
+				case "utc_offset_seconds":
+					forecast.utcOffsetSeconds = parser.getValueAsInt();
+					break;
+				case "timezone":
+					forecast.timezone = parser.getValueAsString("");
+					break;
+				case "timezone_abbreviation":
+					forecast.timezoneAbbreviation = parser.getValueAsString("");
+					break;
+				case "elevation":
+					forecast.elevation = parser.getValueAsDouble();
+					break;
+				case "hourly_units":
+					parseHourlyUnits(parser, value, forecast);
+					break;
+				case "hourly":
+					parseHourly(parser, value, forecast);
+					break;
+				default:
+					parser.skipChildren();
+			}
+		}
+
+		if (forecast.hourlyTimes == null || forecast.hourlyTemperatures == null) {
+			throw new IOException("Unexpected format in hourly data");
+		}
+		forecast.timezone = orEmpty(forecast.timezone);
+		forecast.timezoneAbbreviation = orEmpty(forecast.timezoneAbbreviation);
+		forecast.timeUnit = orEmpty(forecast.timeUnit);
+		forecast.temperatureUnit = orEmpty(forecast.temperatureUnit);
+		return forecast;
+	}
+
+	private static void parseHourlyUnits(JsonParser parser, JsonToken value, Forecast forecast) throws IOException {
+		expect(value, JsonToken.START_OBJECT);
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if ("time".equals(field)) {
+				forecast.timeUnit = parser.getValueAsString("");
+			} else if ("temperature_2m".equals(field)) {
+				forecast.temperatureUnit = parser.getValueAsString("");
+			} else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private static void parseHourly(JsonParser parser, JsonToken value, Forecast forecast) throws IOException {
+		expect(value, JsonToken.START_OBJECT);
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken array = parser.nextToken();
+			if ("time".equals(field)) {
+				expect(array, JsonToken.START_ARRAY);
+				forecast.hourlyTimes = parseTimes(parser);
+			} else if ("temperature_2m".equals(field)) {
+				expect(array, JsonToken.START_ARRAY);
+				forecast.hourlyTemperatures = parseDoubles(parser);
+			} else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private static long[] parseTimes(JsonParser parser) throws IOException {
+		long[] times = new long[INITIAL_CAPACITY];
+		int size = 0;
+		while (parser.nextToken() == JsonToken.VALUE_STRING) {
+			if (size == times.length) {
+				times = Arrays.copyOf(times, size * 2);
+			}
+			times[size++] = parseLocalDateTime(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+		}
+		expect(parser.currentToken(), JsonToken.END_ARRAY);
+		return Arrays.copyOf(times, size);
+	}
+
+	private static double[] parseDoubles(JsonParser parser) throws IOException {
+		double[] values = new double[INITIAL_CAPACITY];
+		int size = 0;
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (token == null) {
+				throw new IOException("Unexpected end of forecast payload");
+			}
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = token == JsonToken.VALUE_NULL ? 0.0 : parser.getDoubleValue();
+		}
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Decodes "yyyy-MM-ddTHH:mm" into epoch seconds, treating the wall-clock time as UTC.
+	 */
+	static long parseLocalDateTime(char[] text, int offset, int length) throws IOException {
+		if (length != 16 || text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 10] != 'T' || text[offset + 13] != ':') {
+			throw new IOException("Unexpected hourly time: " + new String(text, offset, length));
+		}
+		int year = digits(text, offset, 4);
+		int month = digits(text, offset + 5, 2);
+		int day = digits(text, offset + 8, 2);
+		int hour = digits(text, offset + 11, 2);
+		int minute = digits(text, offset + 14, 2);
+		return LocalDate.of(year, month, day).toEpochDay() * 86_400L + hour * 3_600L + minute * 60L;
+	}
+
+	private static int digits(char[] text, int offset, int count) throws IOException {
+		int value = 0;
+		for (int i = offset; i < offset + count; i++) {
+			int digit = text[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new IOException("Unexpected hourly time: " + new String(text, offset, count));
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private static String orEmpty(String value) {
+		return value == null ? "" : value;
+	}
+
+	private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+		if (actual != expected) {
+			throw new IOException("Unexpected format in forecast data: expected " + expected + " but was " + actual);
+		}
+	}
+}
@@ -2,36 +2,29 @@ package com.task09;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.common.IdGenerator;
+import com.common.Metrics;
+import com.common.Priming;
+import com.common.StructuredLogger;
 import com.syndicate.deployment.annotations.lambda.LambdaHandler;
 import com.syndicate.deployment.annotations.lambda.LambdaUrlConfig;
 import com.syndicate.deployment.model.TracingMode;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
 import com.syndicate.deployment.model.RetentionSetting;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import com.amazonaws.services.dynamodbv2.document.DynamoDB;
-import com.amazonaws.services.dynamodbv2.document.Table;
-import com.amazonaws.services.dynamodbv2.document.Item;
-import com.amazonaws.services.dynamodbv2.document.Item;
-import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
-import com.amazonaws.services.dynamodbv2.model.PutItemResult;
-import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.fasterxml.jackson.databind.JsonNode;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.UUID;
-import java.util.Scanner;
-import java.util.List;
-import java.util.ArrayList;
 
 @LambdaHandler(
 		lambdaName = "processor",
@@ -41,70 +34,53 @@ import java.util.ArrayList;
 		tracingMode = TracingMode.Active
 )
 @LambdaUrlConfig
-@EnvironmentVariables(
-		@EnvironmentVariable(key = "target_table", value = "${target_table}")
-)
+@EnvironmentVariables(value = {
+		@EnvironmentVariable(key = "target_table", value = "${target_table}"),
+		@EnvironmentVariable(key = "id_mode", value = "v7"),
+		@EnvironmentVariable(key = "forecast_ttl_seconds", value = "300"),
+		@EnvironmentVariable(key = "priming_enabled", value = "false"),
+		@EnvironmentVariable(key = "JAVA_TOOL_OPTIONS", value = "-XX:+TieredCompilation -XX:TieredStopAtLevel=1")
+})
 public class Processor implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayV2HTTPResponse> {
 
-	private final AmazonDynamoDB amazonDynamoDBClient = AmazonDynamoDBClientBuilder.defaultClient();
-	private final DynamoDB dynamoDB = new DynamoDB(amazonDynamoDBClient);
+	private static final StructuredLogger log = StructuredLogger.getLogger(Processor.class);
+	private static final long DEFAULT_FORECAST_TTL_SECONDS = 300;
+	private static final String PRIMING_FORECAST = "{\"latitude\":50.4375,\"longitude\":30.5,\"generationtime_ms\":0.02,"
+			+ "\"utc_offset_seconds\":7200,\"timezone\":\"Europe/Kiev\",\"timezone_abbreviation\":\"EET\",\"elevation\":188.0,"
+			+ "\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"C\"},"
+			+ "\"hourly\":{\"time\":[\"2024-01-01T00:00\",\"2024-01-01T01:00\"],\"temperature_2m\":[-2.5,-2.9]}}";
+
+	private final DynamoDbClient dynamoDbClient = ClientRegistry.dynamoDb();
+	private final ObjectMapper objectMapper = ClientRegistry.objectMapper();
 	private final String tableName = System.getenv("target_table");
+	private final IdGenerator idGenerator = IdGenerator.fromEnvironment();
+	private final Metrics metrics = Metrics.forFunction("processor");
+	private final ForecastCache<Forecast> forecastCache;
+
+	public Processor() {
+		this(ForecastClient.fromEnvironment(), forecastTtl());
+	}
+
+	public Processor(ForecastClient forecastClient, Duration forecastTtl) {
+		this.forecastCache = new ForecastCache<>(() -> forecastClient.fetch(body -> ForecastParser.parse(objectMapper.getFactory(), body)), forecastTtl);
+		Priming.register("processor", this::prime, this::refresh);
+	}
 
 	@Override
 	public APIGatewayV2HTTPResponse handleRequest(APIGatewayProxyRequestEvent request, Context context) {
 		APIGatewayV2HTTPResponse response;
 		try {
-			String weatherData = fetchWeatherData();
-			ObjectMapper objectMapper = new ObjectMapper();
-
-			JsonNode forecastNode = objectMapper.readTree(weatherData);
-
-			Map<String, Object> forecastMap = new HashMap<>();
-			forecastMap.put("elevation", forecastNode.path("elevation").asDouble());
-			forecastMap.put("generationtime_ms", forecastNode.path("generationtime_ms").asDouble());
-			forecastMap.put("latitude", forecastNode.path("latitude").asDouble());
-			forecastMap.put("longitude", forecastNode.path("longitude").asDouble());
-			forecastMap.put("timezone", forecastNode.path("timezone").asText());
-			forecastMap.put("timezone_abbreviation", forecastNode.path("timezone_abbreviation").asText());
-			forecastMap.put("utc_offset_seconds", forecastNode.path("utc_offset_seconds").asInt());
-
-			JsonNode hourlyNode = forecastNode.path("hourly");
-			JsonNode timeNode = hourlyNode.path("time");
-			JsonNode temperatureNode = hourlyNode.path("temperature_2m");
-
-			if (timeNode.isArray() && temperatureNode.isArray()) {
-				List<String> times = new ArrayList<>();
-				List<Double> temperatures = new ArrayList<>();
-
-				for (JsonNode time : timeNode) {
-					times.add(time.asText());
-				}
-
-				for (JsonNode temp : temperatureNode) {
-					temperatures.add(temp.asDouble());
-				}
-
-				Map<String, Object> hourlyMap = new HashMap<>();
-				hourlyMap.put("time", times);
-				hourlyMap.put("temperature_2m", temperatures);
-				forecastMap.put("hourly", hourlyMap);
-			} else {
-				throw new RuntimeException("Unexpected format in hourly data");
+			Forecast forecast;
+			try (Metrics.Timer timer = metrics.time("fetchWeatherData")) {
+				forecast = forecastCache.get();
 			}
 
-			JsonNode hourlyUnitsNode = forecastNode.path("hourly_units");
-			Map<String, String> hourlyUnitsMap = new HashMap<>();
-			hourlyUnitsMap.put("time", hourlyUnitsNode.path("time").asText());
-			hourlyUnitsMap.put("temperature_2m", hourlyUnitsNode.path("temperature_2m").asText());
-			forecastMap.put("hourly_units", hourlyUnitsMap);
-
-			String id = UUID.randomUUID().toString();
-
-			Table table = dynamoDB.getTable(tableName);
-			Item item = new Item()
-					.withPrimaryKey("id", id)
-					.withMap("forecast", forecastMap);
-			table.putItem(item);
+			Map<String, AttributeValue> item = new HashMap<>();
+			item.put("id", AttributeValue.fromS(idGenerator.next()));
+			item.put("forecast", forecast.toAttributeValue());
+			try (Metrics.Timer timer = metrics.time("putItem")) {
+				dynamoDbClient.putItem(put -> put.tableName(tableName).item(item));
+			}
 
 			// Build the successful response
 			response = APIGatewayV2HTTPResponse.builder()
@@ -113,30 +89,40 @@ public class Processor implements RequestHandler<APIGatewayProxyRequestEvent, AP
 					.build();
 
 		} catch (Exception ex) {
-			context.getLogger().log("Error: " + ex.getMessage());
+			log.atError("Weather data not stored").withError(ex).log();
+			metrics.count("errors", 1);
 			response = APIGatewayV2HTTPResponse.builder()
 					.withStatusCode(500)
 					.withBody("{\"statusCode\": 500, \"message\": \"Internal Server Error\"} " + ex.getMessage())
 					.build();
 		}
 
+		metrics.flush();
 		return response;
 	}
 
-	private String fetchWeatherData() throws Exception {
-		URL url = new URL("https://api.open-meteo.com/v1/forecast?latitude=50.4375&longitude=30.5&hourly=temperature_2m,relative_humidity_2m,wind_speed_10m");
-
-		HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-		conn.setRequestMethod("GET");
-
-		Scanner scanner = new Scanner((InputStream) conn.getContent());
-		StringBuilder response = new StringBuilder();
-
-		while (scanner.hasNext()) {
-			response.append(scanner.nextLine());
+	/**
+	 * Parses a synthetic forecast and maps it to an item, without calling the weather API or DynamoDB.
+	 */
+	private void prime() {
+		try {
+			Forecast forecast = ForecastParser.parse(objectMapper.getFactory(),
+					new ByteArrayInputStream(PRIMING_FORECAST.getBytes(StandardCharsets.UTF_8)));
+			Map<String, AttributeValue> item = new HashMap<>();
+			item.put("id", AttributeValue.fromS(idGenerator.next()));
+			item.put("forecast", forecast.toAttributeValue());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
+	}
+
+	private void refresh() {
+		idGenerator.reseed();
+		forecastCache.invalidate();
+	}
 
-		scanner.close();
-		return response.toString();
+	private static Duration forecastTtl() {
+		String ttlSeconds = System.getenv("forecast_ttl_seconds");
+		return Duration.ofSeconds(ttlSeconds == null || ttlSeconds.isEmpty() ? DEFAULT_FORECAST_TTL_SECONDS : Long.parseLong(ttlSeconds));
 	}
 }
\ No newline at end of file
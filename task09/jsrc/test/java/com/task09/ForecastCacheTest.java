@@ -0,0 +1,111 @@
+package com.task09;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForecastCacheTest {
+
+	private static final int THREADS = 16;
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void servesCachedValueUntilTtlExpires() throws Exception {
+		ForecastCache<Integer> cache = new ForecastCache<>(loads::incrementAndGet, Duration.ofMillis(200));
+		assertEquals(1, cache.get());
+		assertEquals(1, cache.get());
+
+		Thread.sleep(250);
+		assertEquals(2, cache.get());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void invalidateForcesReload() throws Exception {
+		ForecastCache<Integer> cache = new ForecastCache<>(loads::incrementAndGet, Duration.ofMinutes(5));
+		assertEquals(1, cache.get());
+		cache.invalidate();
+		assertEquals(2, cache.get());
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Object value = new Object();
+		ForecastCache<Object> cache = new ForecastCache<>(() -> {
+			loads.incrementAndGet();
+			loading.countDown();
+			assertTrue(release.await(10, TimeUnit.SECONDS));
+			return value;
+		}, Duration.ofMinutes(5));
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Object>> results = new ArrayList<>(THREADS);
+			results.add(executor.submit(cache::get));
+			assertTrue(loading.await(10, TimeUnit.SECONDS));
+			for (int i = 1; i < THREADS; i++) {
+				results.add(executor.submit(cache::get));
+			}
+			// let the other callers reach the in-flight load before it completes
+			Thread.sleep(100);
+			release.countDown();
+
+			for (Future<Object> result : results) {
+				assertSame(value, result.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void failedLoadReachesWaitersAndIsRetried() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ForecastCache<Integer> cache = new ForecastCache<>(() -> {
+			if (loads.incrementAndGet() == 1) {
+				loading.countDown();
+				assertTrue(release.await(10, TimeUnit.SECONDS));
+				throw new IOException("upstream down");
+			}
+			return loads.get();
+		}, Duration.ofMinutes(5));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Integer> first = executor.submit(cache::get);
+			assertTrue(loading.await(10, TimeUnit.SECONDS));
+			Future<Integer> waiter = executor.submit(cache::get);
+			Thread.sleep(100);
+			release.countDown();
+
+			ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+			assertInstanceOf(IOException.class, failure.getCause());
+			ExecutionException waited = assertThrows(ExecutionException.class, () -> waiter.get(10, TimeUnit.SECONDS));
+			assertInstanceOf(IOException.class, waited.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(2, cache.get());
+	}
+}
@@ -0,0 +1,61 @@
+package com.task09;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.testsupport.LocalAws;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ForecastClient} against the {@code /v1/forecast} endpoint of an in-process {@link LocalAws}, which serves
+ * {@link com.testsupport.StubForecast}.
+ */
+class ForecastClientTest {
+
+	private static LocalAws aws;
+
+	@BeforeAll
+	static void startEmulator() throws Exception {
+		aws = new LocalAws(0, LocalAws.userPoolName(), 0);
+		aws.start();
+	}
+
+	@AfterAll
+	static void stopEmulator() {
+		aws.close();
+	}
+
+	@Test
+	void fetchesAndParsesForecast() throws Exception {
+		ForecastClient client = new ForecastClient(uri("/v1/forecast?latitude=50.4375&longitude=30.5&forecast_days=3"));
+		JsonFactory jsonFactory = new JsonFactory();
+
+		Forecast forecast = client.fetch(body -> ForecastParser.parse(jsonFactory, body));
+		assertEquals(72, forecast.getHourlyTimes().length);
+		assertEquals("GMT", forecast.timezone);
+
+		long before = aws.callCounts().get("upstream.forecast");
+		client.fetch(body -> ForecastParser.parse(jsonFactory, body));
+		assertEquals(before + 1, aws.callCounts().get("upstream.forecast"));
+	}
+
+	@Test
+	void rejectsUnsuccessfulResponse() {
+		ForecastClient client = new ForecastClient(uri("/missing-bucket/forecast"));
+		IOException failure = assertThrows(IOException.class, () -> client.fetch(body -> {
+			throw new AssertionError("body of a failed response was read");
+		}));
+		assertTrue(failure.getMessage().startsWith("Forecast request failed with HTTP "), failure.getMessage());
+	}
+
+	private static URI uri(String pathAndQuery) {
+		return URI.create("http://localhost:" + aws.port() + pathAndQuery);
+	}
+}
@@ -0,0 +1,77 @@
+package com.task09;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.testsupport.StubForecast;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ForecastParserTest {
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	@Test
+	void parsesStubForecast() throws IOException {
+		Forecast forecast = parse(new StubForecast().body("forecast_days=2"));
+
+		assertEquals(50.4375, forecast.latitude);
+		assertEquals(30.5, forecast.longitude);
+		assertEquals(0, forecast.utcOffsetSeconds);
+		assertEquals("GMT", forecast.timezone);
+		assertEquals("GMT", forecast.timezoneAbbreviation);
+		assertEquals(188.0, forecast.elevation);
+		assertEquals("iso8601", forecast.timeUnit);
+		assertEquals("\u00b0C", forecast.temperatureUnit);
+
+		long midnight = LocalDate.now(ZoneOffset.UTC).toEpochDay() * 86_400L;
+		assertEquals(48, forecast.getHourlyTimes().length);
+		assertEquals(48, forecast.getHourlyTemperatures().length);
+		assertEquals(midnight, forecast.getHourlyTimes()[0]);
+		assertEquals(midnight + 47 * 3_600L, forecast.getHourlyTimes()[47]);
+		assertEquals(6.0, forecast.getHourlyTemperatures()[0]);
+		assertEquals(18.0, forecast.getHourlyTemperatures()[12]);
+	}
+
+	@Test
+	void growsArraysPastInitialCapacity() throws IOException {
+		Forecast forecast = parse(new StubForecast().body("forecast_days=16"));
+		assertEquals(16 * 24, forecast.getHourlyTimes().length);
+		assertEquals(16 * 24, forecast.getHourlyTemperatures().length);
+	}
+
+	@Test
+	void readsNullTemperatureAsZero() throws IOException {
+		Forecast forecast = parse("{\"hourly\":{\"time\":[\"2024-01-01T00:00\",\"2024-01-01T01:00\"],"
+				+ "\"temperature_2m\":[null,-2.5]}}");
+		assertEquals(0.0, forecast.getHourlyTemperatures()[0]);
+		assertEquals(-2.5, forecast.getHourlyTemperatures()[1]);
+		assertEquals("", forecast.timezone);
+		assertEquals("", forecast.temperatureUnit);
+	}
+
+	@Test
+	void rejectsMissingHourlyData() {
+		assertThrows(IOException.class, () -> parse("{\"latitude\":50.4375,\"hourly\":{\"time\":[]}}"));
+	}
+
+	@Test
+	void rejectsMalformedHourlyTime() {
+		assertThrows(IOException.class, () -> parse("{\"hourly\":{\"time\":[\"2024-01-01 00:00\"],\"temperature_2m\":[1.0]}}"));
+		assertThrows(IOException.class, () -> parse("{\"hourly\":{\"time\":[\"2024-01-0xT00:00\"],\"temperature_2m\":[1.0]}}"));
+	}
+
+	private Forecast parse(String body) throws IOException {
+		return parse(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Forecast parse(byte[] body) throws IOException {
+		return ForecastParser.parse(jsonFactory, new ByteArrayInputStream(body));
+	}
+}
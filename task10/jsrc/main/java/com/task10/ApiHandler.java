@@ -1,7 +1,6 @@
 package com.task11;
 
 import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProvider;
-import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProviderClientBuilder;
 import com.amazonaws.services.cognitoidp.model.AdminCreateUserRequest;
 import com.amazonaws.services.cognitoidp.model.AdminInitiateAuthRequest;
 import com.amazonaws.services.cognitoidp.model.AdminInitiateAuthResult;
@@ -16,16 +15,21 @@ import com.amazonaws.services.cognitoidp.model.MessageActionType;
 import com.amazonaws.services.cognitoidp.model.UserPoolClientDescription;
 import com.amazonaws.services.cognitoidp.model.UserPoolDescriptionType;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import com.amazonaws.services.dynamodbv2.document.DynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.ItemUtils;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.common.Metrics;
+import com.common.Priming;
+import com.common.StructuredLogger;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
@@ -36,11 +40,9 @@ import com.syndicate.deployment.model.ResourceType;
 import com.syndicate.deployment.model.RetentionSetting;
 import com.syndicate.deployment.model.lambda.url.AuthType;
 import com.syndicate.deployment.model.lambda.url.InvokeMode;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -62,63 +64,80 @@ import java.util.regex.Pattern;
 		invokeMode = InvokeMode.BUFFERED
 )
 @DependsOn(name = "${tables_table}", resourceType = ResourceType.DYNAMODB_TABLE)
-@DependsOn(name = "${reservations_table}", resourceType = ResourceType.DYNAMODB_TABLE)
+@DependsOn(name = "${reservations_v2_table}", resourceType = ResourceType.DYNAMODB_TABLE)
 @DependsOn(name = "${booking_userpool}", resourceType = ResourceType.COGNITO_USER_POOL)
 @EnvironmentVariables(
 		value = {
 				@EnvironmentVariable(key = "region", value = "${region}"),
 				@EnvironmentVariable(key = "tables_table", value = "${tables_table}"),
-				@EnvironmentVariable(key = "reservations_table", value = "${reservations_table}"),
-				@EnvironmentVariable(key = "booking_userpool", value = "${booking_userpool}")
+				@EnvironmentVariable(key = "reservations_table", value = "${reservations_v2_table}"),
+				@EnvironmentVariable(key = "booking_userpool", value = "${booking_userpool}"),
+				@EnvironmentVariable(key = "priming_enabled", value = "false")
 		}
 )
 public class ApiHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-	private static final Log log = LogFactory.getLog(ApiHandler.class);
-	private final AmazonDynamoDB dynamoDBClient = AmazonDynamoDBClientBuilder.defaultClient();
-	private final DynamoDB dynamoDB = new DynamoDB(dynamoDBClient);
-	private final AWSCognitoIdentityProvider cognitoClient = AWSCognitoIdentityProviderClientBuilder.defaultClient();
+	private static final StructuredLogger log = StructuredLogger.getLogger(ApiHandler.class);
 
-	public Map<String, Object> handleRequest(Map<String, Object> request, Context context) {
-		LambdaLogger logger = context.getLogger();
-		logger.log("Request: " + request.toString());
+	private final AmazonDynamoDB ddb = ClientRegistry.dynamoDb();
+	private final AWSCognitoIdentityProvider cognitoClient = ClientRegistry.cognito();
+	private final ObjectMapper objectMapper = ClientRegistry.objectMapper();
+	private final Metrics metrics = Metrics.forFunction("api_handler");
+
+	public ApiHandler() {
+		Priming.register("api_handler", this::prime, () -> { });
+	}
 
-		logger.log("tables_table: " + System.getenv("tables_table"));
-		logger.log("reservations_table: " + System.getenv("reservations_table"));
-		logger.log("booking_userpool: " + System.getenv("booking_userpool"));
+	public Map<String, Object> handleRequest(Map<String, Object> request, Context context) {
+		try {
+			return metrics.time("request", () -> dispatch(request));
+		} finally {
+			metrics.flush();
+		}
+	}
 
+	private Map<String, Object> dispatch(Map<String, Object> request) {
 		Map<String, Object> responseMap = new HashMap<>();
 		String path = (String) request.get("path");
 		String httpMethod = (String) request.get("httpMethod");
+		log.atInfo("Request received")
+				.with("httpMethod", httpMethod)
+				.with("path", path)
+				.log();
+		log.atDebug("Request parameters")
+				.withLazy("queryStringParameters", () -> request.get("queryStringParameters"))
+				.withLazy("headers", () -> request.get("headers"))
+				.log();
 
 		try {
 			if (path.startsWith("/tables") && httpMethod.equalsIgnoreCase("GET")) {
 				if (path.equals("/tables")) {
-					responseMap = handleGetTables(logger);
+					responseMap = handleGetTables();
 				} else if (path.matches("/tables/\\d+")) {
 					String tableId = path.substring("/tables/".length());
-					responseMap = handleGetTableById(tableId, logger);
+					responseMap = handleGetTableById(tableId);
 				} else {
 					responseMap.put("statusCode", 400);
 					responseMap.put("body", "Invalid table ID.");
 				}
 			} else if (path.startsWith("/tables") && httpMethod.equalsIgnoreCase("POST")) {
-				responseMap = handleCreateTable(request, logger);
+				responseMap = handleCreateTable(request);
 			} else if (path.equals("/signup") && "POST".equalsIgnoreCase(httpMethod)) {
-				responseMap = handleSignup(request, logger);
+				responseMap = handleSignup(request);
 			} else if (path.equals("/signin") && "POST".equalsIgnoreCase(httpMethod)) {
-				responseMap = handleSignin(request, logger);
+				responseMap = handleSignin(request);
 			} else if (path.equals("/reservations")) {
 				if ("POST".equalsIgnoreCase(httpMethod)) {
-					responseMap = handleCreateReservation(request, logger);
+					responseMap = handleCreateReservation(request);
 				} else if ("GET".equalsIgnoreCase(httpMethod)) {
-					responseMap = handleGetReservations(logger);
+					responseMap = handleGetReservations();
 				}
 			} else {
 				responseMap.put("statusCode", 400);
 				responseMap.put("body", "Invalid path.");
 			}
 		} catch (Exception e) {
-			logger.log("Error: " + e.getMessage());
+			log.atError("Unhandled error").withError(e).log();
+			metrics.count("unhandledErrors", 1);
 			responseMap.put("statusCode", 500);
 			responseMap.put("body", "Internal server error.");
 		}
@@ -127,58 +146,47 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 	}
 
 
-	private Map<String, Object> handleSignup(Map<String, Object> event, LambdaLogger logger) {
+	private Map<String, Object> handleSignup(Map<String, Object> event) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 		try {
 			Map<String, Object> body = objectMapper.readValue((String) event.get("body"), Map.class);
-			logger.log("signUp was called");
+			log.atDebug("Signup request").with("body", body).log();
 
 			String email = String.valueOf(body.get("email"));
 			String password = String.valueOf(body.get("password"));
 
 			if (!validEmail(email)) {
-				logger.log("Email is invalid");
 				throw new Exception("Email is invalid");
 			}
 
 			if (!validPassword(password)) {
-				logger.log("Password is invalid");
 				throw new Exception("Password is invalid");
 			}
 
-			logger.log("Looking up user pool ID for: " + System.getenv("booking_userpool"));
 			String userPoolId = getUserPoolIdByName(System.getenv("booking_userpool"))
 					.orElseThrow(() -> new IllegalArgumentException("No such user pool"));
-			logger.log("Found user pool ID: " + userPoolId);
 
 			AdminCreateUserRequest adminCreateUserRequest = new AdminCreateUserRequest()
 					.withUserPoolId(userPoolId)
 					.withUsername(email)
 					.withUserAttributes(new AttributeType().withName("email").withValue(email))
 					.withMessageAction(MessageActionType.SUPPRESS);
-			logger.log("AdminCreateUserRequest: " + adminCreateUserRequest.toString());
 
 			AdminSetUserPasswordRequest adminSetUserPassword = new AdminSetUserPasswordRequest()
 					.withPassword(password)
 					.withUserPoolId(userPoolId)
 					.withUsername(email)
 					.withPermanent(true);
-			logger.log(adminSetUserPassword.toString());
-
-			logger.log("Creating user in Cognito...");
-			cognitoClient.adminCreateUser(adminCreateUserRequest);
-			logger.log("User created successfully.");
 
-			logger.log("Setting user password...");
-			cognitoClient.adminSetUserPassword(adminSetUserPassword);
-			logger.log("Password set successfully.");
+			metrics.time("adminCreateUser", () -> cognitoClient.adminCreateUser(adminCreateUserRequest));
+			metrics.time("adminSetUserPassword", () -> cognitoClient.adminSetUserPassword(adminSetUserPassword));
+			log.atInfo("User created").with("userPoolId", userPoolId).log();
 
 			response.put("statusCode", 200);
 			response.put("body", "User created successfully");
 
 		} catch (Exception ex) {
-			logger.log(ex.toString());
+			log.atWarn("Signup failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
@@ -186,95 +194,73 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 	}
 
 
-	private Map<String, Object> handleSignin(Map<String, Object> event, LambdaLogger logger) {
-		logger.log("SignIn process started.");
+	private Map<String, Object> handleSignin(Map<String, Object> event) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 
 		try {
-			logger.log("Received event: " + event.toString());
-
 			Map<String, Object> body = objectMapper.readValue((String) event.get("body"), Map.class);
-			logger.log("Parsed body from event: " + body.toString());
+			log.atDebug("Signin request").with("body", body).log();
 
 			String email = String.valueOf(body.get("email"));
 			String password = String.valueOf(body.get("password"));
-			logger.log("Extracted email: " + email);
-			logger.log("Extracted password: " + password);
-
 
 			if (!validEmail(email)) {
-				logger.log("Email validation failed for: " + email);
 				throw new Exception("Email is invalid");
 			}
-			logger.log("Email validation passed for: " + email);
 
 			if (!validPassword(password)) {
-				logger.log("Password validation failed.");
 				throw new Exception("Password is invalid");
 			}
-			logger.log("Password validation passed.");
 
 			String userPoolId = getUserPoolIdByName(System.getenv("booking_userpool"))
 					.orElseThrow(() -> new IllegalArgumentException("No such user pool"));
-			logger.log("Retrieved user pool ID: " + userPoolId);
 
 			String clientId = getClientIdByUserPoolName(System.getenv("booking_userpool"))
 					.orElseThrow(() -> new IllegalArgumentException("No such client ID"));
-			logger.log("Retrieved client ID: " + clientId);
+			log.atDebug("Resolved user pool")
+					.with("userPoolId", userPoolId)
+					.with("clientId", clientId)
+					.log();
 
 			Map<String, String> authParams = new HashMap<>();
 			authParams.put("USERNAME", email);
 			authParams.put("PASSWORD", password);
-			logger.log("Authentication parameters: " + authParams);
 
 			AdminInitiateAuthRequest authRequest = new AdminInitiateAuthRequest()
 					.withAuthFlow(AuthFlowType.ADMIN_NO_SRP_AUTH)
 					.withUserPoolId(userPoolId)
 					.withClientId(clientId)
 					.withAuthParameters(authParams);
-			logger.log("AdminInitiateAuthRequest: " + authRequest.toString());
 
-			AdminInitiateAuthResult result = cognitoClient.adminInitiateAuth(authRequest);
-			logger.log("AdminInitiateAuthResult: " + result.toString());
+			AdminInitiateAuthResult result = metrics.time("adminInitiateAuth", () -> cognitoClient.adminInitiateAuth(authRequest));
 
 			if (result.getAuthenticationResult() != null) {
 				String accessToken = result.getAuthenticationResult().getIdToken();
-				logger.log("Authentication successful. AccessToken: " + accessToken);
-
 				Map<String, Object> jsonResponse = new HashMap<>();
 				jsonResponse.put("accessToken", accessToken);
 
 				response.put("statusCode", 200);
 				response.put("body", objectMapper.writeValueAsString(jsonResponse));
-				logger.log("Response JSON: " + jsonResponse);
+				log.atInfo("Authentication succeeded").log();
 			} else {
-				logger.log("Authentication failed, no tokens returned.");
 				throw new Exception("Authentication failed, no tokens returned.");
 			}
 		} catch (Exception ex) {
-			logger.log("Exception encountered: " + ex.getMessage());
+			log.atWarn("Signin failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
 
-		logger.log("SignIn process completed.");
 		return response;
 	}
 
 
-	private Map<String, Object> handleGetTables(LambdaLogger logger) {
-		logger.log("getTables was called");
+	private Map<String, Object> handleGetTables() {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 
 		try {
-			AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-					.withRegion(System.getenv("region"))
-					.build();
 			ScanRequest scanRequest = new ScanRequest().withTableName(System.getenv("tables_table"));
-			ScanResult scanResult = ddb.scan(scanRequest);
-			logger.log("ScanResult: " + scanResult.toString());
+			ScanResult scanResult = metrics.time("scan", () -> ddb.scan(scanRequest));
 
 			List<Map<String, Object>> tables = new ArrayList<>();
 			for (Map<String, AttributeValue> item : scanResult.getItems()) {
@@ -286,18 +272,16 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 				table.put("minOrder", item.containsKey("minOrder") ? Integer.parseInt(item.get("minOrder").getN()) : null);
 				tables.add(table);
 			}
-			logger.log("Tables List: " + tables.toString());
 
 			tables.sort(Comparator.comparing(o -> (Integer) o.get("id")));
 
 			Map<String, Object> jsonResponse = new HashMap<>();
 			jsonResponse.put("tables", tables);
-			logger.log("Response JSON: " + jsonResponse.toString());
 
 			response.put("statusCode", 200);
 			response.put("body", objectMapper.writeValueAsString(jsonResponse));
 		} catch (Exception e) {
-			logger.log("Exception: " + e.getMessage());
+			log.atWarn("Get tables failed").withError(e).log();
 			response.put("statusCode", 400);
 			response.put("body", e.getMessage());
 		}
@@ -305,18 +289,12 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	private Map<String, Object> handleGetTableById(String tableId, LambdaLogger logger) {
-		logger.log("getTableById was called");
+	private Map<String, Object> handleGetTableById(String tableId) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 
 		try {
-			AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-					.withRegion(System.getenv("region"))
-					.build();
 			ScanRequest scanRequest = new ScanRequest().withTableName(System.getenv("tables_table"));
-			ScanResult scanResult = ddb.scan(scanRequest);
-			logger.log("ScanResult: " + scanResult.toString());
+			ScanResult scanResult = metrics.time("scan", () -> ddb.scan(scanRequest));
 
 			Map<String, AttributeValue> table = null;
 
@@ -333,16 +311,15 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 				Map<String, Object> jsonResponse = ItemUtils.toSimpleMapValue(table);
 				jsonResponse.replace("id", Integer.parseInt((String) jsonResponse.get("id")));
 
-				logger.log("Found table: " + jsonResponse.toString());
 				response.put("statusCode", 200);
 				response.put("body", objectMapper.writeValueAsString(jsonResponse));
 			} else {
-				logger.log("Table not found with ID: " + tableId);
+				log.atInfo("Table not found").with("tableId", tableId).log();
 				response.put("statusCode", 404);
 				response.put("body", "Table not found");
 			}
 		} catch (Exception e) {
-			logger.log("Exception encountered: " + e.getMessage());
+			log.atWarn("Get table failed").with("tableId", tableId).withError(e).log();
 			response.put("statusCode", 400);
 			response.put("body", e.getMessage());
 		}
@@ -350,17 +327,12 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	private Map<String, Object> handleCreateTable(Map<String, Object> event, LambdaLogger logger) {
-		logger.log("postTable was called");
+	private Map<String, Object> handleCreateTable(Map<String, Object> event) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
-		AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-				.withRegion(System.getenv("region"))
-				.build();
 
 		try {
 			Map<String, Object> body = objectMapper.readValue((String) event.get("body"), Map.class);
-			logger.log("Request body: " + body.toString());
+			log.atDebug("Create table request").with("body", body).log();
 
 			String id = String.valueOf(body.get("id"));
 			int number = (Integer) body.get("number");
@@ -379,18 +351,17 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 			if (minOrder != -1) {
 				item.withInt("minOrder", minOrder);
 			}
-			logger.log("DynamoDB item: " + item.toString());
 
-			ddb.putItem(System.getenv("tables_table"), ItemUtils.toAttributeValues(item));
+			metrics.time("putTable", () -> ddb.putItem(System.getenv("tables_table"), ItemUtils.toAttributeValues(item)));
+			log.atInfo("Table created").with("tableId", id).log();
 
 			Map<String, Object> jsonResponse = new HashMap<>();
 			jsonResponse.put("id", Integer.parseInt(id));
-			logger.log("Response JSON: " + jsonResponse.toString());
 
 			response.put("statusCode", 200);
 			response.put("body", objectMapper.writeValueAsString(jsonResponse));
 		} catch (Exception ex) {
-			logger.log("Exception encountered: " + ex.getMessage());
+			log.atWarn("Create table failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
@@ -398,17 +369,12 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	private Map<String, Object> handleCreateReservation(Map<String, Object> event, LambdaLogger logger) {
-		logger.log("postReservation was called");
+	private Map<String, Object> handleCreateReservation(Map<String, Object> event) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
-		AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-				.withRegion(System.getenv("region"))
-				.build();
 
 		try {
 			Map<String, Object> body = objectMapper.readValue((String) event.get("body"), Map.class);
-			logger.log("Request body: " + body.toString());
+			log.atDebug("Create reservation request").with("body", body).log();
 
 			String reservationId = UUID.randomUUID().toString();
 			String tableNumber = String.valueOf(body.get("tableNumber"));
@@ -419,7 +385,6 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 			String slotTimeEnd = String.valueOf(body.get("slotTimeEnd"));
 
 			String reservationsTable = System.getenv("reservations_table");
-			logger.log("Environment variable 'reservations_table': " + reservationsTable);
 
 			if (reservationsTable == null || reservationsTable.isEmpty()) {
 				throw new IllegalArgumentException("Environment variable 'reservations_table' is not set or is empty.");
@@ -432,34 +397,43 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 					.withString("phoneNumber", phoneNumber)
 					.withString("date", date)
 					.withString("slotTimeStart", slotTimeStart)
-					.withString("slotTimeEnd", slotTimeEnd);
-
-			logger.log("Reservation item: " + item.toString());
+					.withString("slotTimeEnd", slotTimeEnd)
+					.withString("tableDate", tableDateKey(tableNumber, date));
 
-			if (!doesTaleExist(ddb, System.getenv("tables_table"), tableNumber, logger)) {
+			if (!doesTaleExist(ddb, System.getenv("tables_table"), tableNumber)) {
 				response.put("statusCode", 400);
 				response.put("body", "Table does not exist");
-				logger.log("Table does not exist");
+				log.atInfo("Reservation rejected").with("reason", "unknown table").with("tableNumber", tableNumber).log();
 				return response;
 			}
 
 			if (isReservationOverlapping(ddb, reservationsTable, tableNumber, date, slotTimeStart, slotTimeEnd)) {
 				response.put("statusCode", 400);
 				response.put("body", "Reservation overlaps with an existing reservation");
-				logger.log("Reservation overlaps with an existing reservation");
+				log.atInfo("Reservation rejected").with("reason", "overlap").with("tableNumber", tableNumber).log();
 				return response;
 			}
 
-			ddb.putItem(reservationsTable, ItemUtils.toAttributeValues(item));
+			try (Metrics.Timer timer = metrics.time("putReservation")) {
+				ddb.putItem(new PutItemRequest()
+						.withTableName(reservationsTable)
+						.withItem(ItemUtils.toAttributeValues(item))
+						.withConditionExpression("attribute_not_exists(tableDate)"));
+			} catch (ConditionalCheckFailedException e) {
+				response.put("statusCode", 400);
+				response.put("body", "Reservation overlaps with an existing reservation");
+				log.atInfo("Reservation rejected").with("reason", "same start").with("tableNumber", tableNumber).log();
+				return response;
+			}
 
 			Map<String, Object> jsonResponse = new HashMap<>();
 			jsonResponse.put("reservationId", reservationId);
-			logger.log("Response JSON: " + jsonResponse);
+			log.atInfo("Reservation created").with("reservationId", reservationId).log();
 
 			response.put("statusCode", 200);
 			response.put("body", objectMapper.writeValueAsString(jsonResponse));
 		} catch (Exception ex) {
-			logger.log("Exception encountered: " + ex.getMessage());
+			log.atWarn("Create reservation failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
@@ -467,12 +441,11 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	public boolean doesTaleExist(AmazonDynamoDB ddb, String tableName, String tableNumber, LambdaLogger logger) {
-		ScanResult scanResult = ddb.scan(new ScanRequest().withTableName(tableName));
+	public boolean doesTaleExist(AmazonDynamoDB ddb, String tableName, String tableNumber) {
+		ScanResult scanResult = metrics.time("doesTaleExist", () -> ddb.scan(new ScanRequest().withTableName(tableName)));
 
 		for (Map<String, AttributeValue> item : scanResult.getItems()) {
 			if (tableNumber.equals(item.get("number").getN())) {
-				logger.log("Table exists, number: " + tableNumber);
 				return true;
 			}
 		}
@@ -480,35 +453,42 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 	}
 
 	public boolean isReservationOverlapping(AmazonDynamoDB ddb, String tableName, String tableNumber, String date, String slotTimeStart, String slotTimeEnd) {
-		ScanResult scanResult = ddb.scan(new ScanRequest().withTableName(tableName));
-		for (Map<String, AttributeValue> item : scanResult.getItems()) {
-			String existingTableNumber = item.get("tableNumber").getS();
-			String existingDate = item.get("date").getS();
+		return loadSlots(ddb, tableName, tableNumber, date).overlaps(slotTimeStart, slotTimeEnd);
+	}
 
-			if (tableNumber.equals(existingTableNumber) && date.equals(existingDate)) {
-				String existingSlotTimeStart = item.get("slotTimeStart").getS();
-				String existingSlotTimeEnd = item.get("slotTimeEnd").getS();
+	private SlotIntervals loadSlots(AmazonDynamoDB ddb, String tableName, String tableNumber, String date) {
+		SlotIntervals slots = new SlotIntervals();
+		QueryRequest queryRequest = new QueryRequest()
+				.withTableName(tableName)
+				.withKeyConditionExpression("tableDate = :tableDate")
+				.withExpressionAttributeValues(Collections.singletonMap(":tableDate", new AttributeValue(tableDateKey(tableNumber, date))))
+				.withProjectionExpression("slotTimeStart, slotTimeEnd");
 
-				return timeOverlap(slotTimeStart, slotTimeEnd, existingSlotTimeStart, existingSlotTimeEnd);
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		do {
+			QueryResult queryResult;
+			try (Metrics.Timer timer = metrics.time("querySlots")) {
+				queryResult = ddb.query(queryRequest.withExclusiveStartKey(lastEvaluatedKey));
 			}
-		}
+			for (Map<String, AttributeValue> item : queryResult.getItems()) {
+				slots.add(item.get("slotTimeStart").getS(), item.get("slotTimeEnd").getS());
+			}
+			lastEvaluatedKey = queryResult.getLastEvaluatedKey();
+		} while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
 
-		return false;
+		return slots;
 	}
 
-	private Map<String, Object> handleGetReservations(LambdaLogger logger) {
-		logger.log("getReservations was called");
+	private static String tableDateKey(String tableNumber, String date) {
+		return tableNumber + "#" + date;
+	}
+
+	private Map<String, Object> handleGetReservations() {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 
 		try {
-			AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-					.withRegion(System.getenv("region"))
-					.build();
-
 			ScanRequest scanRequest = new ScanRequest().withTableName(System.getenv("reservations_table"));
-			ScanResult scanResult = ddb.scan(scanRequest);
-			logger.log("ScanResult: " + scanResult.toString());
+			ScanResult scanResult = metrics.time("scan", () -> ddb.scan(scanRequest));
 
 			List<Map<String, Object>> reservations = new ArrayList<>();
 			for (Map<String, AttributeValue> item : scanResult.getItems()) {
@@ -523,16 +503,13 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 				reservations.add(reservation);
 			}
 
-			logger.log("Reservations: " + reservations.toString());
-
 			Map<String, Object> jsonResponse = new HashMap<>();
 			jsonResponse.put("reservations", reservations);
-			logger.log("Response JSON: " + jsonResponse.toString());
 
 			response.put("statusCode", 200);
 			response.put("body", objectMapper.writeValueAsString(jsonResponse));
 		} catch (Exception ex) {
-			logger.log("Exception encountered: " + ex.getMessage());
+			log.atWarn("Get reservations failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
@@ -540,14 +517,27 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	private boolean timeOverlap(String slotTimeStart, String slotTimeEnd, String existingSlotTimeStart, String existingSlotTimeEnd) {
+	/**
+	 * Sends a signup with an invalid email through JSON parsing and validation (it is rejected before Cognito)
+	 * and exercises the overlap check, then serializes a response body.
+	 */
+	private void prime() {
+		Map<String, Object> request = new HashMap<>();
+		request.put("path", "/signup");
+		request.put("httpMethod", "POST");
+		request.put("body", "{\"email\":\"priming\",\"password\":\"Priming1!\"}");
+		handleSignup(request);
+		validPassword("Priming1!");
+
+		SlotIntervals slots = new SlotIntervals();
+		slots.add("10:00", "11:00");
+		slots.overlaps("10:30", "12:00");
 
-		LocalTime start = LocalTime.parse(slotTimeStart);
-		LocalTime end = LocalTime.parse(slotTimeEnd);
-		LocalTime existingStart = LocalTime.parse(existingSlotTimeStart);
-		LocalTime existingEnd = LocalTime.parse(existingSlotTimeEnd);
-
-		return (start.isBefore(existingEnd) && end.isAfter(existingStart));
+		try {
+			objectMapper.writeValueAsString(Collections.singletonMap("reservationId", UUID.randomUUID().toString()));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 
 	public static boolean validPassword(String password) {
@@ -582,7 +572,7 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 					.withMaxResults(60)
 					.withNextToken(nextToken);
 
-			ListUserPoolsResult listUserPoolsResult = cognitoClient.listUserPools(listUserPoolsRequest);
+			ListUserPoolsResult listUserPoolsResult = metrics.time("listUserPools", () -> cognitoClient.listUserPools(listUserPoolsRequest));
 
 			for (UserPoolDescriptionType pool : listUserPoolsResult.getUserPools()) {
 				if (pool.getName().equals(userPoolName)) {
@@ -600,7 +590,8 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		String userPoolId = getUserPoolIdByName(userPoolName).get();
 
 		ListUserPoolClientsRequest listUserPoolClientsRequest = new ListUserPoolClientsRequest().withUserPoolId(userPoolId);
-		ListUserPoolClientsResult listUserPoolClientsResult = cognitoClient.listUserPoolClients(listUserPoolClientsRequest);
+		ListUserPoolClientsResult listUserPoolClientsResult = metrics.time("listUserPoolClients",
+				() -> cognitoClient.listUserPoolClients(listUserPoolClientsRequest));
 
 		for (UserPoolClientDescription client : listUserPoolClientsResult.getUserPoolClients()) {
 			return Optional.of(client.getClientId());
@@ -0,0 +1,42 @@
+package com.task11;
+
+import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProvider;
+import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProviderClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.common.AwsV1Clients;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Container-wide clients. Each one is built lazily on first use and then shared by every invocation;
+ * {@link AwsV1Clients} holds the builder settings they share with the other tasks.
+ */
+public final class ClientRegistry {
+
+	private ClientRegistry() {
+	}
+
+	public static AmazonDynamoDB dynamoDb() {
+		return DynamoDbHolder.CLIENT;
+	}
+
+	public static AWSCognitoIdentityProvider cognito() {
+		return CognitoHolder.CLIENT;
+	}
+
+	public static ObjectMapper objectMapper() {
+		return ObjectMapperHolder.MAPPER;
+	}
+
+	private static final class DynamoDbHolder {
+		private static final AmazonDynamoDB CLIENT = AwsV1Clients.configure(AmazonDynamoDBClientBuilder.standard()).build();
+	}
+
+	private static final class CognitoHolder {
+		private static final AWSCognitoIdentityProvider CLIENT = AwsV1Clients.configure(AWSCognitoIdentityProviderClientBuilder.standard()).build();
+	}
+
+	private static final class ObjectMapperHolder {
+		private static final ObjectMapper MAPPER = new ObjectMapper();
+	}
+}
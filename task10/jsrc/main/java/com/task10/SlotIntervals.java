@@ -0,0 +1,45 @@
+package com.task11;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Booked time slots of a single table on a single day.
+ * Slots are kept merged and sorted by start time, so an overlap check is one floor lookup.
+ */
+public class SlotIntervals {
+
+	private final TreeMap<Integer, Integer> slots = new TreeMap<>();
+
+	public void add(String slotTimeStart, String slotTimeEnd) {
+		add(LocalTime.parse(slotTimeStart).toSecondOfDay(), LocalTime.parse(slotTimeEnd).toSecondOfDay());
+	}
+
+	public boolean overlaps(String slotTimeStart, String slotTimeEnd) {
+		return overlaps(LocalTime.parse(slotTimeStart).toSecondOfDay(), LocalTime.parse(slotTimeEnd).toSecondOfDay());
+	}
+
+	private void add(int start, int end) {
+		Map.Entry<Integer, Integer> previous = slots.floorEntry(start);
+		if (previous != null && previous.getValue() > start) {
+			start = previous.getKey();
+			end = Math.max(end, previous.getValue());
+			slots.remove(previous.getKey());
+		}
+
+		Map.Entry<Integer, Integer> next = slots.ceilingEntry(start);
+		while (next != null && next.getKey() < end) {
+			end = Math.max(end, next.getValue());
+			slots.remove(next.getKey());
+			next = slots.ceilingEntry(start);
+		}
+
+		slots.put(start, end);
+	}
+
+	private boolean overlaps(int start, int end) {
+		Map.Entry<Integer, Integer> candidate = slots.lowerEntry(end);
+		return candidate != null && candidate.getValue() > start;
+	}
+}
@@ -0,0 +1,87 @@
+package com.task11;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotIntervalsTest {
+
+	@Test
+	void emptyDayHasNoOverlap() {
+		assertFalse(new SlotIntervals().overlaps("00:00", "23:59"));
+	}
+
+	@Test
+	void detectsOverlapWithOneSlot() {
+		SlotIntervals slots = new SlotIntervals();
+		slots.add("18:00", "19:00");
+		assertTrue(slots.overlaps("18:00", "19:00"));
+		assertTrue(slots.overlaps("17:30", "18:30"));
+		assertTrue(slots.overlaps("18:59", "20:00"));
+		assertTrue(slots.overlaps("18:15", "18:45"));
+		assertTrue(slots.overlaps("17:00", "20:00"));
+	}
+
+	@Test
+	void touchingSlotsDoNotOverlap() {
+		SlotIntervals slots = new SlotIntervals();
+		slots.add("18:00", "19:00");
+		assertFalse(slots.overlaps("17:00", "18:00"));
+		assertFalse(slots.overlaps("19:00", "20:00"));
+	}
+
+	@Test
+	void findsGapsBetweenSlots() {
+		SlotIntervals slots = new SlotIntervals();
+		slots.add("20:00", "21:00");
+		slots.add("12:00", "13:00");
+		slots.add("16:00", "17:00");
+		assertFalse(slots.overlaps("13:00", "16:00"));
+		assertFalse(slots.overlaps("17:30", "19:30"));
+		assertFalse(slots.overlaps("09:00", "12:00"));
+		assertFalse(slots.overlaps("21:00", "23:00"));
+		assertTrue(slots.overlaps("15:00", "16:30"));
+		assertTrue(slots.overlaps("12:30", "20:30"));
+	}
+
+	@Test
+	void mergesOnlyOverlappingSlots() {
+		SlotIntervals slots = new SlotIntervals();
+		slots.add("10:00", "11:00");
+		slots.add("12:00", "13:00");
+		slots.add("14:00", "15:00");
+		slots.add("10:30", "14:30");
+		assertTrue(slots.overlaps("11:15", "11:45"));
+		assertTrue(slots.overlaps("13:15", "13:45"));
+		assertFalse(slots.overlaps("15:00", "16:00"));
+
+		slots.add("15:00", "16:00");
+		assertTrue(slots.overlaps("14:45", "15:15"));
+		assertFalse(slots.overlaps("09:00", "10:00"));
+	}
+
+	@Test
+	void containedSlotKeepsOuterEnd() {
+		SlotIntervals slots = new SlotIntervals();
+		slots.add("10:00", "14:00");
+		slots.add("11:00", "12:00");
+		assertTrue(slots.overlaps("13:00", "13:30"));
+	}
+
+	@Test
+	void comparesSecondsNotStrings() {
+		SlotIntervals slots = new SlotIntervals();
+		slots.add("09:00", "10:00");
+		assertTrue(slots.overlaps("09:59:30", "10:30"));
+		assertFalse(slots.overlaps("10:00:00", "10:30"));
+	}
+
+	@Test
+	void rejectsInvalidTime() {
+		assertThrows(DateTimeParseException.class, () -> new SlotIntervals().add("25:00", "26:00"));
+	}
+}
@@ -1,31 +1,14 @@
 package com.task11;
 
-import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProvider;
-import com.amazonaws.services.cognitoidp.AWSCognitoIdentityProviderClientBuilder;
-import com.amazonaws.services.cognitoidp.model.AdminCreateUserRequest;
-import com.amazonaws.services.cognitoidp.model.AdminInitiateAuthRequest;
-import com.amazonaws.services.cognitoidp.model.AdminInitiateAuthResult;
-import com.amazonaws.services.cognitoidp.model.AdminSetUserPasswordRequest;
-import com.amazonaws.services.cognitoidp.model.AttributeType;
-import com.amazonaws.services.cognitoidp.model.AuthFlowType;
-import com.amazonaws.services.cognitoidp.model.ListUserPoolClientsRequest;
-import com.amazonaws.services.cognitoidp.model.ListUserPoolClientsResult;
-import com.amazonaws.services.cognitoidp.model.ListUserPoolsRequest;
-import com.amazonaws.services.cognitoidp.model.ListUserPoolsResult;
-import com.amazonaws.services.cognitoidp.model.MessageActionType;
-import com.amazonaws.services.cognitoidp.model.UserPoolClientDescription;
-import com.amazonaws.services.cognitoidp.model.UserPoolDescriptionType;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import com.amazonaws.services.dynamodbv2.document.DynamoDB;
-import com.amazonaws.services.dynamodbv2.document.Item;
-import com.amazonaws.services.dynamodbv2.document.ItemUtils;
-import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.amazonaws.services.dynamodbv2.model.ScanRequest;
-import com.amazonaws.services.dynamodbv2.model.ScanResult;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.common.IdGenerator;
+import com.common.IdempotencyStore;
+import com.common.Metrics;
+import com.common.Priming;
+import com.common.StructuredLogger;
+import com.common.TtlCache;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
 import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
@@ -36,20 +19,32 @@ import com.syndicate.deployment.model.ResourceType;
 import com.syndicate.deployment.model.RetentionSetting;
 import com.syndicate.deployment.model.lambda.url.AuthType;
 import com.syndicate.deployment.model.lambda.url.InvokeMode;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-
-import java.time.LocalTime;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.MessageActionType;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 @LambdaHandler(
 		lambdaName = "api_handler",
@@ -60,130 +55,222 @@ import java.util.regex.Pattern;
 		invokeMode = InvokeMode.BUFFERED
 )
 @DependsOn(name = "${tables_table}", resourceType = ResourceType.DYNAMODB_TABLE)
-@DependsOn(name = "${reservations_table}", resourceType = ResourceType.DYNAMODB_TABLE)
+@DependsOn(name = "${reservations_v2_table}", resourceType = ResourceType.DYNAMODB_TABLE)
+@DependsOn(name = "${slots_table}", resourceType = ResourceType.DYNAMODB_TABLE)
 @DependsOn(name = "${booking_userpool}", resourceType = ResourceType.COGNITO_USER_POOL)
+@DependsOn(name = "${idempotency_table}", resourceType = ResourceType.DYNAMODB_TABLE)
 @EnvironmentVariables(
 		value = {
 				@EnvironmentVariable(key = "region", value = "${region}"),
 				@EnvironmentVariable(key = "tables_table", value = "${tables_table}"),
-				@EnvironmentVariable(key = "reservations_table", value = "${reservations_table}"),
-				@EnvironmentVariable(key = "booking_userpool", value = "${booking_userpool}")
+				@EnvironmentVariable(key = "reservations_table", value = "${reservations_v2_table}"),
+				@EnvironmentVariable(key = "slots_table", value = "${slots_table}"),
+				@EnvironmentVariable(key = "booking_userpool", value = "${booking_userpool}"),
+				@EnvironmentVariable(key = "idempotency_table", value = "${idempotency_table}"),
+				@EnvironmentVariable(key = "id_mode", value = "v7"),
+				@EnvironmentVariable(key = "log_level", value = "INFO"),
+				@EnvironmentVariable(key = "priming_enabled", value = "false"),
+				@EnvironmentVariable(key = "JAVA_TOOL_OPTIONS", value = "-XX:+TieredCompilation -XX:TieredStopAtLevel=1")
 		}
 )
 public class ApiHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-	private static final Log log = LogFactory.getLog(ApiHandler.class);
-	private final AmazonDynamoDB dynamoDBClient = AmazonDynamoDBClientBuilder.defaultClient();
-	private final DynamoDB dynamoDB = new DynamoDB(dynamoDBClient);
-	private final AWSCognitoIdentityProvider cognitoClient = AWSCognitoIdentityProviderClientBuilder.defaultClient();
+	private static final StructuredLogger log = StructuredLogger.getLogger(ApiHandler.class);
+	private static final int TABLE_CACHE_SIZE = 1024;
+	private static final int DEFAULT_PAGE_SIZE = 50;
+	private static final int MAX_PAGE_SIZE = 1000;
+	private final DynamoDbClient ddb = ClientRegistry.dynamoDb();
+	private final DynamoDbEnhancedClient enhancedDdb = ClientRegistry.enhancedDynamoDb();
+	private final CognitoIdentityProviderClient cognitoClient = ClientRegistry.cognito();
+	private final CognitoIdResolver cognitoIds = CognitoIdResolver.fromEnvironment(cognitoClient);
+	private final IdGenerator idGenerator = IdGenerator.fromEnvironment();
+	private final Metrics metrics = Metrics.forFunction("api_handler");
+	private final ObjectMapper objectMapper = ClientRegistry.objectMapper();
+	private final IdempotencyStore idempotencyStore = IdempotencyStore.fromEnvironment(ddb, objectMapper);
+	private final ReservationRepository reservations = ReservationRepository.fromEnvironment(ddb);
+	private final BookingEngine bookingEngine = BookingEngine.fromEnvironment(ddb);
+	private final TableCatalog tableCatalog = TableCatalog.fromEnvironment(ddb, metrics);
+	private final CredentialValidator credentialValidator = CredentialValidator.fromDeploymentResources(objectMapper);
+	private final TtlCache<String, String> tableCache = new TtlCache<>(TABLE_CACHE_SIZE,
+			Duration.ofSeconds(Long.parseLong(Optional.ofNullable(System.getenv("table_cache_ttl_seconds")).orElse("60"))));
+	private final Router<Route> router = Router.<Route>builder()
+			.add("GET", "/tables", (request, match) -> handleGetTables(request))
+			.add("GET", "/tables/{tableId:int}", (request, match) -> handleGetTableById(match.intParam("tableId")))
+			.add("POST", "/tables", (request, match) -> idempotent("tables", request, completion -> handleCreateTable(request, completion)))
+			.add("POST", "/signup", (request, match) -> handleSignup(request))
+			.add("POST", "/signin", (request, match) -> handleSignin(request))
+			.add("POST", "/reservations", (request, match) -> idempotent("reservations", request, completion -> handleCreateReservation(request, completion)))
+			.add("GET", "/reservations", (request, match) -> handleGetReservations(request))
+			.build();
+
+	public ApiHandler() {
+		Priming.register("api_handler", this::prime, this::refresh);
+	}
 
-	public Map<String, Object> handleRequest(Map<String, Object> request, Context context) {
-		LambdaLogger logger = context.getLogger();
-		logger.log("Request: " + request.toString());
+	@FunctionalInterface
+	private interface Route {
+		Map<String, Object> handle(Map<String, Object> request, Router.Match<Route> match) throws Exception;
+	}
 
-		logger.log("tables_table: " + System.getenv("tables_table"));
-		logger.log("reservations_table: " + System.getenv("reservations_table"));
-		logger.log("booking_userpool: " + System.getenv("booking_userpool"));
+	public Map<String, Object> handleRequest(Map<String, Object> request, Context context) {
+		try {
+			return metrics.time("request", () -> dispatch(request));
+		} finally {
+			metrics.flush();
+		}
+	}
 
+	private Map<String, Object> dispatch(Map<String, Object> request) {
 		Map<String, Object> responseMap = new HashMap<>();
 		String path = (String) request.get("path");
 		String httpMethod = (String) request.get("httpMethod");
+		Router.Match<Route> match = router.route(httpMethod, path);
+		log.atInfo("Request received")
+				.with("httpMethod", httpMethod)
+				.with("path", path)
+				.with("route", match.getStatus())
+				.log();
+		log.atDebug("Request parameters")
+				.withLazy("queryStringParameters", () -> request.get("queryStringParameters"))
+				.withLazy("headers", () -> request.get("headers"))
+				.log();
 
 		try {
-			if (path.startsWith("/tables") && httpMethod.equalsIgnoreCase("GET")) {
-				if (path.equals("/tables")) {
-					responseMap = handleGetTables(logger);
-				} else if (path.matches("/tables/\\d+")) {
-					String tableId = path.substring("/tables/".length());
-					responseMap = handleGetTableById(tableId, logger);
-				} else {
+			switch (match.getStatus()) {
+				case FOUND:
+					responseMap = match.getHandler().handle(request, match);
+					break;
+				case METHOD_NOT_ALLOWED:
+					responseMap.put("statusCode", 405);
+					responseMap.put("body", "Method not allowed.");
+					break;
+				case INVALID_PARAMETER:
 					responseMap.put("statusCode", 400);
 					responseMap.put("body", "Invalid table ID.");
-				}
-			} else if (path.startsWith("/tables") && httpMethod.equalsIgnoreCase("POST")) {
-				responseMap = handleCreateTable(request, logger);
-			} else if (path.equals("/signup") && "POST".equalsIgnoreCase(httpMethod)) {
-				responseMap = handleSignup(request, logger);
-			} else if (path.equals("/signin") && "POST".equalsIgnoreCase(httpMethod)) {
-				responseMap = handleSignin(request, logger);
-			} else if (path.equals("/reservations")) {
-				if ("POST".equalsIgnoreCase(httpMethod)) {
-					responseMap = handleCreateReservation(request, logger);
-				} else if ("GET".equalsIgnoreCase(httpMethod)) {
-					responseMap = handleGetReservations(logger);
-				}
-			} else {
-				responseMap.put("statusCode", 400);
-				responseMap.put("body", "Invalid path.");
+					break;
+				default:
+					responseMap.put("statusCode", 400);
+					responseMap.put("body", "Invalid path.");
 			}
 		} catch (Exception e) {
-			logger.log("Error: " + e.getMessage());
+			log.atError("Unhandled error").withError(e).log();
+			metrics.count("unhandledErrors", 1);
 			responseMap.put("statusCode", 500);
 			responseMap.put("body", "Internal server error.");
 		}
 
 		Map<String, String> headers = new HashMap<>();
-		headers.put("Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token");
+		headers.put("Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token,Idempotency-Key");
 		headers.put("Access-Control-Allow-Origin", "*");
 		headers.put("Access-Control-Allow-Methods", "*");
 		headers.put("Accept-Version", "*");
+		if (match.getStatus() == Router.Status.METHOD_NOT_ALLOWED) {
+			headers.put("Allow", String.join(", ", match.getAllowedMethods()));
+		}
 
 		responseMap.put("headers", headers);
 
 		return responseMap;
 	}
 
-	private Map<String, Object> handleSignup(Map<String, Object> event, LambdaLogger logger) {
+	/**
+	 * Dispatches requests that are answered without AWS calls (a signup rejected by validation, an invalid
+	 * table id, an unknown method) and round-trips a page token, so routing, JSON, validation and logging are warm.
+	 */
+	private void prime() {
+		Map<String, Object> signup = new HashMap<>();
+		signup.put("path", "/signup");
+		signup.put("httpMethod", "POST");
+		signup.put("body", "{\"email\":\"priming\",\"password\":\"Priming1!\"}");
+		dispatch(signup);
+		credentialValidator.validPassword("Priming1!");
+
+		Map<String, Object> invalidTableId = new HashMap<>();
+		invalidTableId.put("path", "/tables/priming");
+		invalidTableId.put("httpMethod", "GET");
+		dispatch(invalidTableId);
+
+		Map<String, Object> methodNotAllowed = new HashMap<>();
+		methodNotAllowed.put("path", "/reservations");
+		methodNotAllowed.put("httpMethod", "DELETE");
+		dispatch(methodNotAllowed);
+
+		try {
+			PageToken.decode(objectMapper, PageToken.encode(objectMapper,
+					Collections.singletonMap("id", AttributeValue.fromS(idGenerator.next()))));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void refresh() {
+		idGenerator.reseed();
+		tableCache.clear();
+		tableCatalog.clear();
+		idempotencyStore.clearCache();
+	}
+
+	/**
+	 * Runs a create handler once per caller and Idempotency-Key header (or request body when the header is
+	 * missing); replays return the stored 200 response without touching the target table. The caller is the
+	 * Cognito {@code sub} claim, so another user sending the same key or body never gets this one's response.
+	 * The handler writes its 200 response in the same transaction as its item, so a stored response always has
+	 * its item and vice versa.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> idempotent(String scope, Map<String, Object> request,
+										   Function<IdempotencyStore.Completion, Map<String, Object>> handler) {
+		String key = IdempotencyStore.key(scope, principal(request), header(request, IdempotencyStore.HEADER),
+				(String) request.get("body"));
+		try {
+			return idempotencyStore.execute(key, Map.class, handler::apply);
+		} catch (IdempotencyStore.InProgressException e) {
+			log.atWarn("Duplicate request in progress").with("scope", scope).log();
+			Map<String, Object> response = new HashMap<>();
+			response.put("statusCode", 409);
+			response.put("body", "A request with the same idempotency key is in progress.");
+			return response;
+		}
+	}
+
+	private Map<String, Object> handleSignup(Map<String, Object> event) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 		try {
 			Map<String, Object> body = objectMapper.readValue((String) event.get("body"), Map.class);
-			logger.log("signUp was called");
+			log.atDebug("Signup request").with("body", body).log();
 
 			String email = String.valueOf(body.get("email"));
 			String password = String.valueOf(body.get("password"));
 
-			if (!validEmail(email)) {
-				logger.log("Email is invalid");
+			if (!credentialValidator.validEmail(email)) {
 				throw new Exception("Email is invalid");
 			}
 
-			if (!validPassword(password)) {
-				logger.log("Password is invalid");
+			if (!credentialValidator.validPassword(password)) {
 				throw new Exception("Password is invalid");
 			}
 
-			logger.log("Looking up user pool ID for: " + System.getenv("booking_userpool"));
-			String userPoolId = getUserPoolIdByName(System.getenv("booking_userpool"))
-					.orElseThrow(() -> new IllegalArgumentException("No such user pool"));
-			logger.log("Found user pool ID: " + userPoolId);
-
-			AdminCreateUserRequest adminCreateUserRequest = new AdminCreateUserRequest()
-					.withUserPoolId(userPoolId)
-					.withUsername(email)
-					.withUserAttributes(new AttributeType().withName("email").withValue(email))
-					.withMessageAction(MessageActionType.SUPPRESS);
-			logger.log("AdminCreateUserRequest: " + adminCreateUserRequest.toString());
-
-			AdminSetUserPasswordRequest adminSetUserPassword = new AdminSetUserPasswordRequest()
-					.withPassword(password)
-					.withUserPoolId(userPoolId)
-					.withUsername(email)
-					.withPermanent(true);
-			logger.log(adminSetUserPassword.toString());
-
-			logger.log("Creating user in Cognito...");
-			cognitoClient.adminCreateUser(adminCreateUserRequest);
-			logger.log("User created successfully.");
-
-			logger.log("Setting user password...");
-			cognitoClient.adminSetUserPassword(adminSetUserPassword);
-			logger.log("Password set successfully.");
+			String userPoolId = metrics.time("resolveUserPool",
+					() -> cognitoIds.resolve(System.getenv("booking_userpool"))).getUserPoolId();
+
+			try (Metrics.Timer timer = metrics.time("createCognitoUser")) {
+				cognitoClient.adminCreateUser(request -> request
+						.userPoolId(userPoolId)
+						.username(email)
+						.userAttributes(AttributeType.builder().name("email").value(email).build())
+						.messageAction(MessageActionType.SUPPRESS));
+				cognitoClient.adminSetUserPassword(request -> request
+						.password(password)
+						.userPoolId(userPoolId)
+						.username(email)
+						.permanent(true));
+			}
+			log.atInfo("User created").with("userPoolId", userPoolId).log();
 
 			response.put("statusCode", 200);
 			response.put("body", "User created successfully");
 
 		} catch (Exception ex) {
-			logger.log(ex.toString());
+			log.atWarn("Signup failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
@@ -191,118 +278,77 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 	}
 
 
-	private Map<String, Object> handleSignin(Map<String, Object> event, LambdaLogger logger) {
-		logger.log("SignIn process started.");
+	private Map<String, Object> handleSignin(Map<String, Object> event) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 
 		try {
-			logger.log("Received event: " + event.toString());
-
 			Map<String, Object> body = objectMapper.readValue((String) event.get("body"), Map.class);
-			logger.log("Parsed body from event: " + body.toString());
+			log.atDebug("Signin request").with("body", body).log();
 
 			String email = String.valueOf(body.get("email"));
 			String password = String.valueOf(body.get("password"));
-			logger.log("Extracted email: " + email);
-			logger.log("Extracted password: " + password);
 
-
-			if (!validEmail(email)) {
-				logger.log("Email validation failed for: " + email);
+			if (!credentialValidator.validEmail(email)) {
 				throw new Exception("Email is invalid");
 			}
-			logger.log("Email validation passed for: " + email);
 
-			if (!validPassword(password)) {
-				logger.log("Password validation failed.");
+			if (!credentialValidator.validPassword(password)) {
 				throw new Exception("Password is invalid");
 			}
-			logger.log("Password validation passed.");
-
-			String userPoolId = getUserPoolIdByName(System.getenv("booking_userpool"))
-					.orElseThrow(() -> new IllegalArgumentException("No such user pool"));
-			logger.log("Retrieved user pool ID: " + userPoolId);
 
-			String clientId = getClientIdByUserPoolName(System.getenv("booking_userpool"))
-					.orElseThrow(() -> new IllegalArgumentException("No such client ID"));
-			logger.log("Retrieved client ID: " + clientId);
+			CognitoIdResolver.PoolIds poolIds = metrics.time("resolveUserPool",
+					() -> cognitoIds.resolve(System.getenv("booking_userpool")));
+			String userPoolId = poolIds.getUserPoolId();
+			String clientId = poolIds.getClientId();
+			log.atDebug("Resolved user pool")
+					.with("userPoolId", userPoolId)
+					.with("clientId", clientId)
+					.with("cacheHits", cognitoIds.getCacheHits())
+					.with("controlPlaneCalls", cognitoIds.getControlPlaneCalls())
+					.log();
 
 			Map<String, String> authParams = new HashMap<>();
 			authParams.put("USERNAME", email);
 			authParams.put("PASSWORD", password);
-			logger.log("Authentication parameters: " + authParams);
-
-			AdminInitiateAuthRequest authRequest = new AdminInitiateAuthRequest()
-					.withAuthFlow(AuthFlowType.ADMIN_NO_SRP_AUTH)
-					.withUserPoolId(userPoolId)
-					.withClientId(clientId)
-					.withAuthParameters(authParams);
-			logger.log("AdminInitiateAuthRequest: " + authRequest.toString());
 
-			AdminInitiateAuthResult result = cognitoClient.adminInitiateAuth(authRequest);
-			logger.log("AdminInitiateAuthResult: " + result.toString());
+			AdminInitiateAuthResponse result = metrics.time("adminInitiateAuth", () -> cognitoClient.adminInitiateAuth(request -> request
+					.authFlow(AuthFlowType.ADMIN_NO_SRP_AUTH)
+					.userPoolId(userPoolId)
+					.clientId(clientId)
+					.authParameters(authParams)));
 
-			if (result.getAuthenticationResult() != null) {
-				String accessToken = result.getAuthenticationResult().getIdToken();
-				logger.log("Authentication successful. AccessToken: " + accessToken);
+			if (result.authenticationResult() != null) {
+				String accessToken = result.authenticationResult().idToken();
+				log.atInfo("Authentication succeeded").log();
 
 				Map<String, Object> jsonResponse = new HashMap<>();
 				jsonResponse.put("accessToken", accessToken);
 
 				response.put("statusCode", 200);
 				response.put("body", objectMapper.writeValueAsString(jsonResponse));
-				logger.log("Response JSON: " + jsonResponse);
 			} else {
-				logger.log("Authentication failed, no tokens returned.");
 				throw new Exception("Authentication failed, no tokens returned.");
 			}
 		} catch (Exception ex) {
-			logger.log("Exception encountered: " + ex.getMessage());
+			log.atWarn("Signin failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
 
-		logger.log("SignIn process completed.");
 		return response;
 	}
 
 
-	private Map<String, Object> handleGetTables(LambdaLogger logger) {
-		logger.log("getTables was called");
+	private Map<String, Object> handleGetTables(Map<String, Object> event) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 
 		try {
-			AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-					.withRegion(System.getenv("region"))
-					.build();
-			ScanRequest scanRequest = new ScanRequest().withTableName(System.getenv("tables_table"));
-			ScanResult scanResult = ddb.scan(scanRequest);
-			logger.log("ScanResult: " + scanResult.toString());
-
-			List<Map<String, Object>> tables = new ArrayList<>();
-			for (Map<String, AttributeValue> item : scanResult.getItems()) {
-				Map<String, Object> table = new LinkedHashMap<>();
-				table.put("id", Integer.parseInt(item.get("id").getS()));
-				table.put("number", Integer.parseInt(item.get("number").getN()));
-				table.put("places", Integer.parseInt(item.get("places").getN()));
-				table.put("isVip", Boolean.parseBoolean(item.get("isVip").getBOOL().toString()));
-				table.put("minOrder", item.containsKey("minOrder") ? Integer.parseInt(item.get("minOrder").getN()) : null);
-				tables.add(table);
-			}
-			logger.log("Tables List: " + tables.toString());
-
-			tables.sort(Comparator.comparing(o -> (Integer) o.get("id")));
-
-			Map<String, Object> jsonResponse = new HashMap<>();
-			jsonResponse.put("tables", tables);
-			logger.log("Response JSON: " + jsonResponse.toString());
+			String body = pagesToJson("tables", event, ApiHandler::writeTable, tableCatalog::page);
 
 			response.put("statusCode", 200);
-			response.put("body", objectMapper.writeValueAsString(jsonResponse));
+			response.put("body", body);
 		} catch (Exception e) {
-			logger.log("Exception: " + e.getMessage());
+			log.atWarn("Get tables failed").withError(e).log();
 			response.put("statusCode", 400);
 			response.put("body", e.getMessage());
 		}
@@ -310,44 +356,40 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	private Map<String, Object> handleGetTableById(String tableId, LambdaLogger logger) {
-		logger.log("getTableById was called");
+	private Map<String, Object> handleGetTableById(int tableId) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 
 		try {
-			AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-					.withRegion(System.getenv("region"))
-					.build();
-			ScanRequest scanRequest = new ScanRequest().withTableName(System.getenv("tables_table"));
-			ScanResult scanResult = ddb.scan(scanRequest);
-			logger.log("ScanResult: " + scanResult.toString());
-
-			Map<String, AttributeValue> table = null;
-
-			for (Map<String, AttributeValue> item : scanResult.getItems()) {
-				int existingId = Integer.parseInt(item.get("id").getS().trim().replaceAll("\"", ""));
-				int requiredId = Integer.parseInt(tableId.trim().replaceAll("\"", ""));
-				if (existingId == requiredId) {
-					table = item;
-					break;
+			String key = String.valueOf(tableId);
+			String body = tableCache.get(key);
+			if (body == null) {
+				DiningTable table = metrics.time("getTable", () -> enhancedDdb.table(System.getenv("tables_table"), DiningTable.SCHEMA)
+						.getItem(Key.builder().partitionValue(key).build()));
+
+				if (table != null) {
+					Map<String, Object> jsonResponse = new HashMap<>();
+					jsonResponse.put("id", Integer.parseInt(table.getId()));
+					jsonResponse.put("number", table.getNumber());
+					jsonResponse.put("places", table.getPlaces());
+					jsonResponse.put("isVip", table.getIsVip());
+					if (table.getMinOrder() != null) {
+						jsonResponse.put("minOrder", table.getMinOrder());
+					}
+					body = objectMapper.writeValueAsString(jsonResponse);
+					tableCache.put(key, body);
 				}
 			}
 
-			if (table != null) {
-				Map<String, Object> jsonResponse = ItemUtils.toSimpleMapValue(table);
-				jsonResponse.replace("id", Integer.parseInt((String) jsonResponse.get("id")));
-
-				logger.log("Found table: " + jsonResponse.toString());
+			if (body != null) {
 				response.put("statusCode", 200);
-				response.put("body", objectMapper.writeValueAsString(jsonResponse));
+				response.put("body", body);
 			} else {
-				logger.log("Table not found with ID: " + tableId);
+				log.atInfo("Table not found").with("tableId", tableId).log();
 				response.put("statusCode", 404);
 				response.put("body", "Table not found");
 			}
 		} catch (Exception e) {
-			logger.log("Exception encountered: " + e.getMessage());
+			log.atWarn("Get table failed").with("tableId", tableId).withError(e).log();
 			response.put("statusCode", 400);
 			response.put("body", e.getMessage());
 		}
@@ -355,47 +397,54 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	private Map<String, Object> handleCreateTable(Map<String, Object> event, LambdaLogger logger) {
-		logger.log("postTable was called");
+	private Map<String, Object> handleCreateTable(Map<String, Object> event, IdempotencyStore.Completion completion) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
-		AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-				.withRegion(System.getenv("region"))
-				.build();
 
 		try {
 			Map<String, Object> body = objectMapper.readValue((String) event.get("body"), Map.class);
-			logger.log("Request body: " + body.toString());
+			log.atDebug("Create table request").with("body", body).log();
 
 			String id = String.valueOf(body.get("id"));
 			int number = (Integer) body.get("number");
 			int places = (Integer) body.get("places");
 			boolean isVip = (Boolean) body.get("isVip");
-			int minOrder = -1;
-			if (body.containsKey("minOrder")) {
-				minOrder = (Integer) body.get("minOrder");
-			}
 
-			Item item = new Item()
-					.withString("id", id)
-					.withInt("number", number)
-					.withInt("places", places)
-					.withBoolean("isVip", isVip);
-			if (minOrder != -1) {
-				item.withInt("minOrder", minOrder);
+			DiningTable table = new DiningTable();
+			table.setId(id);
+			table.setNumber(number);
+			table.setPlaces(places);
+			table.setIsVip(isVip);
+			if (body.containsKey("minOrder")) {
+				table.setMinOrder((Integer) body.get("minOrder"));
 			}
-			logger.log("DynamoDB item: " + item.toString());
-
-			ddb.putItem(System.getenv("tables_table"), ItemUtils.toAttributeValues(item));
 
 			Map<String, Object> jsonResponse = new HashMap<>();
 			jsonResponse.put("id", Integer.parseInt(id));
-			logger.log("Response JSON: " + jsonResponse.toString());
-
-			response.put("statusCode", 200);
-			response.put("body", objectMapper.writeValueAsString(jsonResponse));
+			Map<String, Object> created = new HashMap<>();
+			created.put("statusCode", 200);
+			created.put("body", objectMapper.writeValueAsString(jsonResponse));
+
+			Map<String, AttributeValue> item = DiningTable.SCHEMA.itemToMap(table, true);
+			List<TransactWriteItem> record = completion.record(created);
+			try (Metrics.Timer timer = metrics.time("putTable")) {
+				if (record.isEmpty()) {
+					enhancedDdb.table(System.getenv("tables_table"), DiningTable.SCHEMA).putItem(table);
+				} else {
+					List<TransactWriteItem> items = new ArrayList<>(record.size() + 1);
+					items.add(TransactWriteItem.builder()
+							.put(put -> put.tableName(System.getenv("tables_table")).item(item))
+							.build());
+					items.addAll(record);
+					ddb.transactWriteItems(request -> request.transactItems(items));
+				}
+			}
+			completion.committed();
+			tableCache.invalidate(tableKey(id));
+			tableCatalog.put(item);
+			log.atInfo("Table created").with("tableId", id).log();
+			return created;
 		} catch (Exception ex) {
-			logger.log("Exception encountered: " + ex.getMessage());
+			log.atWarn("Create table failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
@@ -403,19 +452,14 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	private Map<String, Object> handleCreateReservation(Map<String, Object> event, LambdaLogger logger) {
-		logger.log("postReservation was called");
+	private Map<String, Object> handleCreateReservation(Map<String, Object> event, IdempotencyStore.Completion completion) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
-		AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-				.withRegion(System.getenv("region"))
-				.build();
 
 		try {
 			Map<String, Object> body = objectMapper.readValue((String) event.get("body"), Map.class);
-			logger.log("Request body: " + body.toString());
+			log.atDebug("Create reservation request").with("body", body).log();
 
-			String reservationId = UUID.randomUUID().toString();
+			String reservationId = idGenerator.next();
 			String tableNumber = String.valueOf(body.get("tableNumber"));
 			String clientName = String.valueOf(body.get("clientName"));
 			String phoneNumber = String.valueOf(body.get("phoneNumber"));
@@ -424,47 +468,55 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 			String slotTimeEnd = String.valueOf(body.get("slotTimeEnd"));
 
 			String reservationsTable = System.getenv("reservations_table");
-			logger.log("Environment variable 'reservations_table': " + reservationsTable);
 
 			if (reservationsTable == null || reservationsTable.isEmpty()) {
 				throw new IllegalArgumentException("Environment variable 'reservations_table' is not set or is empty.");
 			}
 
-			Item item = new Item()
-					.withString("id", reservationId)
-					.withString("tableNumber", tableNumber)
-					.withString("clientName", clientName)
-					.withString("phoneNumber", phoneNumber)
-					.withString("date", date)
-					.withString("slotTimeStart", slotTimeStart)
-					.withString("slotTimeEnd", slotTimeEnd);
-
-			logger.log("Reservation item: " + item.toString());
-
-			if (!doesTaleExist(ddb, System.getenv("tables_table"), tableNumber, logger)) {
+			Reservation reservation = new Reservation();
+			reservation.setId(reservationId);
+			reservation.setTableNumber(tableNumber);
+			reservation.setClientName(clientName);
+			reservation.setPhoneNumber(phoneNumber);
+			reservation.setDate(date);
+			reservation.setSlotTimeStart(slotTimeStart);
+			reservation.setSlotTimeEnd(slotTimeEnd);
+			reservation.setTableDate(ReservationRepository.tableDateKey(tableNumber, date));
+
+			if (!doesTaleExist(tableNumber)) {
 				response.put("statusCode", 400);
 				response.put("body", "Table does not exist");
-				logger.log("Table does not exist");
+				log.atInfo("Reservation rejected").with("reason", "unknown table").with("tableNumber", tableNumber).log();
 				return response;
 			}
 
-			if (isReservationOverlapping(ddb, reservationsTable, tableNumber, date, slotTimeStart, slotTimeEnd)) {
+			Map<String, Object> jsonResponse = new HashMap<>();
+			jsonResponse.put("reservationId", reservationId);
+			Map<String, Object> booked = new HashMap<>();
+			booked.put("statusCode", 200);
+			booked.put("body", objectMapper.writeValueAsString(jsonResponse));
+
+			BookingEngine.Outcome outcome = metrics.time("bookReservation",
+					() -> bookingEngine.book(Reservation.SCHEMA.itemToMap(reservation, true), completion.record(booked)));
+			if (outcome == BookingEngine.Outcome.OVERLAP) {
 				response.put("statusCode", 400);
 				response.put("body", "Reservation overlaps with an existing reservation");
-				logger.log("Reservation overlaps with an existing reservation");
+				log.atInfo("Reservation rejected").with("reason", "overlap").with("tableNumber", tableNumber).log();
+				return response;
+			}
+			if (outcome == BookingEngine.Outcome.CONTENDED) {
+				metrics.count("bookingContended", 1);
+				response.put("statusCode", 409);
+				response.put("body", "The slot is being booked by another request, retry later");
+				log.atWarn("Reservation rejected").with("reason", "contended").with("tableNumber", tableNumber).log();
 				return response;
 			}
 
-			ddb.putItem(reservationsTable, ItemUtils.toAttributeValues(item));
-
-			Map<String, Object> jsonResponse = new HashMap<>();
-			jsonResponse.put("reservationId", reservationId);
-			logger.log("Response JSON: " + jsonResponse);
-
-			response.put("statusCode", 200);
-			response.put("body", objectMapper.writeValueAsString(jsonResponse));
+			completion.committed();
+			log.atInfo("Reservation created").with("reservationId", reservationId).log();
+			return booked;
 		} catch (Exception ex) {
-			logger.log("Exception encountered: " + ex.getMessage());
+			log.atWarn("Create reservation failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
@@ -472,72 +524,24 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	public boolean doesTaleExist(AmazonDynamoDB ddb, String tableName, String tableNumber, LambdaLogger logger) {
-		ScanResult scanResult = ddb.scan(new ScanRequest().withTableName(tableName));
-
-		for (Map<String, AttributeValue> item : scanResult.getItems()) {
-			if (tableNumber.equals(item.get("number").getN())) {
-				logger.log("Table exists, number: " + tableNumber);
-				return true;
-			}
-		}
-		return false;
+	public boolean doesTaleExist(String tableNumber) {
+		return tableCatalog.contains(tableNumber);
 	}
 
-	public boolean isReservationOverlapping(AmazonDynamoDB ddb, String tableName, String tableNumber, String date, String slotTimeStart, String slotTimeEnd) {
-		ScanResult scanResult = ddb.scan(new ScanRequest().withTableName(tableName));
-		for (Map<String, AttributeValue> item : scanResult.getItems()) {
-			String existingTableNumber = item.get("tableNumber").getS();
-			String existingDate = item.get("date").getS();
-
-			if (tableNumber.equals(existingTableNumber) && date.equals(existingDate)) {
-				String existingSlotTimeStart = item.get("slotTimeStart").getS();
-				String existingSlotTimeEnd = item.get("slotTimeEnd").getS();
-
-				return timeOverlap(slotTimeStart, slotTimeEnd, existingSlotTimeStart, existingSlotTimeEnd);
-			}
-		}
-
-		return false;
+	private static String tableKey(String tableId) {
+		return String.valueOf(Integer.parseInt(tableId.trim().replaceAll("\"", "")));
 	}
 
-	private Map<String, Object> handleGetReservations(LambdaLogger logger) {
-		logger.log("getReservations was called");
+	private Map<String, Object> handleGetReservations(Map<String, Object> event) {
 		Map<String, Object> response = new HashMap<>();
-		ObjectMapper objectMapper = new ObjectMapper();
 
 		try {
-			AmazonDynamoDB ddb = AmazonDynamoDBClientBuilder.standard()
-					.withRegion(System.getenv("region"))
-					.build();
-
-			ScanRequest scanRequest = new ScanRequest().withTableName(System.getenv("reservations_table"));
-			ScanResult scanResult = ddb.scan(scanRequest);
-			logger.log("ScanResult: " + scanResult.toString());
-
-			List<Map<String, Object>> reservations = new ArrayList<>();
-			for (Map<String, AttributeValue> item : scanResult.getItems()) {
-				Map<String, Object> reservation = new LinkedHashMap<>();
-				reservation.put("tableNumber", Integer.parseInt(item.get("tableNumber").getS()));
-				reservation.put("clientName", item.get("clientName").getS());
-				reservation.put("phoneNumber", item.get("phoneNumber").getS());
-				reservation.put("date", item.get("date").getS());
-				reservation.put("slotTimeStart", item.get("slotTimeStart").getS());
-				reservation.put("slotTimeEnd", item.get("slotTimeEnd").getS());
-
-				reservations.add(reservation);
-			}
-
-			logger.log("Reservations: " + reservations.toString());
-
-			Map<String, Object> jsonResponse = new HashMap<>();
-			jsonResponse.put("reservations", reservations);
-			logger.log("Response JSON: " + jsonResponse.toString());
+			String body = pagesToJson("reservations", event, ApiHandler::writeReservation, reservationReader(queryParameters(event)));
 
 			response.put("statusCode", 200);
-			response.put("body", objectMapper.writeValueAsString(jsonResponse));
+			response.put("body", body);
 		} catch (Exception ex) {
-			logger.log("Exception encountered: " + ex.getMessage());
+			log.atWarn("Get reservations failed").withError(ex).log();
 			response.put("statusCode", 400);
 			response.put("body", ex.getMessage());
 		}
@@ -545,72 +549,157 @@ public class ApiHandler implements RequestHandler<Map<String, Object>, Map<Strin
 		return response;
 	}
 
-	private boolean timeOverlap(String slotTimeStart, String slotTimeEnd, String existingSlotTimeStart, String existingSlotTimeEnd) {
-
-		LocalTime start = LocalTime.parse(slotTimeStart);
-		LocalTime end = LocalTime.parse(slotTimeEnd);
-		LocalTime existingStart = LocalTime.parse(existingSlotTimeStart);
-		LocalTime existingEnd = LocalTime.parse(existingSlotTimeEnd);
+	/**
+	 * Picks the read for GET /reservations: {@code clientName}, {@code tableNumber} with {@code date},
+	 * {@code date} alone or {@code from} and {@code to} are served by {@link ReservationRepository} queries,
+	 * no filter scans the table.
+	 */
+	private PageReader reservationReader(Map<String, String> parameters) {
+		String clientName = parameters.get("clientName");
+		String tableNumber = parameters.get("tableNumber");
+		String date = parameters.get("date");
+		String from = parameters.get("from");
+		if (clientName != null) {
+			return (limit, startKey) -> metrics.time("queryByClient", () -> reservations.byClient(clientName, limit, startKey));
+		}
+		if (tableNumber != null) {
+			if (date == null) {
+				throw new IllegalArgumentException("tableNumber requires date");
+			}
+			String number = String.valueOf(Integer.parseInt(tableNumber));
+			String day = LocalDate.parse(date).toString();
+			return (limit, startKey) -> metrics.time("queryByTableDay", () -> reservations.byTableDay(number, day, limit, startKey));
+		}
+		if (date != null || from != null) {
+			LocalDate first = LocalDate.parse(date != null ? date : from);
+			String to = date != null ? date : parameters.get("to");
+			if (to == null) {
+				throw new IllegalArgumentException("from requires to");
+			}
+			LocalDate last = LocalDate.parse(to);
+			return (limit, startKey) -> metrics.time("queryByDate", () -> reservations.byDateRange(first, last, limit, startKey));
+		}
+		return scanReader(System.getenv("reservations_table"));
+	}
 
-		return (start.isBefore(existingEnd) && end.isAfter(existingStart));
+	private PageReader scanReader(String tableName) {
+		return (limit, startKey) -> {
+			ScanResponse scanResult = metrics.time("scan", () -> ddb.scan(ScanRequest.builder()
+					.tableName(tableName)
+					.limit(limit)
+					.exclusiveStartKey(startKey)
+					.build()));
+			return new ItemPage(scanResult.items(), scanResult.hasLastEvaluatedKey() ? scanResult.lastEvaluatedKey() : null);
+		};
 	}
 
-	public static boolean validPassword(String password) {
-		if (password == null) {
-			return false;
+	/**
+	 * Streams one page of rows into a {"<arrayField>": [...], "nextToken": "..."} document. The page holds up to the
+	 * limit query parameter (at most {@value #MAX_PAGE_SIZE}) or {@value #DEFAULT_PAGE_SIZE} rows, and nextToken is
+	 * set while more rows follow.
+	 */
+	private String pagesToJson(String arrayField, Map<String, Object> event, RowWriter rowWriter, PageReader pageReader)
+			throws IOException {
+		Map<String, String> queryParameters = queryParameters(event);
+		int limit = parseLimit(queryParameters.get("limit"));
+		String nextToken = queryParameters.get("nextToken");
+		Map<String, AttributeValue> startKey = nextToken == null || nextToken.isEmpty() ? null : PageToken.decode(objectMapper, nextToken);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+			generator.writeStartObject();
+			generator.writeArrayFieldStart(arrayField);
+
+			ItemPage page = pageReader.read(limit, startKey);
+			for (Map<String, AttributeValue> item : page.getItems()) {
+				rowWriter.write(generator, item);
+			}
+
+			generator.writeEndArray();
+			if (page.hasMore()) {
+				generator.writeStringField("nextToken", PageToken.encode(objectMapper, page.getLastEvaluatedKey()));
+			}
+			generator.writeEndObject();
 		}
 
-		return password.length() >= 8 &&
-				password.length() <= 20 &&
-				password.matches(".*[A-Z].*") &&
-				password.matches(".*[a-z].*") &&
-				password.matches(".*\\d.*") &&
-				password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>/?].*");
+		return out.toString(StandardCharsets.UTF_8.name());
 	}
 
-	public static boolean validEmail(String email) {
-		final String EMAIL_PATTERN = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$";
-		final Pattern pattern = Pattern.compile(EMAIL_PATTERN);
-		if (email == null) {
-			return false;
+	private static void writeTable(JsonGenerator generator, Map<String, AttributeValue> item) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("id", Integer.parseInt(item.get("id").s()));
+		generator.writeNumberField("number", Integer.parseInt(item.get("number").n()));
+		generator.writeNumberField("places", Integer.parseInt(item.get("places").n()));
+		generator.writeBooleanField("isVip", item.get("isVip").bool());
+		if (item.containsKey("minOrder")) {
+			generator.writeNumberField("minOrder", Integer.parseInt(item.get("minOrder").n()));
+		} else {
+			generator.writeNullField("minOrder");
 		}
-
-		Matcher matcher = pattern.matcher(email);
-		return matcher.matches();
+		generator.writeEndObject();
 	}
 
-	public Optional<String> getUserPoolIdByName(String userPoolName) {
-		String nextToken = null;
-
-		do {
-			ListUserPoolsRequest listUserPoolsRequest = new ListUserPoolsRequest()
-					.withMaxResults(60)
-					.withNextToken(nextToken);
-
-			ListUserPoolsResult listUserPoolsResult = cognitoClient.listUserPools(listUserPoolsRequest);
+	private static void writeReservation(JsonGenerator generator, Map<String, AttributeValue> item) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("tableNumber", Integer.parseInt(item.get("tableNumber").s()));
+		generator.writeStringField("clientName", item.get("clientName").s());
+		generator.writeStringField("phoneNumber", item.get("phoneNumber").s());
+		generator.writeStringField("date", item.get("date").s());
+		generator.writeStringField("slotTimeStart", item.get("slotTimeStart").s());
+		generator.writeStringField("slotTimeEnd", item.get("slotTimeEnd").s());
+		generator.writeEndObject();
+	}
 
-			for (UserPoolDescriptionType pool : listUserPoolsResult.getUserPools()) {
-				if (pool.getName().equals(userPoolName)) {
-					return Optional.of(pool.getId());
+	@SuppressWarnings("unchecked")
+	private static String header(Map<String, Object> event, String name) {
+		Object headers = event.get("headers");
+		if (headers instanceof Map) {
+			for (Map.Entry<String, Object> header : ((Map<String, Object>) headers).entrySet()) {
+				if (name.equalsIgnoreCase(header.getKey())) {
+					return String.valueOf(header.getValue());
 				}
 			}
+		}
+		return null;
+	}
 
-			nextToken = listUserPoolsResult.getNextToken();
-		} while (nextToken != null);
-
-		return Optional.empty();
+	/**
+	 * @return the {@code sub} claim that the Cognito authorizer put into the request context, or null
+	 */
+	private static String principal(Map<String, Object> event) {
+		Object claims = child(child(event.get("requestContext"), "authorizer"), "claims");
+		Object sub = child(claims, "sub");
+		return sub == null ? null : String.valueOf(sub);
 	}
 
-	public Optional<String> getClientIdByUserPoolName(String userPoolName) {
-		String userPoolId = getUserPoolIdByName(userPoolName).get();
+	private static Object child(Object parent, String name) {
+		return parent instanceof Map ? ((Map<?, ?>) parent).get(name) : null;
+	}
 
-		ListUserPoolClientsRequest listUserPoolClientsRequest = new ListUserPoolClientsRequest().withUserPoolId(userPoolId);
-		ListUserPoolClientsResult listUserPoolClientsResult = cognitoClient.listUserPoolClients(listUserPoolClientsRequest);
+	@SuppressWarnings("unchecked")
+	private static Map<String, String> queryParameters(Map<String, Object> event) {
+		Object parameters = event.get("queryStringParameters");
+		return parameters instanceof Map ? (Map<String, String>) parameters : Collections.emptyMap();
+	}
 
-		for (UserPoolClientDescription client : listUserPoolClientsResult.getUserPoolClients()) {
-			return Optional.of(client.getClientId());
+	private static int parseLimit(String limit) {
+		if (limit == null || limit.isEmpty()) {
+			return DEFAULT_PAGE_SIZE;
+		}
+		int value = Integer.parseInt(limit);
+		if (value < 1 || value > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
 		}
+		return value;
+	}
+
+	@FunctionalInterface
+	private interface PageReader {
+		ItemPage read(int limit, Map<String, AttributeValue> startKey);
+	}
 
-		return Optional.empty();
+	@FunctionalInterface
+	private interface RowWriter {
+		void write(JsonGenerator generator, Map<String, AttributeValue> item) throws IOException;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+package com.task11;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Books a reservation in one {@code TransactWriteItems} round trip, so two concurrent bookings of the same slot
+ * cannot both succeed. The transaction puts the reservation and updates one claim per {@value #BUCKET_MINUTES}-minute
+ * bucket it covers in the slots table ({@code tableDate} + {@code bucket}, e.g. {@code 18:45}).
+ * <p>
+ * A claim holds up to two occupied parts of its bucket, in minutes of the day: one from the bucket start to
+ * {@code leftUntil}, held by {@code leftId}, and one from {@code rightFrom} to the bucket end, held by
+ * {@code rightId}. A reservation covering the whole bucket sets both. Each update is conditioned on its side being
+ * free and on the other side ending at or before, or starting at or after, its own part, so 18:05-19:05 and
+ * 19:05-20:00 share the 19:00 bucket. A reservation that starts and ends inside one bucket is recorded up to the
+ * bucket end, which can turn away a later booking in the rest of that bucket. Holding the same reservation id
+ * passes every condition, so a retried booking succeeds.
+ * <p>
+ * A cancellation caused by a failed condition is an overlap; one caused by another transaction on the same items
+ * or by throttling is retried with full-jitter backoff, up to {@value #MAX_ATTEMPTS} attempts.
+ * <p>
+ * Callers can add their own items to the transaction, e.g. the idempotency record of the request. A failed
+ * condition on one of those is not an overlap: the cancellation is rethrown.
+ */
+public final class BookingEngine {
+
+	public enum Outcome {
+		BOOKED,
+		OVERLAP,
+		CONTENDED
+	}
+
+	public static final int BUCKET_MINUTES = 15;
+
+	private static final int MAX_ATTEMPTS = 5;
+	private static final long BASE_BACKOFF_MILLIS = 20;
+	private static final long MAX_BACKOFF_MILLIS = 500;
+	private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+	private static final String TRANSACTION_CONFLICT = "TransactionConflict";
+	private static final String THROTTLING_ERROR = "ThrottlingError";
+	private static final String THROUGHPUT_EXCEEDED = "ProvisionedThroughputExceeded";
+
+	private final DynamoDbClient dynamoDb;
+	private final String reservationsTable;
+	private final String slotsTable;
+
+	public BookingEngine(DynamoDbClient dynamoDb, String reservationsTable, String slotsTable) {
+		this.dynamoDb = dynamoDb;
+		this.reservationsTable = reservationsTable;
+		this.slotsTable = slotsTable;
+	}
+
+	public static BookingEngine fromEnvironment(DynamoDbClient dynamoDb) {
+		return new BookingEngine(dynamoDb, System.getenv("reservations_table"), System.getenv("slots_table"));
+	}
+
+	/**
+	 * @param reservation item of the reservations table, with {@code id}, {@code tableDate}, {@code slotTimeStart}
+	 *                    and {@code slotTimeEnd}
+	 */
+	public Outcome book(Map<String, AttributeValue> reservation) {
+		return book(reservation, Collections.emptyList());
+	}
+
+	/**
+	 * @param alongside items written in the same transaction as the reservation and its claims
+	 */
+	public Outcome book(Map<String, AttributeValue> reservation, List<TransactWriteItem> alongside) {
+		List<TransactWriteItem> items = transactItems(reservation);
+		int bookingItems = items.size();
+		items.addAll(alongside);
+		TransactWriteItemsRequest request = TransactWriteItemsRequest.builder()
+				.transactItems(items)
+				.build();
+
+		for (int attempt = 1; ; attempt++) {
+			try {
+				dynamoDb.transactWriteItems(request);
+				return Outcome.BOOKED;
+			} catch (TransactionCanceledException e) {
+				if (hasReason(e, CONDITIONAL_CHECK_FAILED, bookingItems)) {
+					throw e;
+				}
+				if (hasReason(e, CONDITIONAL_CHECK_FAILED)) {
+					return Outcome.OVERLAP;
+				}
+				if (!hasReason(e, TRANSACTION_CONFLICT) && !hasReason(e, THROTTLING_ERROR) && !hasReason(e, THROUGHPUT_EXCEEDED)) {
+					throw e;
+				}
+				if (attempt == MAX_ATTEMPTS) {
+					return Outcome.CONTENDED;
+				}
+			}
+			try {
+				Thread.sleep(backoffMillis(attempt));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return Outcome.CONTENDED;
+			}
+		}
+	}
+
+	/**
+	 * @return the parts of the reservation in each bucket from {@code slotTimeStart} rounded down to
+	 * {@code slotTimeEnd} rounded up, at minute precision
+	 */
+	public static List<Claim> claims(String slotTimeStart, String slotTimeEnd) {
+		int start = LocalTime.parse(slotTimeStart).toSecondOfDay() / 60;
+		int end = LocalTime.parse(slotTimeEnd).toSecondOfDay() / 60;
+		if (end <= start) {
+			throw new IllegalArgumentException("slotTimeEnd must be after slotTimeStart");
+		}
+		List<Claim> claims = new ArrayList<>();
+		for (int bucket = start - start % BUCKET_MINUTES; bucket < end; bucket += BUCKET_MINUTES) {
+			claims.add(new Claim(bucket, Math.max(start, bucket), Math.min(end, bucket + BUCKET_MINUTES)));
+		}
+		return claims;
+	}
+
+	private List<TransactWriteItem> transactItems(Map<String, AttributeValue> reservation) {
+		AttributeValue id = reservation.get("id");
+		AttributeValue tableDate = reservation.get("tableDate");
+		List<Claim> claims = claims(reservation.get("slotTimeStart").s(), reservation.get("slotTimeEnd").s());
+
+		List<TransactWriteItem> items = new ArrayList<>(claims.size() + 1);
+		items.add(TransactWriteItem.builder()
+				.put(Put.builder()
+						.tableName(reservationsTable)
+						.item(reservation)
+						.conditionExpression("attribute_not_exists(tableDate) OR id = :id")
+						.expressionAttributeValues(Collections.singletonMap(":id", id))
+						.build())
+				.build());
+		for (Claim claim : claims) {
+			items.add(update(tableDate, claim, id));
+		}
+		return items;
+	}
+
+	private TransactWriteItem update(AttributeValue tableDate, Claim claim, AttributeValue id) {
+		Map<String, AttributeValue> key = new HashMap<>();
+		key.put("tableDate", tableDate);
+		key.put("bucket", AttributeValue.fromS(claim.getBucket()));
+		Map<String, AttributeValue> values = new HashMap<>();
+		values.put(":id", id);
+		values.put(":from", AttributeValue.fromN(Integer.toString(claim.from)));
+		values.put(":until", AttributeValue.fromN(Integer.toString(claim.until)));
+
+		String update;
+		String condition;
+		if (claim.isLeft() && claim.isRight()) {
+			update = "SET leftUntil = :until, leftId = :id, rightFrom = :from, rightId = :id";
+			condition = "(attribute_not_exists(leftId) OR leftId = :id) AND (attribute_not_exists(rightId) OR rightId = :id)";
+		} else if (claim.isLeft()) {
+			update = "SET leftUntil = :until, leftId = :id";
+			condition = "(attribute_not_exists(leftId) OR leftId = :id)"
+					+ " AND (attribute_not_exists(rightFrom) OR rightFrom >= :until OR rightId = :id)";
+		} else {
+			update = "SET rightFrom = :from, rightId = :id";
+			condition = "(attribute_not_exists(rightId) OR rightId = :id)"
+					+ " AND (attribute_not_exists(leftUntil) OR leftUntil <= :from OR leftId = :id)";
+		}
+		return TransactWriteItem.builder()
+				.update(Update.builder()
+						.tableName(slotsTable)
+						.key(key)
+						.updateExpression(update)
+						.conditionExpression(condition)
+						.expressionAttributeValues(values)
+						.build())
+				.build();
+	}
+
+	private static boolean hasReason(TransactionCanceledException e, String code) {
+		return hasReason(e, code, 0);
+	}
+
+	/**
+	 * @return whether one of the items from index {@code from} on failed with {@code code}
+	 */
+	private static boolean hasReason(TransactionCanceledException e, String code, int from) {
+		if (!e.hasCancellationReasons()) {
+			return false;
+		}
+		List<CancellationReason> reasons = e.cancellationReasons();
+		for (int i = from; i < reasons.size(); i++) {
+			if (code.equals(reasons.get(i).code())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long backoffMillis(int attempt) {
+		long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+		return ThreadLocalRandom.current().nextLong(ceiling + 1);
+	}
+
+	/**
+	 * The part of a reservation inside one bucket, from {@code from} to {@code until} in minutes of the day.
+	 */
+	public static final class Claim {
+		private final int bucket;
+		private final int from;
+		private final int until;
+
+		private Claim(int bucket, int from, int until) {
+			this.bucket = bucket;
+			this.from = from;
+			this.until = until;
+		}
+
+		/**
+		 * @return the bucket start, the sort key of the claim
+		 */
+		public String getBucket() {
+			return LocalTime.of(bucket / 60, bucket % 60).toString();
+		}
+
+		/**
+		 * @return whether this part starts at the bucket start and is stored as {@code leftUntil}
+		 */
+		public boolean isLeft() {
+			return from == bucket;
+		}
+
+		/**
+		 * @return whether this part is stored as {@code rightFrom}: it ends at the bucket end, or it lies inside
+		 * the bucket and is recorded up to the bucket end
+		 */
+		public boolean isRight() {
+			return !isLeft() || until == bucket + BUCKET_MINUTES;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.task11;
+
+import com.common.AwsClients;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+/**
+ * Container-wide clients. Each one is built lazily on first use and then shared by every invocation;
+ * {@link AwsClients} holds the builder settings they share with the other tasks.
+ */
+public final class ClientRegistry {
+
+	private ClientRegistry() {
+	}
+
+	public static DynamoDbClient dynamoDb() {
+		return DynamoDbHolder.CLIENT;
+	}
+
+	public static DynamoDbEnhancedClient enhancedDynamoDb() {
+		return EnhancedHolder.CLIENT;
+	}
+
+	public static CognitoIdentityProviderClient cognito() {
+		return CognitoHolder.CLIENT;
+	}
+
+	public static ObjectMapper objectMapper() {
+		return ObjectMapperHolder.MAPPER;
+	}
+
+	private static final class DynamoDbHolder {
+		private static final DynamoDbClient CLIENT = AwsClients.configure(DynamoDbClient.builder()).build();
+	}
+
+	private static final class EnhancedHolder {
+		private static final DynamoDbEnhancedClient CLIENT = DynamoDbEnhancedClient.builder()
+				.dynamoDbClient(dynamoDb())
+				.build();
+	}
+
+	private static final class CognitoHolder {
+		private static final CognitoIdentityProviderClient CLIENT = AwsClients.configure(CognitoIdentityProviderClient.builder()).build();
+	}
+
+	private static final class ObjectMapperHolder {
+		private static final ObjectMapper MAPPER = new ObjectMapper();
+	}
+}
@@ -0,0 +1,169 @@
+package com.task11;
+
+import com.common.TtlCache;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUserPoolClientsResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUserPoolsResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserPoolDescriptionType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves a user pool name to its pool and app-client IDs.
+ * Results are cached per container, concurrent misses for the same name share one lookup,
+ * and IDs supplied through the environment are used without calling Cognito at all.
+ */
+public class CognitoIdResolver {
+
+	private static final int MAX_POOLS = 16;
+	private static final long DEFAULT_TTL_SECONDS = 3600;
+
+	private final CognitoIdentityProviderClient cognitoClient;
+	private final TtlCache<String, PoolIds> cache;
+	private final Map<String, PoolIds> preloaded = new ConcurrentHashMap<>();
+	private final Map<String, CompletableFuture<PoolIds>> inFlight = new ConcurrentHashMap<>();
+	private final AtomicLong cacheHits = new AtomicLong();
+	private final AtomicLong controlPlaneCalls = new AtomicLong();
+
+	public CognitoIdResolver(CognitoIdentityProviderClient cognitoClient, Duration ttl) {
+		this.cognitoClient = cognitoClient;
+		this.cache = new TtlCache<>(MAX_POOLS, ttl);
+	}
+
+	public static CognitoIdResolver fromEnvironment(CognitoIdentityProviderClient cognitoClient) {
+		String ttlSeconds = System.getenv("cognito_ids_ttl_seconds");
+		CognitoIdResolver resolver = new CognitoIdResolver(cognitoClient,
+				Duration.ofSeconds(ttlSeconds == null ? DEFAULT_TTL_SECONDS : Long.parseLong(ttlSeconds)));
+
+		String userPoolName = System.getenv("booking_userpool");
+		String userPoolId = System.getenv("booking_userpool_id");
+		String clientId = System.getenv("booking_client_id");
+		if (userPoolName != null && userPoolId != null && clientId != null) {
+			resolver.preload(userPoolName, new PoolIds(userPoolId, clientId));
+		}
+		return resolver;
+	}
+
+	public void preload(String userPoolName, PoolIds ids) {
+		preloaded.put(userPoolName, ids);
+	}
+
+	public PoolIds resolve(String userPoolName) {
+		PoolIds ids = cachedIds(userPoolName);
+		if (ids != null) {
+			return ids;
+		}
+
+		CompletableFuture<PoolIds> lookup = new CompletableFuture<>();
+		CompletableFuture<PoolIds> running = inFlight.putIfAbsent(userPoolName, lookup);
+		if (running != null) {
+			return await(running);
+		}
+
+		try {
+			ids = cachedIds(userPoolName);
+			if (ids == null) {
+				ids = lookup(userPoolName);
+				cache.put(userPoolName, ids);
+			}
+			lookup.complete(ids);
+			return ids;
+		} catch (RuntimeException e) {
+			lookup.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(userPoolName, lookup);
+		}
+	}
+
+	public void invalidate(String userPoolName) {
+		cache.invalidate(userPoolName);
+	}
+
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	public long getControlPlaneCalls() {
+		return controlPlaneCalls.get();
+	}
+
+	private PoolIds cachedIds(String userPoolName) {
+		PoolIds ids = preloaded.get(userPoolName);
+		if (ids == null) {
+			ids = cache.get(userPoolName);
+		}
+		if (ids != null) {
+			cacheHits.incrementAndGet();
+		}
+		return ids;
+	}
+
+	private PoolIds lookup(String userPoolName) {
+		String userPoolId = findUserPoolId(userPoolName);
+
+		controlPlaneCalls.incrementAndGet();
+		ListUserPoolClientsResponse clients = cognitoClient.listUserPoolClients(request -> request
+				.userPoolId(userPoolId)
+				.maxResults(1));
+		if (clients.userPoolClients().isEmpty()) {
+			throw new IllegalArgumentException("No such client ID");
+		}
+
+		return new PoolIds(userPoolId, clients.userPoolClients().get(0).clientId());
+	}
+
+	private String findUserPoolId(String userPoolName) {
+		String nextToken = null;
+		do {
+			controlPlaneCalls.incrementAndGet();
+			String pageToken = nextToken;
+			ListUserPoolsResponse result = cognitoClient.listUserPools(request -> request
+					.maxResults(60)
+					.nextToken(pageToken));
+
+			for (UserPoolDescriptionType pool : result.userPools()) {
+				if (pool.name().equals(userPoolName)) {
+					return pool.id();
+				}
+			}
+			nextToken = result.nextToken();
+		} while (nextToken != null);
+
+		throw new IllegalArgumentException("No such user pool");
+	}
+
+	private static PoolIds await(CompletableFuture<PoolIds> lookup) {
+		try {
+			return lookup.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	public static final class PoolIds {
+		private final String userPoolId;
+		private final String clientId;
+
+		public PoolIds(String userPoolId, String clientId) {
+			this.userPoolId = userPoolId;
+			this.clientId = clientId;
+		}
+
+		public String getUserPoolId() {
+			return userPoolId;
+		}
+
+		public String getClientId() {
+			return clientId;
+		}
+	}
+}
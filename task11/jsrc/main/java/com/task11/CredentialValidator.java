@@ -0,0 +1,117 @@
+package com.task11;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks signup/signin credentials before they are sent to Cognito.
+ * Password rules come from the user pool's password_policy in deployment_resources.json
+ * (packaged on the classpath), so the pre-check cannot drift from what Cognito enforces.
+ * The password is checked in a single pass over its characters; the email pattern is compiled once
+ * and its matcher is reused per thread.
+ */
+public final class CredentialValidator {
+
+	static final String POLICY_RESOURCE = "/deployment_resources.json";
+	static final int MAX_PASSWORD_LENGTH = 20;
+	static final String SYMBOLS = "!@#$%^&*()_+-=[]{};':\"\\|,.<>/?";
+
+	private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$");
+	private static final ThreadLocal<Matcher> EMAIL_MATCHER = ThreadLocal.withInitial(() -> EMAIL_PATTERN.matcher(""));
+
+	private static final int UPPERCASE = 1;
+	private static final int LOWERCASE = 1 << 1;
+	private static final int NUMBER = 1 << 2;
+	private static final int SYMBOL = 1 << 3;
+	private static final byte[] CHARACTER_CLASSES = new byte[128];
+
+	static {
+		for (char c = 'A'; c <= 'Z'; c++) {
+			CHARACTER_CLASSES[c] = UPPERCASE;
+		}
+		for (char c = 'a'; c <= 'z'; c++) {
+			CHARACTER_CLASSES[c] = LOWERCASE;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			CHARACTER_CLASSES[c] = NUMBER;
+		}
+		for (int i = 0; i < SYMBOLS.length(); i++) {
+			CHARACTER_CLASSES[SYMBOLS.charAt(i)] = SYMBOL;
+		}
+	}
+
+	private final int minLength;
+	private final int maxLength;
+	private final int requiredClasses;
+
+	public CredentialValidator(int minLength, int maxLength, boolean requireUppercase, boolean requireLowercase,
+	                           boolean requireNumbers, boolean requireSymbols) {
+		this.minLength = minLength;
+		this.maxLength = maxLength;
+		this.requiredClasses = (requireUppercase ? UPPERCASE : 0)
+				| (requireLowercase ? LOWERCASE : 0)
+				| (requireNumbers ? NUMBER : 0)
+				| (requireSymbols ? SYMBOL : 0);
+	}
+
+	public static CredentialValidator fromDeploymentResources(ObjectMapper objectMapper) {
+		try (InputStream in = CredentialValidator.class.getResourceAsStream(POLICY_RESOURCE)) {
+			if (in == null) {
+				throw new IllegalStateException(POLICY_RESOURCE + " is not on the classpath");
+			}
+			return fromPolicy(findPasswordPolicy(objectMapper.readTree(in)));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot read " + POLICY_RESOURCE, e);
+		}
+	}
+
+	static CredentialValidator fromPolicy(JsonNode policy) {
+		return new CredentialValidator(
+				policy.path("minimum_length").asInt(8),
+				MAX_PASSWORD_LENGTH,
+				policy.path("require_uppercase").asBoolean(false),
+				policy.path("require_lowercase").asBoolean(false),
+				policy.path("require_numbers").asBoolean(false),
+				policy.path("require_symbols").asBoolean(false));
+	}
+
+	private static JsonNode findPasswordPolicy(JsonNode resources) {
+		for (Iterator<JsonNode> it = resources.elements(); it.hasNext(); ) {
+			JsonNode resource = it.next();
+			if ("cognito_idp".equals(resource.path("resource_type").asText()) && resource.has("password_policy")) {
+				return resource.get("password_policy");
+			}
+		}
+		throw new IllegalStateException("No cognito_idp password_policy in " + POLICY_RESOURCE);
+	}
+
+	public boolean validPassword(String password) {
+		if (password == null) {
+			return false;
+		}
+		int length = password.length();
+		if (length < minLength || length > maxLength) {
+			return false;
+		}
+
+		int seen = 0;
+		for (int i = 0; i < length; i++) {
+			char c = password.charAt(i);
+			if (c < CHARACTER_CLASSES.length) {
+				seen |= CHARACTER_CLASSES[c];
+			}
+		}
+		return (seen & requiredClasses) == requiredClasses;
+	}
+
+	public boolean validEmail(String email) {
+		return email != null && EMAIL_MATCHER.get().reset(email).matches();
+	}
+}
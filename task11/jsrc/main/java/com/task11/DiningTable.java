@@ -0,0 +1,77 @@
+package com.task11;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+/**
+ * Row of the tables table. {@code minOrder} is optional and left out of the item when null.
+ */
+public class DiningTable {
+
+	public static final TableSchema<DiningTable> SCHEMA = StaticTableSchema.builder(DiningTable.class)
+			.newItemSupplier(DiningTable::new)
+			.addAttribute(String.class, a -> a.name("id")
+					.getter(DiningTable::getId)
+					.setter(DiningTable::setId)
+					.tags(StaticAttributeTags.primaryPartitionKey()))
+			.addAttribute(Integer.class, a -> a.name("number")
+					.getter(DiningTable::getNumber)
+					.setter(DiningTable::setNumber))
+			.addAttribute(Integer.class, a -> a.name("places")
+					.getter(DiningTable::getPlaces)
+					.setter(DiningTable::setPlaces))
+			.addAttribute(Boolean.class, a -> a.name("isVip")
+					.getter(DiningTable::getIsVip)
+					.setter(DiningTable::setIsVip))
+			.addAttribute(Integer.class, a -> a.name("minOrder")
+					.getter(DiningTable::getMinOrder)
+					.setter(DiningTable::setMinOrder))
+			.build();
+
+	private String id;
+	private Integer number;
+	private Integer places;
+	private Boolean isVip;
+	private Integer minOrder;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Integer getNumber() {
+		return number;
+	}
+
+	public void setNumber(Integer number) {
+		this.number = number;
+	}
+
+	public Integer getPlaces() {
+		return places;
+	}
+
+	public void setPlaces(Integer places) {
+		this.places = places;
+	}
+
+	public Boolean getIsVip() {
+		return isVip;
+	}
+
+	public void setIsVip(Boolean isVip) {
+		this.isVip = isVip;
+	}
+
+	public Integer getMinOrder() {
+		return minOrder;
+	}
+
+	public void setMinOrder(Integer minOrder) {
+		this.minOrder = minOrder;
+	}
+}
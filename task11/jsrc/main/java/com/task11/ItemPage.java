@@ -0,0 +1,32 @@
+package com.task11;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a scan or query: its items and the key to continue from, null on the last page.
+ */
+public final class ItemPage {
+
+	private final List<Map<String, AttributeValue>> items;
+	private final Map<String, AttributeValue> lastEvaluatedKey;
+
+	public ItemPage(List<Map<String, AttributeValue>> items, Map<String, AttributeValue> lastEvaluatedKey) {
+		this.items = items;
+		this.lastEvaluatedKey = lastEvaluatedKey == null || lastEvaluatedKey.isEmpty() ? null : lastEvaluatedKey;
+	}
+
+	public List<Map<String, AttributeValue>> getItems() {
+		return items;
+	}
+
+	public Map<String, AttributeValue> getLastEvaluatedKey() {
+		return lastEvaluatedKey;
+	}
+
+	public boolean hasMore() {
+		return lastEvaluatedKey != null;
+	}
+}
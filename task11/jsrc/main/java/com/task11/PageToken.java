@@ -0,0 +1,82 @@
+package com.task11;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opaque continuation token wrapping a DynamoDB LastEvaluatedKey.
+ * The key is written as {"attribute": ["S"|"N", "value"], ...} and base64url encoded.
+ */
+public final class PageToken {
+
+	private PageToken() {
+	}
+
+	public static String encode(ObjectMapper objectMapper, Map<String, AttributeValue> lastEvaluatedKey) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+			generator.writeStartObject();
+			for (Map.Entry<String, AttributeValue> attribute : lastEvaluatedKey.entrySet()) {
+				AttributeValue value = attribute.getValue();
+				generator.writeArrayFieldStart(attribute.getKey());
+				if (value.s() != null) {
+					generator.writeString("S");
+					generator.writeString(value.s());
+				} else if (value.n() != null) {
+					generator.writeString("N");
+					generator.writeString(value.n());
+				} else {
+					throw new IllegalArgumentException("Unsupported key attribute type: " + attribute.getKey());
+				}
+				generator.writeEndArray();
+			}
+			generator.writeEndObject();
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+	}
+
+	public static Map<String, AttributeValue> decode(ObjectMapper objectMapper, String token) {
+		Map<String, AttributeValue> key = new HashMap<>();
+		try (JsonParser parser = objectMapper.getFactory().createParser(Base64.getUrlDecoder().decode(token))) {
+			expect(parser.nextToken(), JsonToken.START_OBJECT);
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				expect(parser.nextToken(), JsonToken.START_ARRAY);
+				expect(parser.nextToken(), JsonToken.VALUE_STRING);
+				String type = parser.getText();
+				expect(parser.nextToken(), JsonToken.VALUE_STRING);
+				String value = parser.getText();
+				expect(parser.nextToken(), JsonToken.END_ARRAY);
+
+				if ("S".equals(type)) {
+					key.put(name, AttributeValue.fromS(value));
+				} else if ("N".equals(type)) {
+					key.put(name, AttributeValue.fromN(value));
+				} else {
+					throw new IllegalArgumentException("Invalid continuation token");
+				}
+			}
+			if (key.isEmpty()) {
+				throw new IllegalArgumentException("Invalid continuation token");
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid continuation token", e);
+		}
+		return key;
+	}
+
+	private static void expect(JsonToken actual, JsonToken expected) {
+		if (actual != expected) {
+			throw new IllegalArgumentException("Invalid continuation token");
+		}
+	}
+}
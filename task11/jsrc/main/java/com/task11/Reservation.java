@@ -0,0 +1,120 @@
+package com.task11;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+/**
+ * Row of the reservations table, keyed by {@code tableDate} ({@code <tableNumber>#<date>}) and
+ * {@code slotTimeStart}; {@code date-index} and {@code client-index} serve reads across tables,
+ * see {@link ReservationRepository}.
+ */
+public class Reservation {
+
+	public static final TableSchema<Reservation> SCHEMA = StaticTableSchema.builder(Reservation.class)
+			.newItemSupplier(Reservation::new)
+			.addAttribute(String.class, a -> a.name("id")
+					.getter(Reservation::getId)
+					.setter(Reservation::setId))
+			.addAttribute(String.class, a -> a.name("tableNumber")
+					.getter(Reservation::getTableNumber)
+					.setter(Reservation::setTableNumber))
+			.addAttribute(String.class, a -> a.name("clientName")
+					.getter(Reservation::getClientName)
+					.setter(Reservation::setClientName)
+					.tags(StaticAttributeTags.secondaryPartitionKey(ReservationRepository.CLIENT_INDEX)))
+			.addAttribute(String.class, a -> a.name("phoneNumber")
+					.getter(Reservation::getPhoneNumber)
+					.setter(Reservation::setPhoneNumber))
+			.addAttribute(String.class, a -> a.name("date")
+					.getter(Reservation::getDate)
+					.setter(Reservation::setDate)
+					.tags(StaticAttributeTags.secondaryPartitionKey(ReservationRepository.DATE_INDEX),
+							StaticAttributeTags.secondarySortKey(ReservationRepository.CLIENT_INDEX)))
+			.addAttribute(String.class, a -> a.name("slotTimeStart")
+					.getter(Reservation::getSlotTimeStart)
+					.setter(Reservation::setSlotTimeStart)
+					.tags(StaticAttributeTags.primarySortKey(),
+							StaticAttributeTags.secondarySortKey(ReservationRepository.DATE_INDEX)))
+			.addAttribute(String.class, a -> a.name("slotTimeEnd")
+					.getter(Reservation::getSlotTimeEnd)
+					.setter(Reservation::setSlotTimeEnd))
+			.addAttribute(String.class, a -> a.name("tableDate")
+					.getter(Reservation::getTableDate)
+					.setter(Reservation::setTableDate)
+					.tags(StaticAttributeTags.primaryPartitionKey()))
+			.build();
+
+	private String id;
+	private String tableNumber;
+	private String clientName;
+	private String phoneNumber;
+	private String date;
+	private String slotTimeStart;
+	private String slotTimeEnd;
+	private String tableDate;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getTableNumber() {
+		return tableNumber;
+	}
+
+	public void setTableNumber(String tableNumber) {
+		this.tableNumber = tableNumber;
+	}
+
+	public String getClientName() {
+		return clientName;
+	}
+
+	public void setClientName(String clientName) {
+		this.clientName = clientName;
+	}
+
+	public String getPhoneNumber() {
+		return phoneNumber;
+	}
+
+	public void setPhoneNumber(String phoneNumber) {
+		this.phoneNumber = phoneNumber;
+	}
+
+	public String getDate() {
+		return date;
+	}
+
+	public void setDate(String date) {
+		this.date = date;
+	}
+
+	public String getSlotTimeStart() {
+		return slotTimeStart;
+	}
+
+	public void setSlotTimeStart(String slotTimeStart) {
+		this.slotTimeStart = slotTimeStart;
+	}
+
+	public String getSlotTimeEnd() {
+		return slotTimeEnd;
+	}
+
+	public void setSlotTimeEnd(String slotTimeEnd) {
+		this.slotTimeEnd = slotTimeEnd;
+	}
+
+	public String getTableDate() {
+		return tableDate;
+	}
+
+	public void setTableDate(String tableDate) {
+		this.tableDate = tableDate;
+	}
+}
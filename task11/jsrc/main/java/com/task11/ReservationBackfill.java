@@ -0,0 +1,231 @@
+package com.task11;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.common.Metrics;
+import com.common.StructuredLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
+import com.syndicate.deployment.annotations.lambda.LambdaHandler;
+import com.syndicate.deployment.annotations.resources.DependsOn;
+import com.syndicate.deployment.model.ResourceType;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * One-off copy of reservations from the table keyed by {@code id} into the {@code tableDate} + {@code slotTimeStart}
+ * layout. The source is scanned in parallel segments, one thread each; every item gets its {@code tableDate} and is
+ * booked through {@link BookingEngine}, which also claims its slot buckets. A booking that already holds the same
+ * reservation id succeeds again, so a rerun is harmless, and old reservations that overlap on the same table are
+ * reported as conflicts instead of overwriting each other.
+ * <p>
+ * Event: {@code {"sourceTable": "...", "totalSegments": 8}}; {@code sourceTable} defaults to the deployed old table
+ * ({@code legacy_reservations_table}). Segments that are still running when the invocation is about to time out are
+ * returned under {@code resume}; invoking again with the response as the event continues them.
+ */
+@LambdaHandler(
+		lambdaName = "reservation_backfill",
+		roleName = "api_handler-role"
+)
+@DependsOn(name = "${reservations_table}", resourceType = ResourceType.DYNAMODB_TABLE)
+@DependsOn(name = "${reservations_v2_table}", resourceType = ResourceType.DYNAMODB_TABLE)
+@DependsOn(name = "${slots_table}", resourceType = ResourceType.DYNAMODB_TABLE)
+@EnvironmentVariables(
+		value = {
+				@EnvironmentVariable(key = "region", value = "${region}"),
+				@EnvironmentVariable(key = "legacy_reservations_table", value = "${reservations_table}"),
+				@EnvironmentVariable(key = "reservations_table", value = "${reservations_v2_table}"),
+				@EnvironmentVariable(key = "slots_table", value = "${slots_table}"),
+				@EnvironmentVariable(key = "log_level", value = "INFO")
+		}
+)
+public class ReservationBackfill implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+	private static final StructuredLogger log = StructuredLogger.getLogger(ReservationBackfill.class);
+	private static final int DEFAULT_SEGMENTS = 8;
+	private static final int MAX_SEGMENTS = 64;
+	private static final long STOP_MARGIN_MILLIS = 15_000;
+
+	private final DynamoDbClient ddb = ClientRegistry.dynamoDb();
+	private final ObjectMapper objectMapper = ClientRegistry.objectMapper();
+	private final BookingEngine bookingEngine = BookingEngine.fromEnvironment(ddb);
+	private final Metrics metrics = Metrics.forFunction("reservation_backfill");
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> handleRequest(Map<String, Object> event, Context context) {
+		String sourceTable = event.get("sourceTable") == null ? System.getenv("legacy_reservations_table") : (String) event.get("sourceTable");
+		String targetTable = System.getenv("reservations_table");
+		if (sourceTable == null || sourceTable.isEmpty() || sourceTable.equals(targetTable)) {
+			throw new IllegalArgumentException("sourceTable must name the old reservations table, not " + targetTable);
+		}
+		int totalSegments = event.get("totalSegments") == null ? DEFAULT_SEGMENTS : ((Number) event.get("totalSegments")).intValue();
+		if (totalSegments < 1 || totalSegments > MAX_SEGMENTS) {
+			throw new IllegalArgumentException("totalSegments must be between 1 and " + MAX_SEGMENTS);
+		}
+
+		Map<Integer, Map<String, AttributeValue>> segments = new TreeMap<>();
+		Object resume = event.get("resume");
+		if (resume instanceof Map) {
+			for (Map.Entry<String, String> segment : ((Map<String, String>) resume).entrySet()) {
+				segments.put(Integer.parseInt(segment.getKey()), PageToken.decode(objectMapper, segment.getValue()));
+			}
+		} else {
+			for (int segment = 0; segment < totalSegments; segment++) {
+				segments.put(segment, null);
+			}
+		}
+
+		long deadline = System.currentTimeMillis() + context.getRemainingTimeInMillis() - STOP_MARGIN_MILLIS;
+		ExecutorService executor = Executors.newFixedThreadPool(segments.size());
+		try {
+			List<Future<SegmentResult>> running = new ArrayList<>();
+			for (Map.Entry<Integer, Map<String, AttributeValue>> segment : segments.entrySet()) {
+				running.add(executor.submit(() -> copySegment(sourceTable, segment.getKey(), totalSegments,
+						segment.getValue(), deadline)));
+			}
+
+			Map<String, Object> response = new HashMap<>();
+			Map<String, String> unfinished = new TreeMap<>();
+			long scanned = 0;
+			long copied = 0;
+			long skipped = 0;
+			long conflicts = 0;
+			for (Future<SegmentResult> future : running) {
+				SegmentResult result = future.get();
+				scanned += result.scanned;
+				copied += result.copied;
+				skipped += result.skipped;
+				conflicts += result.conflicts;
+				if (result.resumeKey != null) {
+					unfinished.put(Integer.toString(result.segment), PageToken.encode(objectMapper, result.resumeKey));
+				}
+			}
+			response.put("sourceTable", sourceTable);
+			response.put("totalSegments", totalSegments);
+			response.put("scanned", scanned);
+			response.put("copied", copied);
+			response.put("skipped", skipped);
+			response.put("conflicts", conflicts);
+			if (!unfinished.isEmpty()) {
+				response.put("resume", unfinished);
+			}
+			log.atInfo("Backfill finished").with("copied", copied).with("conflicts", conflicts)
+					.with("unfinishedSegments", unfinished.size()).log();
+			return response;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Backfill interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Backfill segment failed", e.getCause());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+			metrics.flush();
+		}
+	}
+
+	private SegmentResult copySegment(String sourceTable, int segment, int totalSegments, Map<String, AttributeValue> startKey,
+									  long deadline) {
+		SegmentResult result = new SegmentResult(segment);
+		Map<String, AttributeValue> lastEvaluatedKey = startKey;
+		do {
+			ScanRequest request = ScanRequest.builder()
+					.tableName(sourceTable)
+					.segment(segment)
+					.totalSegments(totalSegments)
+					.exclusiveStartKey(lastEvaluatedKey)
+					.build();
+			ScanResponse page = metrics.time("scan", () -> ddb.scan(request));
+			for (Map<String, AttributeValue> item : page.items()) {
+				result.scanned++;
+				copy(item, result);
+			}
+			lastEvaluatedKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+		} while (lastEvaluatedKey != null && System.currentTimeMillis() < deadline);
+
+		result.resumeKey = lastEvaluatedKey;
+		metrics.count("copied", result.copied);
+		metrics.count("conflicts", result.conflicts);
+		return result;
+	}
+
+	private void copy(Map<String, AttributeValue> item, SegmentResult result) {
+		Map<String, AttributeValue> migrated = migrate(item);
+		if (migrated == null) {
+			result.skipped++;
+			log.atWarn("Reservation skipped").with("reason", "missing key or slot attributes").with("id", text(item.get("id"))).log();
+			return;
+		}
+		BookingEngine.Outcome outcome;
+		try {
+			outcome = metrics.time("book", () -> bookingEngine.book(migrated));
+		} catch (IllegalArgumentException | DateTimeException e) {
+			result.skipped++;
+			log.atWarn("Reservation skipped").with("reason", "invalid slot").with("id", text(item.get("id"))).withError(e).log();
+			return;
+		}
+		if (outcome == BookingEngine.Outcome.BOOKED) {
+			result.copied++;
+			return;
+		}
+		result.conflicts++;
+		log.atWarn("Reservation conflict").with("id", text(item.get("id"))).with("outcome", outcome)
+				.with("tableDate", migrated.get("tableDate").s()).with("slotTimeStart", migrated.get("slotTimeStart").s()).log();
+	}
+
+	/**
+	 * @return the item with {@code tableDate} set, or null when it lacks an attribute of the new key or its slot end
+	 */
+	static Map<String, AttributeValue> migrate(Map<String, AttributeValue> item) {
+		String id = text(item.get("id"));
+		String tableNumber = text(item.get("tableNumber"));
+		String date = text(item.get("date"));
+		String slotTimeStart = text(item.get("slotTimeStart"));
+		String slotTimeEnd = text(item.get("slotTimeEnd"));
+		if (id == null || tableNumber == null || date == null || slotTimeStart == null || slotTimeEnd == null) {
+			return null;
+		}
+		Map<String, AttributeValue> migrated = new HashMap<>(item);
+		migrated.put("id", AttributeValue.fromS(id));
+		migrated.put("tableNumber", AttributeValue.fromS(tableNumber));
+		migrated.put("tableDate", AttributeValue.fromS(ReservationRepository.tableDateKey(tableNumber, date)));
+		return migrated;
+	}
+
+	private static String text(AttributeValue value) {
+		if (value == null) {
+			return null;
+		}
+		return value.s() != null ? value.s() : value.n();
+	}
+
+	private static final class SegmentResult {
+		private final int segment;
+		private long scanned;
+		private long copied;
+		private long skipped;
+		private long conflicts;
+		private Map<String, AttributeValue> resumeKey;
+
+		private SegmentResult(int segment) {
+			this.segment = segment;
+		}
+	}
+}
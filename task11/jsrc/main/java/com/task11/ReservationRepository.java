@@ -0,0 +1,118 @@
+package com.task11;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads of the reservations table, each one a Query on its key layout:
+ * <ul>
+ *     <li>table key {@code tableDate} ({@code <tableNumber>#<date>}) + {@code slotTimeStart}: one table on one day;</li>
+ *     <li>{@code date-index}, {@code date} + {@code slotTimeStart}: every table on a day, walked day by day for ranges;</li>
+ *     <li>{@code client-index}, {@code clientName} + {@code date}: one client's reservations in date order.</li>
+ * </ul>
+ * Page methods return at most {@code limit} items (one DynamoDB page when limit is null) and the key to continue from.
+ */
+public final class ReservationRepository {
+
+	public static final String DATE_INDEX = "date-index";
+	public static final String CLIENT_INDEX = "client-index";
+
+	private static final long MAX_RANGE_DAYS = 31;
+
+	private final DynamoDbClient dynamoDb;
+	private final String tableName;
+
+	public ReservationRepository(DynamoDbClient dynamoDb, String tableName) {
+		this.dynamoDb = dynamoDb;
+		this.tableName = tableName;
+	}
+
+	public static ReservationRepository fromEnvironment(DynamoDbClient dynamoDb) {
+		return new ReservationRepository(dynamoDb, System.getenv("reservations_table"));
+	}
+
+	public static String tableDateKey(String tableNumber, String date) {
+		return tableNumber + "#" + date;
+	}
+
+	public ItemPage byTableDay(String tableNumber, String date, Integer limit, Map<String, AttributeValue> startKey) {
+		return query(tableDayQuery(tableNumber, date), limit, startKey);
+	}
+
+	public ItemPage byClient(String clientName, Integer limit, Map<String, AttributeValue> startKey) {
+		return query(QueryRequest.builder()
+				.tableName(tableName)
+				.indexName(CLIENT_INDEX)
+				.keyConditionExpression("clientName = :clientName")
+				.expressionAttributeValues(Collections.singletonMap(":clientName", AttributeValue.fromS(clientName))),
+				limit, startKey);
+	}
+
+	/**
+	 * Reservations from {@code from} to {@code to} inclusive, by date and then start time. Each day is one
+	 * partition of the date index; a page that ends with a day continues from a key holding only the next date.
+	 */
+	public ItemPage byDateRange(LocalDate from, LocalDate to, Integer limit, Map<String, AttributeValue> startKey) {
+		if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+			throw new IllegalArgumentException("Date range must cover 1 to " + MAX_RANGE_DAYS + " days");
+		}
+		LocalDate day = from;
+		Map<String, AttributeValue> exclusiveStartKey = null;
+		if (startKey != null) {
+			AttributeValue date = startKey.get("date");
+			day = date == null ? null : LocalDate.parse(date.s());
+			if (day == null || day.isBefore(from) || day.isAfter(to)) {
+				throw new IllegalArgumentException("Invalid continuation token");
+			}
+			exclusiveStartKey = startKey.size() > 1 ? startKey : null;
+		}
+
+		List<Map<String, AttributeValue>> items = new ArrayList<>();
+		while (true) {
+			ItemPage page = query(QueryRequest.builder()
+					.tableName(tableName)
+					.indexName(DATE_INDEX)
+					.keyConditionExpression("#date = :date")
+					.expressionAttributeNames(Collections.singletonMap("#date", "date"))
+					.expressionAttributeValues(Collections.singletonMap(":date", AttributeValue.fromS(day.toString()))),
+					limit == null ? null : limit - items.size(), exclusiveStartKey);
+			items.addAll(page.getItems());
+			if (page.hasMore()) {
+				return new ItemPage(items, page.getLastEvaluatedKey());
+			}
+
+			day = day.plusDays(1);
+			exclusiveStartKey = null;
+			if (day.isAfter(to)) {
+				return new ItemPage(items, null);
+			}
+			if (limit == null || items.size() >= limit) {
+				return new ItemPage(items, Collections.singletonMap("date", AttributeValue.fromS(day.toString())));
+			}
+		}
+	}
+
+	private QueryRequest.Builder tableDayQuery(String tableNumber, String date) {
+		return QueryRequest.builder()
+				.tableName(tableName)
+				.keyConditionExpression("tableDate = :tableDate")
+				.expressionAttributeValues(Collections.singletonMap(":tableDate", AttributeValue.fromS(tableDateKey(tableNumber, date))));
+	}
+
+	private ItemPage query(QueryRequest.Builder request, Integer limit, Map<String, AttributeValue> startKey) {
+		QueryResponse response = dynamoDb.query(request
+				.limit(limit)
+				.exclusiveStartKey(startKey)
+				.build());
+		return new ItemPage(response.items(), response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null);
+	}
+}
@@ -0,0 +1,264 @@
+package com.task11;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Method + path router backed by a trie of path segments, built once per container.
+ * Patterns are literal segments or typed parameters, e.g. {@code /tables/{tableId:int}};
+ * {@code int} parameters are parsed while walking the path and a segment that is not a valid
+ * int is reported as {@link Status#INVALID_PARAMETER} rather than a miss. A path that exists
+ * for other methods only is reported as {@link Status#METHOD_NOT_ALLOWED} with the allowed methods.
+ *
+ * @param <H> handler type
+ */
+public final class Router<H> {
+
+	public enum Status {
+		FOUND, NOT_FOUND, METHOD_NOT_ALLOWED, INVALID_PARAMETER
+	}
+
+	private enum ParamType {
+		INT, STRING
+	}
+
+	private final Node<H> root;
+
+	private Router(Node<H> root) {
+		this.root = root;
+	}
+
+	public static <H> Builder<H> builder() {
+		return new Builder<>();
+	}
+
+	public Match<H> route(String method, String path) {
+		Match<H> match = new Match<>();
+		if (path == null || path.isEmpty() || path.charAt(0) != '/') {
+			match.status = Status.NOT_FOUND;
+			return match;
+		}
+		int end = path.length();
+		if (end > 1 && path.charAt(end - 1) == '/') {
+			end--;
+		}
+
+		Node<H> node = walk(root, path, 1, end, match);
+		if (node == null) {
+			if (match.status == null) {
+				match.status = Status.NOT_FOUND;
+			}
+			return match;
+		}
+
+		H handler = method == null ? null : node.handlers.get(method.toUpperCase(Locale.ROOT));
+		if (handler == null) {
+			match.status = Status.METHOD_NOT_ALLOWED;
+			match.allowedMethods = node.allow;
+			return match;
+		}
+		match.status = Status.FOUND;
+		match.handler = handler;
+		return match;
+	}
+
+	/**
+	 * Matches path[start, end) below {@code node}; literal children are tried before the parameter child.
+	 */
+	private Node<H> walk(Node<H> node, String path, int start, int end, Match<H> match) {
+		if (start >= end) {
+			return node.handlers.isEmpty() ? null : node;
+		}
+		int slash = path.indexOf('/', start);
+		int segmentEnd = slash < 0 || slash > end ? end : slash;
+		int length = segmentEnd - start;
+
+		for (Node<H> child : node.literals) {
+			if (child.segment.length() == length && path.regionMatches(start, child.segment, 0, length)) {
+				Node<H> found = walk(child, path, segmentEnd + 1, end, match);
+				if (found != null) {
+					return found;
+				}
+			}
+		}
+
+		Node<H> param = node.param;
+		if (param == null || length == 0) {
+			return null;
+		}
+		if (param.paramType == ParamType.INT) {
+			long value = parseInt(path, start, segmentEnd);
+			if (value == Long.MIN_VALUE) {
+				match.status = Status.INVALID_PARAMETER;
+				match.invalidParameter = param.segment;
+				return null;
+			}
+			match.putParam(param.segment, (int) value, null);
+		} else {
+			match.putParam(param.segment, 0, path.substring(start, segmentEnd));
+		}
+		Node<H> found = walk(param, path, segmentEnd + 1, end, match);
+		if (found == null) {
+			match.paramCount--;
+		}
+		return found;
+	}
+
+	/**
+	 * @return the parsed value, or Long.MIN_VALUE if the segment is not a non-negative int
+	 */
+	private static long parseInt(String path, int start, int end) {
+		if (end - start > 10) {
+			return Long.MIN_VALUE;
+		}
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			char c = path.charAt(i);
+			if (c < '0' || c > '9') {
+				return Long.MIN_VALUE;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+	}
+
+	public static final class Match<H> {
+		private static final int MAX_PARAMS = 4;
+
+		private Status status;
+		private H handler;
+		private List<String> allowedMethods = Collections.emptyList();
+		private String invalidParameter;
+		private final String[] paramNames = new String[MAX_PARAMS];
+		private final int[] intParams = new int[MAX_PARAMS];
+		private final String[] stringParams = new String[MAX_PARAMS];
+		private int paramCount;
+
+		private Match() {
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public H getHandler() {
+			return handler;
+		}
+
+		public List<String> getAllowedMethods() {
+			return allowedMethods;
+		}
+
+		public String getInvalidParameter() {
+			return invalidParameter;
+		}
+
+		public int intParam(String name) {
+			return intParams[indexOf(name)];
+		}
+
+		public String stringParam(String name) {
+			return stringParams[indexOf(name)];
+		}
+
+		private void putParam(String name, int intValue, String stringValue) {
+			paramNames[paramCount] = name;
+			intParams[paramCount] = intValue;
+			stringParams[paramCount] = stringValue;
+			paramCount++;
+		}
+
+		private int indexOf(String name) {
+			for (int i = 0; i < paramCount; i++) {
+				if (paramNames[i].equals(name)) {
+					return i;
+				}
+			}
+			throw new IllegalArgumentException("No path parameter " + name);
+		}
+	}
+
+	public static final class Builder<H> {
+		private final Node<H> root = new Node<>(null, null);
+
+		private Builder() {
+		}
+
+		public Builder<H> add(String method, String pattern, H handler) {
+			Node<H> node = root;
+			int depth = 0;
+			for (String segment : pattern.split("/")) {
+				if (segment.isEmpty()) {
+					continue;
+				}
+				node = segment.startsWith("{") ? node.paramChild(segment) : node.literalChild(segment);
+				if (node.paramType != null && ++depth > Match.MAX_PARAMS) {
+					throw new IllegalArgumentException("Too many path parameters in " + pattern);
+				}
+			}
+			if (node.handlers.put(method.toUpperCase(Locale.ROOT), handler) != null) {
+				throw new IllegalArgumentException("Duplicate route " + method + " " + pattern);
+			}
+			return this;
+		}
+
+		public Router<H> build() {
+			root.freeze();
+			return new Router<>(root);
+		}
+	}
+
+	private static final class Node<H> {
+		private final String segment;
+		private final ParamType paramType;
+		private final List<Node<H>> literals = new ArrayList<>();
+		private final Map<String, H> handlers = new LinkedHashMap<>();
+		private Node<H> param;
+		private List<String> allow;
+
+		private Node(String segment, ParamType paramType) {
+			this.segment = segment;
+			this.paramType = paramType;
+		}
+
+		private Node<H> literalChild(String segment) {
+			for (Node<H> child : literals) {
+				if (child.segment.equals(segment)) {
+					return child;
+				}
+			}
+			Node<H> child = new Node<>(segment, null);
+			literals.add(child);
+			return child;
+		}
+
+		private Node<H> paramChild(String segment) {
+			if (!segment.endsWith("}")) {
+				throw new IllegalArgumentException("Invalid path parameter " + segment);
+			}
+			String[] nameAndType = segment.substring(1, segment.length() - 1).split(":", 2);
+			ParamType type = nameAndType.length == 1
+					? ParamType.STRING : ParamType.valueOf(nameAndType[1].toUpperCase(Locale.ROOT));
+			if (param == null) {
+				param = new Node<>(nameAndType[0], type);
+			} else if (!param.segment.equals(nameAndType[0]) || param.paramType != type) {
+				throw new IllegalArgumentException("Conflicting path parameter " + segment);
+			}
+			return param;
+		}
+
+		private void freeze() {
+			allow = handlers.isEmpty() ? null : Collections.unmodifiableList(new ArrayList<>(handlers.keySet()));
+			for (Node<H> child : literals) {
+				child.freeze();
+			}
+			if (param != null) {
+				param.freeze();
+			}
+		}
+	}
+}
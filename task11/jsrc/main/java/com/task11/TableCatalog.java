@@ -0,0 +1,305 @@
+package com.task11;
+
+import com.common.Metrics;
+import com.common.StructuredLogger;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Container-wide snapshot of the tables table, which changes rarely: an immutable map from table number to item
+ * for existence checks and the items sorted by id for listings, swapped as a whole.
+ * <p>
+ * The first lookup loads the snapshot with a consistent scan. A lookup that finds it older than the TTL starts one
+ * background reload and keeps answering from the current snapshot until the new one is swapped in. Tables written
+ * through {@link #put(Map)} are added to the snapshot right away and laid over reloads whose scan started before
+ * the write, so this container sees its own tables immediately. A table number missing from the snapshot is looked
+ * up with a consistent GetItem before it is rejected, so tables created by other containers within the TTL are
+ * found too; tables are keyed by id, and their id is their number. A miss also starts a background reload, at most
+ * once per {@value #MISS_RELOAD_SECONDS} s, for tables stored under another id.
+ * Rows without a numeric id and number are skipped and logged. Every lookup records the snapshot age as the
+ * {@code tableCatalogAge} stage.
+ */
+public final class TableCatalog {
+
+	private static final StructuredLogger log = StructuredLogger.getLogger(TableCatalog.class);
+	private static final long DEFAULT_TTL_SECONDS = 60;
+	private static final long MISS_RELOAD_SECONDS = 1;
+
+	private final DynamoDbClient dynamoDb;
+	private final String tableName;
+	private final long ttlNanos;
+	private final Metrics metrics;
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+	private final Map<String, Write> writes = new LinkedHashMap<>();
+	private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "table-catalog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public TableCatalog(DynamoDbClient dynamoDb, String tableName, Duration ttl, Metrics metrics) {
+		this.dynamoDb = dynamoDb;
+		this.tableName = tableName;
+		this.ttlNanos = ttl.toNanos();
+		this.metrics = metrics;
+	}
+
+	public static TableCatalog fromEnvironment(DynamoDbClient dynamoDb, Metrics metrics) {
+		String ttlSeconds = System.getenv("table_catalog_ttl_seconds");
+		return new TableCatalog(dynamoDb, System.getenv("tables_table"),
+				Duration.ofSeconds(ttlSeconds == null ? DEFAULT_TTL_SECONDS : Long.parseLong(ttlSeconds)), metrics);
+	}
+
+	/**
+	 * @param tableNumber the {@code number} attribute, as sent by clients
+	 */
+	public boolean contains(String tableNumber) {
+		int number;
+		try {
+			number = Integer.parseInt(tableNumber.trim());
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		Snapshot current = current();
+		return current.byNumber.containsKey(number) || fetch(number, current);
+	}
+
+	/**
+	 * @return up to {@code limit} tables (all when null) in id order after the id in {@code startKey}
+	 */
+	public ItemPage page(Integer limit, Map<String, AttributeValue> startKey) {
+		Snapshot current = current();
+		int from = 0;
+		if (startKey != null) {
+			AttributeValue id = startKey.get("id");
+			if (id == null || id.s() == null) {
+				throw new IllegalArgumentException("Invalid continuation token");
+			}
+			int position = Arrays.binarySearch(current.ids, Integer.parseInt(id.s()));
+			from = position >= 0 ? position + 1 : -position - 1;
+		}
+		int to = limit == null ? current.items.size() : Math.min(current.items.size(), from + limit);
+		Map<String, AttributeValue> lastEvaluatedKey = to < current.items.size()
+				? Collections.singletonMap("id", current.items.get(to - 1).get("id")) : null;
+		return new ItemPage(current.items.subList(from, to), lastEvaluatedKey);
+	}
+
+	/**
+	 * Adds a table that was just written to the tables table.
+	 */
+	public synchronized void put(Map<String, AttributeValue> item) {
+		writes.put(item.get("id").s(), new Write(item, System.nanoTime()));
+		Snapshot current = snapshot.get();
+		if (current != null) {
+			snapshot.set(current.with(Collections.singletonList(item)));
+		}
+	}
+
+	/**
+	 * Drops the snapshot, so the next lookup loads a new one.
+	 */
+	public void clear() {
+		snapshot.set(null);
+	}
+
+	/**
+	 * Reads the table stored under {@code number} as its id, and adds it to the snapshot when its number matches.
+	 */
+	private boolean fetch(int number, Snapshot current) {
+		Map<String, AttributeValue> item;
+		try (Metrics.Timer timer = metrics.time("tableCatalogGet")) {
+			item = dynamoDb.getItem(request -> request
+					.tableName(tableName)
+					.key(Collections.singletonMap("id", AttributeValue.fromS(Integer.toString(number))))
+					.consistentRead(true))
+					.item();
+		}
+		if (item != null && !item.isEmpty() && Integer.valueOf(number).equals(parseInt(item.get("number")))
+				&& parseInt(item.get("id")) != null) {
+			put(item);
+			return true;
+		}
+		if (System.nanoTime() - current.loadedAt >= TimeUnit.SECONDS.toNanos(MISS_RELOAD_SECONDS)
+				&& refreshing.compareAndSet(false, true)) {
+			refresher.execute(this::refresh);
+		}
+		return false;
+	}
+
+	private Snapshot current() {
+		Snapshot current = snapshot.get();
+		if (current == null) {
+			current = loadFirst();
+		}
+		long age = System.nanoTime() - current.loadedAt;
+		metrics.record("tableCatalogAge", age);
+		if (age >= ttlNanos && refreshing.compareAndSet(false, true)) {
+			refresher.execute(this::refresh);
+		}
+		return current;
+	}
+
+	private synchronized Snapshot loadFirst() {
+		Snapshot current = snapshot.get();
+		if (current == null) {
+			current = swap(load());
+		}
+		return current;
+	}
+
+	private void refresh() {
+		try {
+			swap(load());
+		} catch (RuntimeException e) {
+			log.atWarn("Table catalog refresh failed").withError(e).log();
+		} finally {
+			refreshing.set(false);
+		}
+	}
+
+	/**
+	 * Installs a loaded snapshot unless a newer one is already in place, with the writes its scan may have missed.
+	 */
+	private synchronized Snapshot swap(Snapshot loaded) {
+		Snapshot current = snapshot.get();
+		if (current != null && current.loadedAt - loaded.loadedAt > 0) {
+			return current;
+		}
+		List<Map<String, AttributeValue>> missed = new ArrayList<>();
+		for (Iterator<Write> it = writes.values().iterator(); it.hasNext(); ) {
+			Write write = it.next();
+			if (write.writtenAt - loaded.loadedAt >= 0) {
+				missed.add(write.item);
+			} else {
+				it.remove();
+			}
+		}
+		Snapshot installed = missed.isEmpty() ? loaded : loaded.with(missed);
+		snapshot.set(installed);
+		log.atDebug("Table catalog loaded").with("tables", installed.items.size()).log();
+		return installed;
+	}
+
+	private Snapshot load() {
+		try (Metrics.Timer timer = metrics.time("tableCatalogLoad")) {
+			long started = System.nanoTime();
+			List<Map<String, AttributeValue>> items = new ArrayList<>();
+			Map<String, AttributeValue> lastEvaluatedKey = null;
+			do {
+				ScanResponse page = dynamoDb.scan(ScanRequest.builder()
+						.tableName(tableName)
+						.consistentRead(true)
+						.exclusiveStartKey(lastEvaluatedKey)
+						.build());
+				items.addAll(page.items());
+				lastEvaluatedKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+			} while (lastEvaluatedKey != null);
+			return new Snapshot(items, started);
+		}
+	}
+
+	private static final class Snapshot {
+		private final Map<Integer, Map<String, AttributeValue>> byNumber;
+		private final List<Map<String, AttributeValue>> items;
+		private final int[] ids;
+		private final long loadedAt;
+
+		private Snapshot(Collection<Map<String, AttributeValue>> tables, long loadedAt) {
+			List<Row> rows = new ArrayList<>(tables.size());
+			for (Map<String, AttributeValue> item : tables) {
+				Integer id = parseInt(item.get("id"));
+				Integer number = parseInt(item.get("number"));
+				if (id == null || number == null) {
+					log.atWarn("Table catalog skipped a row").with("id", item.get("id")).with("number", item.get("number")).log();
+					continue;
+				}
+				rows.add(new Row(id, number, item));
+			}
+			rows.sort(Comparator.comparingInt(row -> row.id));
+			Map<Integer, Map<String, AttributeValue>> byNumber = new HashMap<>();
+			List<Map<String, AttributeValue>> items = new ArrayList<>(rows.size());
+			int[] ids = new int[rows.size()];
+			for (int i = 0; i < ids.length; i++) {
+				Row row = rows.get(i);
+				byNumber.put(row.number, row.item);
+				items.add(row.item);
+				ids[i] = row.id;
+			}
+			this.byNumber = Collections.unmodifiableMap(byNumber);
+			this.items = Collections.unmodifiableList(items);
+			this.ids = ids;
+			this.loadedAt = loadedAt;
+		}
+
+		/**
+		 * @return a copy with {@code tables} added, replacing the ones with the same id
+		 */
+		private Snapshot with(List<Map<String, AttributeValue>> tables) {
+			Map<String, Map<String, AttributeValue>> byId = new LinkedHashMap<>();
+			for (Map<String, AttributeValue> item : items) {
+				byId.put(item.get("id").s(), item);
+			}
+			for (Map<String, AttributeValue> item : tables) {
+				byId.put(item.get("id").s(), item);
+			}
+			return new Snapshot(byId.values(), loadedAt);
+		}
+	}
+
+	/**
+	 * @return the integer in a string or number attribute, or null when it is missing or not an integer
+	 */
+	private static Integer parseInt(AttributeValue value) {
+		String text = value == null ? null : value.s() != null ? value.s() : value.n();
+		if (text == null) {
+			return null;
+		}
+		try {
+			return Integer.parseInt(text.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static final class Row {
+		private final int id;
+		private final int number;
+		private final Map<String, AttributeValue> item;
+
+		private Row(int id, int number, Map<String, AttributeValue> item) {
+			this.id = id;
+			this.number = number;
+			this.item = item;
+		}
+	}
+
+	private static final class Write {
+		private final Map<String, AttributeValue> item;
+		private final long writtenAt;
+
+		private Write(Map<String, AttributeValue> item, long writtenAt) {
+			this.item = item;
+			this.writtenAt = writtenAt;
+		}
+	}
+}
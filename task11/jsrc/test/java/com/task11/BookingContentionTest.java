@@ -0,0 +1,247 @@
+package com.task11;
+
+import com.testsupport.LocalAws;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.net.URI;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrency check for {@link BookingEngine}: {@value #CLIENTS} threads, released together, each book one random
+ * slot, on a {@value #SLOT_MINUTES}-minute grid, on one of {@value #TABLES} tables of the same day against an
+ * in-process {@link LocalAws}. The reservations and slot claims are then read back and checked for double bookings
+ * and for claims without a reservation.
+ */
+class BookingContentionTest {
+
+	private static final String RESERVATIONS_TABLE = "Reservations";
+	private static final String SLOTS_TABLE = "ReservationSlots";
+	private static final int CLIENTS = 500;
+	private static final int TABLES = 4;
+	private static final int SLOT_MINUTES = 5;
+	private static final long SEED = 42;
+
+	private static LocalAws aws;
+	private static DynamoDbClient dynamoDb;
+	private static BookingEngine engine;
+
+	@BeforeAll
+	static void startEmulator() throws Exception {
+		aws = new LocalAws(0, LocalAws.userPoolName(), 0);
+		aws.dynamoDb().createTable(RESERVATIONS_TABLE, "tableDate", "slotTimeStart");
+		aws.dynamoDb().createTable(SLOTS_TABLE, "tableDate", "bucket");
+		aws.start();
+		dynamoDb = DynamoDbClient.builder()
+				.endpointOverride(URI.create("http://localhost:" + aws.port()))
+				.region(Region.EU_WEST_1)
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")))
+				.httpClientBuilder(UrlConnectionHttpClient.builder())
+				.build();
+		engine = new BookingEngine(dynamoDb, RESERVATIONS_TABLE, SLOTS_TABLE);
+	}
+
+	@AfterAll
+	static void stopEmulator() {
+		dynamoDb.close();
+		aws.close();
+	}
+
+	@Test
+	void concurrentBookingsNeverOverlap() throws Exception {
+		String date = "2026-11-10";
+		Map<BookingEngine.Outcome, Integer> outcomes = bookConcurrently(date);
+
+		assertEquals(CLIENTS, outcomes.values().stream().mapToInt(Integer::intValue).sum());
+		assertTrue(outcomes.getOrDefault(BookingEngine.Outcome.BOOKED, 0) > 0, "no booking succeeded");
+		assertEquals(0, doubleBookings(date), "double bookings");
+		assertEquals(outcomes.getOrDefault(BookingEngine.Outcome.BOOKED, 0), reservations(date), "stored reservations");
+		assertEquals(0, orphanClaims(date), "claims without a reservation or missing");
+	}
+
+	@Test
+	void overlappingBookingIsRejected() {
+		String date = "2026-11-12";
+		assertEquals(BookingEngine.Outcome.BOOKED, engine.book(reservation("a", "1", date, "18:00", "19:00")));
+		assertEquals(BookingEngine.Outcome.OVERLAP, engine.book(reservation("b", "1", date, "18:30", "19:30")));
+		assertEquals(BookingEngine.Outcome.BOOKED, engine.book(reservation("c", "2", date, "18:30", "19:30")));
+		assertEquals(0, orphanClaims(date));
+	}
+
+	@Test
+	void adjacentBookingsShareABucket() {
+		String date = "2026-11-14";
+		assertEquals(BookingEngine.Outcome.BOOKED, engine.book(reservation("a", "1", date, "18:05", "19:05")));
+		assertEquals(BookingEngine.Outcome.BOOKED, engine.book(reservation("b", "1", date, "19:05", "20:00")));
+		assertEquals(BookingEngine.Outcome.BOOKED, engine.book(reservation("c", "1", date, "17:00", "18:05")));
+		assertEquals(BookingEngine.Outcome.OVERLAP, engine.book(reservation("d", "1", date, "19:00", "19:10")));
+		assertEquals(BookingEngine.Outcome.OVERLAP, engine.book(reservation("e", "1", date, "18:00", "18:10")));
+		assertEquals(BookingEngine.Outcome.OVERLAP, engine.book(reservation("f", "1", date, "19:55", "20:05")));
+		assertEquals(BookingEngine.Outcome.BOOKED, engine.book(reservation("g", "1", date, "20:00", "20:05")));
+		assertEquals(BookingEngine.Outcome.OVERLAP, engine.book(reservation("h", "1", date, "20:02", "20:07")));
+		assertEquals(4, reservations(date));
+		assertEquals(0, orphanClaims(date));
+	}
+
+	@Test
+	void retriedBookingSucceeds() {
+		String date = "2026-11-13";
+		Map<String, AttributeValue> reservation = reservation("a", "1", date, "12:00", "13:00");
+		assertEquals(BookingEngine.Outcome.BOOKED, engine.book(reservation));
+		assertEquals(BookingEngine.Outcome.BOOKED, engine.book(reservation));
+		assertEquals(1, reservations(date));
+	}
+
+	/**
+	 * Books one slot per client, all released at once; slots are drawn from a fixed seed.
+	 */
+	private static Map<BookingEngine.Outcome, Integer> bookConcurrently(String date) throws Exception {
+		Random random = new Random(SEED);
+		List<Map<String, AttributeValue>> reservations = new ArrayList<>(CLIENTS);
+		for (int i = 0; i < CLIENTS; i++) {
+			String tableNumber = Integer.toString(1 + random.nextInt(TABLES));
+			int start = 10 * 60 + SLOT_MINUTES * random.nextInt(135);
+			int end = start + SLOT_MINUTES * (2 + random.nextInt(23));
+			reservations.add(reservation("client-" + i, tableNumber, date,
+					LocalTime.of(start / 60, start % 60).toString(), LocalTime.of(end / 60, end % 60).toString()));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+		CountDownLatch ready = new CountDownLatch(CLIENTS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<BookingEngine.Outcome>> futures = new ArrayList<>(CLIENTS);
+			for (Map<String, AttributeValue> reservation : reservations) {
+				futures.add(executor.submit(() -> {
+					ready.countDown();
+					start.await();
+					return engine.book(reservation);
+				}));
+			}
+			ready.await();
+			start.countDown();
+
+			Map<BookingEngine.Outcome, Integer> outcomes = new EnumMap<>(BookingEngine.Outcome.class);
+			for (Future<BookingEngine.Outcome> future : futures) {
+				outcomes.merge(future.get(), 1, Integer::sum);
+			}
+			return outcomes;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static Map<String, AttributeValue> reservation(String clientName, String tableNumber, String date,
+			String slotTimeStart, String slotTimeEnd) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("id", AttributeValue.fromS(UUID.randomUUID().toString()));
+		item.put("tableNumber", AttributeValue.fromS(tableNumber));
+		item.put("clientName", AttributeValue.fromS(clientName));
+		item.put("phoneNumber", AttributeValue.fromS("+15551234567"));
+		item.put("date", AttributeValue.fromS(date));
+		item.put("slotTimeStart", AttributeValue.fromS(slotTimeStart));
+		item.put("slotTimeEnd", AttributeValue.fromS(slotTimeEnd));
+		item.put("tableDate", AttributeValue.fromS(ReservationRepository.tableDateKey(tableNumber, date)));
+		return item;
+	}
+
+	private static int reservations(String date) {
+		int reservations = 0;
+		for (int table = 1; table <= TABLES; table++) {
+			reservations += queryAll(RESERVATIONS_TABLE, ReservationRepository.tableDateKey(Integer.toString(table), date)).size();
+		}
+		return reservations;
+	}
+
+	/**
+	 * @return reservations of the day that overlap an earlier one on the same table
+	 */
+	private static int doubleBookings(String date) {
+		int doubles = 0;
+		for (int table = 1; table <= TABLES; table++) {
+			int bookedUntil = -1;
+			for (Map<String, AttributeValue> item : queryAll(RESERVATIONS_TABLE, ReservationRepository.tableDateKey(Integer.toString(table), date))) {
+				int start = LocalTime.parse(item.get("slotTimeStart").s()).toSecondOfDay();
+				int end = LocalTime.parse(item.get("slotTimeEnd").s()).toSecondOfDay();
+				if (start < bookedUntil) {
+					doubles++;
+				}
+				bookedUntil = Math.max(bookedUntil, end);
+			}
+		}
+		return doubles;
+	}
+
+	/**
+	 * @return sides of slot claims of the day that do not belong to a stored reservation, plus sides stored
+	 * reservations should hold but do not
+	 */
+	private static int orphanClaims(String date) {
+		int orphans = 0;
+		for (int table = 1; table <= TABLES; table++) {
+			String tableDate = ReservationRepository.tableDateKey(Integer.toString(table), date);
+			Set<String> expected = new HashSet<>();
+			for (Map<String, AttributeValue> item : queryAll(RESERVATIONS_TABLE, tableDate)) {
+				for (BookingEngine.Claim claim : BookingEngine.claims(item.get("slotTimeStart").s(), item.get("slotTimeEnd").s())) {
+					if (claim.isLeft()) {
+						expected.add(claim.getBucket() + " left " + item.get("id").s());
+					}
+					if (claim.isRight()) {
+						expected.add(claim.getBucket() + " right " + item.get("id").s());
+					}
+				}
+			}
+			for (Map<String, AttributeValue> claim : queryAll(SLOTS_TABLE, tableDate)) {
+				for (String side : new String[]{"left", "right"}) {
+					AttributeValue holder = claim.get(side + "Id");
+					if (holder != null && !expected.remove(claim.get("bucket").s() + " " + side + " " + holder.s())) {
+						orphans++;
+					}
+				}
+			}
+			orphans += expected.size();
+		}
+		return orphans;
+	}
+
+	private static List<Map<String, AttributeValue>> queryAll(String tableName, String tableDate) {
+		List<Map<String, AttributeValue>> items = new ArrayList<>();
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		do {
+			Map<String, AttributeValue> startKey = lastEvaluatedKey;
+			QueryResponse response = dynamoDb.query(request -> request
+					.tableName(tableName)
+					.keyConditionExpression("tableDate = :tableDate")
+					.expressionAttributeValues(Collections.singletonMap(":tableDate", AttributeValue.fromS(tableDate)))
+					.exclusiveStartKey(startKey));
+			items.addAll(response.items());
+			lastEvaluatedKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty() ? response.lastEvaluatedKey() : null;
+		} while (lastEvaluatedKey != null);
+		return items;
+	}
+}
@@ -0,0 +1,100 @@
+package com.task11;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouterTest {
+
+	private final Router<String> router = Router.<String>builder()
+			.add("GET", "/tables", "listTables")
+			.add("GET", "/tables/{tableId:int}", "getTable")
+			.add("POST", "/tables", "createTable")
+			.add("GET", "/tables/{tableId:int}/slots/{date}", "getSlots")
+			.add("GET", "/tables/free", "freeTables")
+			.add("POST", "/signin", "signin")
+			.build();
+
+	@Test
+	void routesLiteralPath() {
+		Router.Match<String> match = router.route("GET", "/tables");
+		assertEquals(Router.Status.FOUND, match.getStatus());
+		assertEquals("listTables", match.getHandler());
+		assertEquals("createTable", router.route("POST", "/tables").getHandler());
+	}
+
+	@Test
+	void ignoresTrailingSlashAndMethodCase() {
+		assertEquals("listTables", router.route("get", "/tables/").getHandler());
+	}
+
+	@Test
+	void parsesIntParameter() {
+		Router.Match<String> match = router.route("GET", "/tables/42");
+		assertEquals(Router.Status.FOUND, match.getStatus());
+		assertEquals("getTable", match.getHandler());
+		assertEquals(42, match.intParam("tableId"));
+	}
+
+	@Test
+	void parsesMixedParameters() {
+		Router.Match<String> match = router.route("GET", "/tables/7/slots/2026-11-10");
+		assertEquals("getSlots", match.getHandler());
+		assertEquals(7, match.intParam("tableId"));
+		assertEquals("2026-11-10", match.stringParam("date"));
+	}
+
+	@Test
+	void prefersLiteralOverParameter() {
+		assertEquals("freeTables", router.route("GET", "/tables/free").getHandler());
+	}
+
+	@Test
+	void reportsInvalidIntParameter() {
+		for (String path : Arrays.asList("/tables/abc", "/tables/-1", "/tables/2147483648", "/tables/12345678901")) {
+			Router.Match<String> match = router.route("GET", path);
+			assertEquals(Router.Status.INVALID_PARAMETER, match.getStatus(), path);
+			assertEquals("tableId", match.getInvalidParameter(), path);
+		}
+		assertEquals(Integer.MAX_VALUE, router.route("GET", "/tables/2147483647").intParam("tableId"));
+	}
+
+	@Test
+	void reportsAllowedMethods() {
+		Router.Match<String> match = router.route("DELETE", "/tables");
+		assertEquals(Router.Status.METHOD_NOT_ALLOWED, match.getStatus());
+		assertEquals(Arrays.asList("GET", "POST"), match.getAllowedMethods());
+		assertEquals(Router.Status.METHOD_NOT_ALLOWED, router.route(null, "/signin").getStatus());
+	}
+
+	@Test
+	void reportsUnknownPath() {
+		for (String path : Arrays.asList("/reservations", "/tables/1/unknown", "/", "", "tables", "//tables")) {
+			assertEquals(Router.Status.NOT_FOUND, router.route("GET", path).getStatus(), path);
+		}
+		assertEquals(Router.Status.NOT_FOUND, router.route("GET", null).getStatus());
+	}
+
+	@Test
+	void rejectsMissingParameterName() {
+		Router.Match<String> match = router.route("GET", "/tables/1");
+		assertThrows(IllegalArgumentException.class, () -> match.stringParam("date"));
+	}
+
+	@Test
+	void rejectsInvalidRoutes() {
+		assertThrows(IllegalArgumentException.class, () -> Router.<String>builder()
+				.add("GET", "/tables", "a")
+				.add("get", "/tables", "b"));
+		assertThrows(IllegalArgumentException.class, () -> Router.<String>builder()
+				.add("GET", "/tables/{tableId:int}", "a")
+				.add("GET", "/tables/{id:int}/slots", "b"));
+		assertThrows(IllegalArgumentException.class, () -> Router.<String>builder()
+				.add("GET", "/tables/{tableId", "a"));
+		assertThrows(IllegalArgumentException.class, () -> Router.<String>builder()
+				.add("GET", "/{a}/{b}/{c}/{d}/{e}", "a"));
+	}
+}
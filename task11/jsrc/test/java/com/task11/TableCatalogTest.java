@@ -0,0 +1,94 @@
+package com.task11;
+
+import com.common.Metrics;
+import com.testsupport.LocalAws;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link TableCatalog} against an in-process {@link LocalAws}, with a TTL long enough that no reload happens on its
+ * own during a test.
+ */
+class TableCatalogTest {
+
+	private static final String TABLES_TABLE = "Tables";
+
+	private static LocalAws aws;
+	private static DynamoDbClient dynamoDb;
+
+	@BeforeAll
+	static void startEmulator() throws Exception {
+		aws = new LocalAws(0, LocalAws.userPoolName(), 0);
+		aws.dynamoDb().createTable(TABLES_TABLE, "id", null);
+		aws.start();
+		dynamoDb = DynamoDbClient.builder()
+				.endpointOverride(URI.create("http://localhost:" + aws.port()))
+				.region(Region.EU_WEST_1)
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")))
+				.httpClientBuilder(UrlConnectionHttpClient.builder())
+				.build();
+		putTable("1", "1");
+		putTable("2", "2");
+		putTable("broken", "3");
+		putTable("4", "four");
+	}
+
+	@AfterAll
+	static void stopEmulator() {
+		dynamoDb.close();
+		aws.close();
+	}
+
+	@Test
+	void skipsRowsWithoutNumericIdAndNumber() {
+		TableCatalog catalog = catalog();
+		assertTrue(catalog.contains("1"));
+		assertTrue(catalog.contains(" 2 "));
+		assertFalse(catalog.contains("3"));
+		assertFalse(catalog.contains("x"));
+
+		ItemPage page = catalog.page(null, null);
+		assertEquals(2, page.getItems().size());
+		assertEquals("1", page.getItems().get(0).get("id").s());
+		assertEquals("2", page.getItems().get(1).get("id").s());
+	}
+
+	@Test
+	void findsTableWrittenAfterTheSnapshot() {
+		TableCatalog catalog = catalog();
+		assertFalse(catalog.contains("7"));
+
+		putTable("7", "7");
+		assertTrue(catalog.contains("7"));
+		assertEquals(3, catalog.page(null, null).getItems().size());
+	}
+
+	private static TableCatalog catalog() {
+		return new TableCatalog(dynamoDb, TABLES_TABLE, Duration.ofHours(1), Metrics.forFunction("test"));
+	}
+
+	private static void putTable(String id, String number) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put("id", AttributeValue.fromS(id));
+		item.put("number", AttributeValue.fromN(number));
+		item.put("places", AttributeValue.fromN("4"));
+		item.put("isVip", AttributeValue.fromBool(false));
+		dynamoDb.putItem(put -> put.tableName(TABLES_TABLE).item(item));
+	}
+}
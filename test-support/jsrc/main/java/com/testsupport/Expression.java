@@ -0,0 +1,247 @@
+package com.testsupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DynamoDB condition, filter and key condition expressions over items held as Jackson trees
+ * ({@code {"S": "..."}} attribute values). Supports OR/AND/NOT, parentheses, the six comparators, BETWEEN,
+ * {@code attribute_exists}, {@code attribute_not_exists} and {@code begins_with}, with {@code #name}
+ * placeholders and {@code :value} operands. Paths are top-level attribute names.
+ */
+final class Expression {
+
+	private final Node root;
+
+	private Expression(Node root) {
+		this.root = root;
+	}
+
+	static Expression parse(String expression, Map<String, String> names, Map<String, JsonNode> values) {
+		Parser parser = new Parser(tokenize(expression), names, values);
+		Node root = parser.or();
+		if (parser.position != parser.tokens.size()) {
+			throw new ServiceException("ValidationException",
+					"Unexpected token '" + parser.tokens.get(parser.position) + "' in " + expression);
+		}
+		return new Expression(root);
+	}
+
+	boolean matches(Map<String, JsonNode> item) {
+		return root.test(item);
+	}
+
+	static int compare(JsonNode left, JsonNode right) {
+		if (left.has("N") && right.has("N")) {
+			return new BigDecimal(left.get("N").asText()).compareTo(new BigDecimal(right.get("N").asText()));
+		}
+		if (left.has("S") && right.has("S")) {
+			return left.get("S").asText().compareTo(right.get("S").asText());
+		}
+		throw new ServiceException("ValidationException", "Cannot compare " + left + " with " + right);
+	}
+
+	private static List<String> tokenize(String expression) {
+		List<String> tokens = new ArrayList<>();
+		int i = 0;
+		while (i < expression.length()) {
+			char c = expression.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (c == '(' || c == ')' || c == ',' || c == '=') {
+				tokens.add(String.valueOf(c));
+				i++;
+			} else if (c == '<' || c == '>') {
+				int end = i + 1 < expression.length() && (expression.charAt(i + 1) == '=' || expression.charAt(i + 1) == '>') ? i + 2 : i + 1;
+				tokens.add(expression.substring(i, end));
+				i = end;
+			} else {
+				int start = i;
+				while (i < expression.length() && "()<>=, \t\r\n".indexOf(expression.charAt(i)) < 0) {
+					i++;
+				}
+				tokens.add(expression.substring(start, i));
+			}
+		}
+		return tokens;
+	}
+
+	private interface Node {
+		boolean test(Map<String, JsonNode> item);
+	}
+
+	private interface Operand {
+		JsonNode resolve(Map<String, JsonNode> item);
+	}
+
+	private static final class Parser {
+		private final List<String> tokens;
+		private final Map<String, String> names;
+		private final Map<String, JsonNode> values;
+		private int position;
+
+		private Parser(List<String> tokens, Map<String, String> names, Map<String, JsonNode> values) {
+			this.tokens = tokens;
+			this.names = names;
+			this.values = values;
+		}
+
+		private Node or() {
+			Node left = and();
+			while (acceptKeyword("OR")) {
+				Node first = left;
+				Node second = and();
+				left = item -> first.test(item) || second.test(item);
+			}
+			return left;
+		}
+
+		private Node and() {
+			Node left = not();
+			while (acceptKeyword("AND")) {
+				Node first = left;
+				Node second = not();
+				left = item -> first.test(item) && second.test(item);
+			}
+			return left;
+		}
+
+		private Node not() {
+			if (acceptKeyword("NOT")) {
+				Node negated = not();
+				return item -> !negated.test(item);
+			}
+			return primary();
+		}
+
+		private Node primary() {
+			if (accept("(")) {
+				Node inner = or();
+				expect(")");
+				return inner;
+			}
+			String token = next();
+			if ("attribute_exists".equals(token) || "attribute_not_exists".equals(token)) {
+				expect("(");
+				String name = name(next());
+				expect(")");
+				boolean exists = "attribute_exists".equals(token);
+				return item -> item.containsKey(name) == exists;
+			}
+			if ("begins_with".equals(token)) {
+				expect("(");
+				Operand path = operand(next());
+				expect(",");
+				Operand prefix = operand(next());
+				expect(")");
+				return item -> {
+					JsonNode value = path.resolve(item);
+					JsonNode start = prefix.resolve(item);
+					return value != null && start != null && value.has("S") && start.has("S")
+							&& value.get("S").asText().startsWith(start.get("S").asText());
+				};
+			}
+
+			Operand left = operand(token);
+			String comparator = next();
+			if ("BETWEEN".equalsIgnoreCase(comparator)) {
+				Operand low = operand(next());
+				if (!acceptKeyword("AND")) {
+					throw error("Expected AND in BETWEEN");
+				}
+				Operand high = operand(next());
+				return item -> {
+					JsonNode value = left.resolve(item);
+					return value != null && compare(value, low.resolve(item)) >= 0 && compare(value, high.resolve(item)) <= 0;
+				};
+			}
+			Operand right = operand(next());
+			switch (comparator) {
+				case "=":
+					return item -> {
+						JsonNode value = left.resolve(item);
+						return value != null && value.equals(right.resolve(item));
+					};
+				case "<>":
+					return item -> {
+						JsonNode value = left.resolve(item);
+						return value == null || !value.equals(right.resolve(item));
+					};
+				case "<":
+					return item -> ordered(left, right, item) && compare(left.resolve(item), right.resolve(item)) < 0;
+				case "<=":
+					return item -> ordered(left, right, item) && compare(left.resolve(item), right.resolve(item)) <= 0;
+				case ">":
+					return item -> ordered(left, right, item) && compare(left.resolve(item), right.resolve(item)) > 0;
+				case ">=":
+					return item -> ordered(left, right, item) && compare(left.resolve(item), right.resolve(item)) >= 0;
+				default:
+					throw error("Unsupported comparator " + comparator);
+			}
+		}
+
+		private static boolean ordered(Operand left, Operand right, Map<String, JsonNode> item) {
+			return left.resolve(item) != null && right.resolve(item) != null;
+		}
+
+		private Operand operand(String token) {
+			if (token.startsWith(":")) {
+				JsonNode value = values.get(token);
+				if (value == null) {
+					throw error("Missing value for " + token);
+				}
+				return item -> value;
+			}
+			String name = name(token);
+			return item -> item.get(name);
+		}
+
+		private String name(String token) {
+			if (token.startsWith("#")) {
+				String name = names.get(token);
+				if (name == null) {
+					throw error("Missing name for " + token);
+				}
+				return name;
+			}
+			return token;
+		}
+
+		private boolean acceptKeyword(String keyword) {
+			if (position < tokens.size() && keyword.equalsIgnoreCase(tokens.get(position))) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		private boolean accept(String token) {
+			if (position < tokens.size() && token.equals(tokens.get(position))) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(String token) {
+			if (!accept(token)) {
+				throw error("Expected '" + token + "'");
+			}
+		}
+
+		private String next() {
+			if (position == tokens.size()) {
+				throw error("Unexpected end of expression");
+			}
+			return tokens.get(position++);
+		}
+
+		private RuntimeException error(String message) {
+			return new ServiceException("ValidationException", message + " in " + String.join(" ", tokens));
+		}
+	}
+}
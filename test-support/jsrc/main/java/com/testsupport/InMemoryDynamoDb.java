@@ -0,0 +1,618 @@
+package com.testsupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory stand-in for the DynamoDB JSON API ({@code X-Amz-Target: DynamoDB_20120810.*}), enough for
+ * the handlers in this repository: PutItem, GetItem, UpdateItem, DeleteItem, BatchWriteItem, TransactWriteItems
+ * (Put, Update, Delete and ConditionCheck actions), Scan (with segments), Query (on tables and global indexes) and
+ * CreateTable, with condition, filter, key condition and projection expressions. Update expressions are limited to
+ * {@code SET} of values and attributes. Tables come from CreateTable or from a syndicate deployment_resources.json, whose
+ * {@code ${alias}} names are resolved from environment variables of the same name.
+ * <p>
+ * Queries evaluate the key condition against every item of the table, so latency grows with table size
+ * the way a scan would; keep that in mind when comparing numbers with the real service.
+ */
+public final class InMemoryDynamoDb {
+
+	private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+	private static final Pattern ALIAS = Pattern.compile("\\$\\{([^}]+)}");
+	private static final int MAX_TRANSACT_ITEMS = 100;
+
+	private final Map<String, Table> tables = new ConcurrentHashMap<>();
+	private final Set<String> transactionItems = ConcurrentHashMap.newKeySet();
+
+	public void createTable(String name, String hashKey, String rangeKey) {
+		tables.putIfAbsent(name, new Table(name, new KeySchema(hashKey, rangeKey)));
+	}
+
+	public void createIndex(String tableName, String indexName, String hashKey, String rangeKey) {
+		table(tableName).indexes.put(indexName, new KeySchema(hashKey, rangeKey));
+	}
+
+	/**
+	 * Creates every {@code dynamodb_table} of a syndicate deployment_resources.json.
+	 */
+	public void loadTables(ObjectMapper objectMapper, Path deploymentResources) throws IOException {
+		JsonNode resources = objectMapper.readTree(deploymentResources.toFile());
+		for (Iterator<Map.Entry<String, JsonNode>> it = resources.fields(); it.hasNext(); ) {
+			Map.Entry<String, JsonNode> resource = it.next();
+			JsonNode definition = resource.getValue();
+			if (!"dynamodb_table".equals(definition.path("resource_type").asText())) {
+				continue;
+			}
+			String name = resolveAliases(resource.getKey());
+			createTable(name, definition.get("hash_key_name").asText(), textOrNull(definition.get("sort_key_name")));
+			for (JsonNode index : definition.path("global_indexes")) {
+				createIndex(name, index.get("name").asText(), index.get("index_key_name").asText(),
+						textOrNull(index.get("index_sort_key_name")));
+			}
+		}
+	}
+
+	public Map<String, Integer> itemCounts() {
+		Map<String, Integer> counts = new TreeMap<>();
+		for (Table table : tables.values()) {
+			synchronized (table) {
+				counts.put(table.name, table.items.size());
+			}
+		}
+		return counts;
+	}
+
+	public JsonNode handle(String operation, JsonNode request) {
+		switch (operation) {
+			case "PutItem":
+				return putItem(request);
+			case "GetItem":
+				return getItem(request);
+			case "UpdateItem":
+				return updateItem(request);
+			case "DeleteItem":
+				return deleteItem(request);
+			case "BatchWriteItem":
+				return batchWriteItem(request);
+			case "TransactWriteItems":
+				return transactWriteItems(request);
+			case "Scan":
+				return scan(request);
+			case "Query":
+				return query(request);
+			case "CreateTable":
+				return createTable(request);
+			default:
+				throw new ServiceException("UnknownOperationException", "Unsupported operation " + operation);
+		}
+	}
+
+	private JsonNode putItem(JsonNode request) {
+		Table table = table(request.path("TableName").asText());
+		Map<String, JsonNode> item = toItem(request.get("Item"));
+		Map<String, JsonNode> previous;
+		synchronized (table) {
+			String key = table.schema.key(item);
+			previous = table.items.get(key);
+			checkCondition(request, previous);
+			table.items.put(key, item);
+		}
+		return returnValues(request, previous);
+	}
+
+	private JsonNode getItem(JsonNode request) {
+		Table table = table(request.path("TableName").asText());
+		Map<String, JsonNode> item;
+		synchronized (table) {
+			item = table.items.get(table.schema.key(toItem(request.get("Key"))));
+		}
+		ObjectNode response = NODES.objectNode();
+		if (item != null) {
+			response.set("Item", toNode(project(request, item)));
+		}
+		return response;
+	}
+
+	private JsonNode updateItem(JsonNode request) {
+		Table table = table(request.path("TableName").asText());
+		Map<String, JsonNode> key = toItem(request.get("Key"));
+		Map<String, JsonNode> previous;
+		synchronized (table) {
+			String itemKey = table.schema.key(key);
+			previous = table.items.get(itemKey);
+			checkCondition(request, previous);
+			table.items.put(itemKey, updated(request, previous, table.schema.keyAttributes(key)));
+		}
+		return returnValues(request, previous);
+	}
+
+	private JsonNode deleteItem(JsonNode request) {
+		Table table = table(request.path("TableName").asText());
+		Map<String, JsonNode> previous;
+		synchronized (table) {
+			String key = table.schema.key(toItem(request.get("Key")));
+			previous = table.items.get(key);
+			checkCondition(request, previous);
+			table.items.remove(key);
+		}
+		return returnValues(request, previous);
+	}
+
+	private JsonNode batchWriteItem(JsonNode request) {
+		for (Iterator<Map.Entry<String, JsonNode>> it = request.path("RequestItems").fields(); it.hasNext(); ) {
+			Map.Entry<String, JsonNode> writes = it.next();
+			Table table = table(writes.getKey());
+			synchronized (table) {
+				for (JsonNode write : writes.getValue()) {
+					if (write.has("PutRequest")) {
+						Map<String, JsonNode> item = toItem(write.get("PutRequest").get("Item"));
+						table.items.put(table.schema.key(item), item);
+					} else {
+						table.items.remove(table.schema.key(toItem(write.get("DeleteRequest").get("Key"))));
+					}
+				}
+			}
+		}
+		ObjectNode response = NODES.objectNode();
+		response.putObject("UnprocessedItems");
+		return response;
+	}
+
+	/**
+	 * Applies every action or none. An item already named by another transaction in flight cancels this one with
+	 * TransactionConflict, the way the service does; the conditions are then evaluated with all involved tables
+	 * locked, and a failing one cancels the request with a CancellationReason per action.
+	 */
+	private JsonNode transactWriteItems(JsonNode request) {
+		List<TransactAction> actions = new ArrayList<>();
+		Set<String> keys = new HashSet<>();
+		for (JsonNode transactItem : request.path("TransactItems")) {
+			TransactAction action = transactAction(transactItem);
+			if (!keys.add(action.lockKey())) {
+				throw new ServiceException("ValidationException", "Transaction request cannot include multiple operations on one item");
+			}
+			actions.add(action);
+		}
+		if (actions.isEmpty() || actions.size() > MAX_TRANSACT_ITEMS) {
+			throw new ServiceException("ValidationException", "TransactItems must have between 1 and " + MAX_TRANSACT_ITEMS + " items");
+		}
+
+		int claimed = 0;
+		try {
+			for (; claimed < actions.size(); claimed++) {
+				if (!transactionItems.add(actions.get(claimed).lockKey())) {
+					String[] codes = new String[actions.size()];
+					codes[claimed] = "TransactionConflict";
+					throw cancelled(actions, codes);
+				}
+			}
+			List<Table> involved = new ArrayList<>();
+			for (TransactAction action : actions) {
+				if (!involved.contains(action.table)) {
+					involved.add(action.table);
+				}
+			}
+			involved.sort(Comparator.comparing(table -> table.name));
+			return inTableLocks(involved, 0, () -> commit(actions));
+		} finally {
+			for (int i = 0; i < claimed; i++) {
+				transactionItems.remove(actions.get(i).lockKey());
+			}
+		}
+	}
+
+	private TransactAction transactAction(JsonNode transactItem) {
+		Iterator<String> types = transactItem.fieldNames();
+		String type = types.hasNext() ? types.next() : "";
+		if (!type.equals("Put") && !type.equals("Update") && !type.equals("Delete") && !type.equals("ConditionCheck")) {
+			throw new ServiceException("ValidationException", "Unsupported transaction action " + type);
+		}
+		JsonNode action = transactItem.get(type);
+		Table table = table(action.path("TableName").asText());
+		Map<String, JsonNode> item = type.equals("Put") ? toItem(action.get("Item")) : null;
+		String key = table.schema.key(item == null ? toItem(action.get("Key")) : item);
+		return new TransactAction(type, action, table, key, item);
+	}
+
+	/**
+	 * Locks tables in name order, so two transactions over the same tables cannot deadlock.
+	 */
+	private static JsonNode inTableLocks(List<Table> tables, int next, Supplier<JsonNode> body) {
+		if (next == tables.size()) {
+			return body.get();
+		}
+		synchronized (tables.get(next)) {
+			return inTableLocks(tables, next + 1, body);
+		}
+	}
+
+	private static JsonNode commit(List<TransactAction> actions) {
+		String[] codes = new String[actions.size()];
+		boolean failed = false;
+		for (int i = 0; i < actions.size(); i++) {
+			TransactAction action = actions.get(i);
+			Map<String, JsonNode> current = action.table.items.get(action.key);
+			Expression condition = expression(action.request, "ConditionExpression");
+			if (condition != null && !condition.matches(current == null ? Collections.emptyMap() : current)) {
+				codes[i] = "ConditionalCheckFailed";
+				failed = true;
+			}
+		}
+		if (failed) {
+			throw cancelled(actions, codes);
+		}
+		for (TransactAction action : actions) {
+			if (action.type.equals("Put")) {
+				action.table.items.put(action.key, action.item);
+			} else if (action.type.equals("Update")) {
+				action.table.items.put(action.key, updated(action.request, action.table.items.get(action.key),
+						action.table.schema.keyAttributes(toItem(action.request.get("Key")))));
+			} else if (action.type.equals("Delete")) {
+				action.table.items.remove(action.key);
+			}
+		}
+		return NODES.objectNode();
+	}
+
+	/**
+	 * @param codes cancellation code per action, null for the ones that did not fail
+	 */
+	private static ServiceException cancelled(List<TransactAction> actions, String[] codes) {
+		ObjectNode details = NODES.objectNode();
+		ArrayNode reasons = details.putArray("CancellationReasons");
+		List<String> summary = new ArrayList<>();
+		for (int i = 0; i < codes.length; i++) {
+			ObjectNode reason = reasons.addObject();
+			if (codes[i] == null) {
+				reason.put("Code", "None");
+				summary.add("None");
+				continue;
+			}
+			reason.put("Code", codes[i]);
+			reason.put("Message", codes[i].equals("TransactionConflict")
+					? "Transaction is ongoing for the item" : "The conditional request failed");
+			TransactAction action = actions.get(i);
+			Map<String, JsonNode> current = action.table.items.get(action.key);
+			if (current != null && "ALL_OLD".equals(action.request.path("ReturnValuesOnConditionCheckFailure").asText())) {
+				reason.set("Item", toNode(current));
+			}
+			summary.add(codes[i]);
+		}
+		return new ServiceException("TransactionCanceledException",
+				"Transaction cancelled, please refer cancellation reasons for specific reasons " + summary, details);
+	}
+
+	private JsonNode createTable(JsonNode request) {
+		String name = request.path("TableName").asText();
+		createTable(name, keyName(request.get("KeySchema"), "HASH"), keyName(request.get("KeySchema"), "RANGE"));
+		for (JsonNode index : request.path("GlobalSecondaryIndexes")) {
+			createIndex(name, index.get("IndexName").asText(), keyName(index.get("KeySchema"), "HASH"),
+					keyName(index.get("KeySchema"), "RANGE"));
+		}
+		ObjectNode response = NODES.objectNode();
+		response.putObject("TableDescription").put("TableName", name).put("TableStatus", "ACTIVE");
+		return response;
+	}
+
+	private JsonNode scan(JsonNode request) {
+		Table table = table(request.path("TableName").asText());
+		KeySchema index = index(table, request);
+		int totalSegments = request.path("TotalSegments").asInt(1);
+		int segment = request.path("Segment").asInt(0);
+
+		List<Map<String, JsonNode>> candidates = new ArrayList<>();
+		synchronized (table) {
+			NavigableMap<String, Map<String, JsonNode>> items = table.items;
+			if (index == null && request.has("ExclusiveStartKey")) {
+				items = items.tailMap(table.schema.key(toItem(request.get("ExclusiveStartKey"))), false);
+			}
+			for (Map.Entry<String, Map<String, JsonNode>> entry : items.entrySet()) {
+				if (Math.floorMod(entry.getKey().hashCode(), totalSegments) == segment
+						&& (index == null || index.covers(entry.getValue()))) {
+					candidates.add(entry.getValue());
+				}
+			}
+		}
+		if (index != null) {
+			candidates = afterStartKey(candidates, Comparator.comparing(table.schema::key), request);
+		}
+		return page(table, index, candidates, request);
+	}
+
+	private JsonNode query(JsonNode request) {
+		Table table = table(request.path("TableName").asText());
+		KeySchema index = index(table, request);
+		KeySchema schema = index == null ? table.schema : index;
+		Expression keyCondition = expression(request, "KeyConditionExpression");
+		if (keyCondition == null) {
+			throw new ServiceException("ValidationException", "Query requires a KeyConditionExpression");
+		}
+
+		List<Map<String, JsonNode>> candidates = new ArrayList<>();
+		synchronized (table) {
+			for (Map<String, JsonNode> item : table.items.values()) {
+				if (schema.covers(item) && keyCondition.matches(item)) {
+					candidates.add(item);
+				}
+			}
+		}
+		Comparator<Map<String, JsonNode>> order = Comparator.comparing(table.schema::key);
+		if (schema.rangeKey != null) {
+			order = Comparator.<Map<String, JsonNode>, JsonNode>comparing(item -> item.get(schema.rangeKey), Expression::compare)
+					.thenComparing(order);
+		}
+		if (!request.path("ScanIndexForward").asBoolean(true)) {
+			order = order.reversed();
+		}
+		candidates.sort(order);
+		return page(table, index, afterStartKey(candidates, order, request), request);
+	}
+
+	private JsonNode page(Table table, KeySchema index, List<Map<String, JsonNode>> candidates, JsonNode request) {
+		int limit = request.path("Limit").asInt(Integer.MAX_VALUE);
+		Expression filter = expression(request, "FilterExpression");
+
+		ArrayNode items = NODES.arrayNode();
+		int scanned = Math.min(limit, candidates.size());
+		for (int i = 0; i < scanned; i++) {
+			Map<String, JsonNode> item = candidates.get(i);
+			if (filter == null || filter.matches(item)) {
+				items.add(toNode(project(request, item)));
+			}
+		}
+
+		ObjectNode response = NODES.objectNode();
+		response.set("Items", items);
+		response.put("Count", items.size());
+		response.put("ScannedCount", scanned);
+		if (scanned < candidates.size()) {
+			Map<String, JsonNode> last = candidates.get(scanned - 1);
+			Map<String, JsonNode> lastKey = table.schema.keyAttributes(last);
+			if (index != null) {
+				lastKey.putAll(index.keyAttributes(last));
+			}
+			response.set("LastEvaluatedKey", toNode(lastKey));
+		}
+		return response;
+	}
+
+	/**
+	 * @return the candidates that sort after ExclusiveStartKey, which need not be one of them
+	 */
+	private static List<Map<String, JsonNode>> afterStartKey(List<Map<String, JsonNode>> candidates,
+															 Comparator<Map<String, JsonNode>> order, JsonNode request) {
+		if (!request.has("ExclusiveStartKey")) {
+			return candidates;
+		}
+		Map<String, JsonNode> startKey = toItem(request.get("ExclusiveStartKey"));
+		int first = 0;
+		while (first < candidates.size() && order.compare(candidates.get(first), startKey) <= 0) {
+			first++;
+		}
+		return candidates.subList(first, candidates.size());
+	}
+
+	private Table table(String name) {
+		Table table = tables.get(name);
+		if (table == null) {
+			throw new ServiceException("ResourceNotFoundException", "Requested resource not found: Table: " + name + " not found");
+		}
+		return table;
+	}
+
+	private static KeySchema index(Table table, JsonNode request) {
+		if (!request.hasNonNull("IndexName")) {
+			return null;
+		}
+		KeySchema index = table.indexes.get(request.get("IndexName").asText());
+		if (index == null) {
+			throw new ServiceException("ValidationException",
+					"The table does not have the specified index: " + request.get("IndexName").asText());
+		}
+		return index;
+	}
+
+	private static void checkCondition(JsonNode request, Map<String, JsonNode> current) {
+		Expression condition = expression(request, "ConditionExpression");
+		if (condition != null && !condition.matches(current == null ? Collections.emptyMap() : current)) {
+			throw new ServiceException("ConditionalCheckFailedException", "The conditional request failed");
+		}
+	}
+
+	private static Expression expression(JsonNode request, String field) {
+		if (!request.hasNonNull(field)) {
+			return null;
+		}
+		Map<String, String> names = new HashMap<>();
+		for (Iterator<Map.Entry<String, JsonNode>> it = request.path("ExpressionAttributeNames").fields(); it.hasNext(); ) {
+			Map.Entry<String, JsonNode> name = it.next();
+			names.put(name.getKey(), name.getValue().asText());
+		}
+		return Expression.parse(request.get(field).asText(), names, toItem(request.get("ExpressionAttributeValues")));
+	}
+
+	/**
+	 * @return {@code current}, or a new item with the key attributes when there is none, after the
+	 * {@code SET a = :value, #b = c} assignments of the update expression
+	 */
+	private static Map<String, JsonNode> updated(JsonNode request, Map<String, JsonNode> current, Map<String, JsonNode> key) {
+		Map<String, JsonNode> item = new LinkedHashMap<>(current == null ? key : current);
+		String expression = request.path("UpdateExpression").asText().trim();
+		if (!expression.regionMatches(true, 0, "SET ", 0, 4)) {
+			throw new ServiceException("ValidationException", "Unsupported update expression " + expression);
+		}
+		JsonNode names = request.path("ExpressionAttributeNames");
+		Map<String, JsonNode> values = toItem(request.get("ExpressionAttributeValues"));
+		for (String assignment : expression.substring(4).split(",")) {
+			String[] sides = assignment.split("=");
+			if (sides.length != 2) {
+				throw new ServiceException("ValidationException", "Unsupported update expression " + expression);
+			}
+			String name = sides[0].trim();
+			if (name.startsWith("#")) {
+				name = names.path(name).asText(name);
+			}
+			if (key.containsKey(name)) {
+				throw new ServiceException("ValidationException", "Cannot update attribute " + name + ". This attribute is part of the key");
+			}
+			String operand = sides[1].trim();
+			JsonNode value = operand.startsWith(":") ? values.get(operand)
+					: current == null ? null : current.get(operand.startsWith("#") ? names.path(operand).asText(operand) : operand);
+			if (value == null) {
+				throw new ServiceException("ValidationException", "Missing value for " + operand + " in " + expression);
+			}
+			item.put(name, value);
+		}
+		return item;
+	}
+
+	private static Map<String, JsonNode> project(JsonNode request, Map<String, JsonNode> item) {
+		if (!request.hasNonNull("ProjectionExpression")) {
+			return item;
+		}
+		JsonNode names = request.path("ExpressionAttributeNames");
+		Map<String, JsonNode> projected = new LinkedHashMap<>();
+		for (String token : request.get("ProjectionExpression").asText().split(",")) {
+			String name = token.trim();
+			if (name.startsWith("#")) {
+				name = names.path(name).asText(name);
+			}
+			JsonNode value = item.get(name);
+			if (value != null) {
+				projected.put(name, value);
+			}
+		}
+		return projected;
+	}
+
+	private static JsonNode returnValues(JsonNode request, Map<String, JsonNode> previous) {
+		ObjectNode response = NODES.objectNode();
+		if (previous != null && "ALL_OLD".equals(request.path("ReturnValues").asText())) {
+			response.set("Attributes", toNode(previous));
+		}
+		return response;
+	}
+
+	private static Map<String, JsonNode> toItem(JsonNode node) {
+		Map<String, JsonNode> item = new LinkedHashMap<>();
+		if (node != null) {
+			for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+				Map.Entry<String, JsonNode> attribute = it.next();
+				item.put(attribute.getKey(), attribute.getValue());
+			}
+		}
+		return item;
+	}
+
+	private static ObjectNode toNode(Map<String, JsonNode> item) {
+		ObjectNode node = NODES.objectNode();
+		node.setAll(item);
+		return node;
+	}
+
+	private static String keyName(JsonNode keySchema, String keyType) {
+		for (JsonNode key : keySchema) {
+			if (keyType.equals(key.path("KeyType").asText())) {
+				return key.get("AttributeName").asText();
+			}
+		}
+		return null;
+	}
+
+	private static String textOrNull(JsonNode node) {
+		return node == null || node.isNull() || node.asText().isEmpty() ? null : node.asText();
+	}
+
+	private static String resolveAliases(String name) {
+		Matcher matcher = ALIAS.matcher(name);
+		StringBuffer resolved = new StringBuffer();
+		while (matcher.find()) {
+			String value = System.getenv(matcher.group(1));
+			matcher.appendReplacement(resolved, Matcher.quoteReplacement(value == null ? matcher.group(1) : value));
+		}
+		return matcher.appendTail(resolved).toString();
+	}
+
+	private static final class Table {
+		private final String name;
+		private final KeySchema schema;
+		private final Map<String, KeySchema> indexes = new ConcurrentHashMap<>();
+		private final NavigableMap<String, Map<String, JsonNode>> items = new TreeMap<>();
+
+		private Table(String name, KeySchema schema) {
+			this.name = name;
+			this.schema = schema;
+		}
+	}
+
+	private static final class TransactAction {
+		private final String type;
+		private final JsonNode request;
+		private final Table table;
+		private final String key;
+		private final Map<String, JsonNode> item;
+
+		private TransactAction(String type, JsonNode request, Table table, String key, Map<String, JsonNode> item) {
+			this.type = type;
+			this.request = request;
+			this.table = table;
+			this.key = key;
+			this.item = item;
+		}
+
+		private String lockKey() {
+			return table.name + "\u0000" + key;
+		}
+	}
+
+	private static final class KeySchema {
+		private final String hashKey;
+		private final String rangeKey;
+
+		private KeySchema(String hashKey, String rangeKey) {
+			this.hashKey = hashKey;
+			this.rangeKey = rangeKey;
+		}
+
+		private boolean covers(Map<String, JsonNode> item) {
+			return item.containsKey(hashKey) && (rangeKey == null || item.containsKey(rangeKey));
+		}
+
+		private String key(Map<String, JsonNode> item) {
+			if (!covers(item)) {
+				throw new ServiceException("ValidationException", "One of the required keys was not given a value");
+			}
+			return rangeKey == null ? item.get(hashKey).toString() : item.get(hashKey) + "\u0001" + item.get(rangeKey);
+		}
+
+		private Map<String, JsonNode> keyAttributes(Map<String, JsonNode> item) {
+			Map<String, JsonNode> key = new LinkedHashMap<>();
+			key.put(hashKey, item.get(hashKey));
+			if (rangeKey != null) {
+				key.put(rangeKey, item.get(rangeKey));
+			}
+			return key;
+		}
+	}
+}
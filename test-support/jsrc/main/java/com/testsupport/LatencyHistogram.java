@@ -0,0 +1,98 @@
+package com.testsupport;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free latency histogram with HdrHistogram-style log-linear buckets: exact below 16 microseconds,
+ * then 16 buckets per power of two, so every percentile is within 7% of the recorded value.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	private static final int BAR_WIDTH = 40;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public void record(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		counts.incrementAndGet(index(micros));
+		max.accumulate(micros);
+	}
+
+	public long count() {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			total += counts.get(i);
+		}
+		return total;
+	}
+
+	/**
+	 * @return upper bound in microseconds of the bucket that holds the given percentile (0-100)
+	 */
+	public long percentile(double percentile) {
+		long total = count();
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(lowerBound(i + 1) - 1, max.get());
+			}
+		}
+		return max.get();
+	}
+
+	public long max() {
+		return max.get();
+	}
+
+	/**
+	 * Prints one bar per power of two, in milliseconds.
+	 */
+	public void printBars(PrintStream out) {
+		long[] octaves = new long[64];
+		long largest = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			long count = counts.get(i);
+			if (count > 0) {
+				int octave = 63 - Long.numberOfLeadingZeros(Math.max(1, lowerBound(i)));
+				octaves[octave] += count;
+				largest = Math.max(largest, octaves[octave]);
+			}
+		}
+		for (int octave = 0; octave < 64; octave++) {
+			if (octaves[octave] > 0) {
+				int width = (int) Math.max(1, octaves[octave] * BAR_WIDTH / largest);
+				out.printf(Locale.ROOT, "  %9.3f - %9.3f ms |%-" + BAR_WIDTH + "s %d%n",
+						(1L << octave) / 1000.0, (1L << (octave + 1)) / 1000.0, "#".repeat(width), octaves[octave]);
+			}
+		}
+	}
+
+	static int index(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int shift = exponent - SUB_BUCKET_BITS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	static long lowerBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		return (long) (SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+	}
+}
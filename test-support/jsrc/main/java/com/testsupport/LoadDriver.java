@@ -0,0 +1,301 @@
+package com.testsupport;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for a handler running on a plain JVM. Events are rendered from JSON templates
+ * (API Gateway, SQS, SNS, DynamoDB stream or scheduled events, see test-support/events) at a fixed rate and
+ * invoked on a pool of workers, each with its own handler instance, the way concurrent Lambda environments
+ * would run them. Response time is measured from the moment a request was due, so queueing behind a
+ * saturated pool shows up in the percentiles; service time covers handleRequest only.
+ * <pre>
+ * endpoint_url=http://localhost:4566 forecast_url=http://localhost:4566/v1/forecast region=eu-west-1 \
+ * AWS_ACCESS_KEY_ID=local AWS_SECRET_ACCESS_KEY=local target_table=Events \
+ * java -cp test-support.jar:task05.jar com.testsupport.LoadDriver com.task05.ApiHandler \
+ *     test-support/events/task05-create-event.json --rps 200 --duration 60 \
+ *     --aws 4566 --resources task05/deployment_resources.json
+ * </pre>
+ * Several comma-separated templates are replayed round-robin. Templates may contain {@code {{seq}}},
+ * {@code {{uuid}}} and {@code {{int:MIN:MAX}}} placeholders. With {@code --aws PORT} a {@link LocalAws}
+ * is started in-process on that port, with the tables of every {@code --resources} file.
+ */
+public final class LoadDriver {
+
+	private static final int TIMEOUT_MILLIS = 30_000;
+
+	private final Class<?> handlerClass;
+	private final Method handleRequest;
+	private final JavaType inputType;
+	private final List<Template> templates;
+	private final ObjectMapper objectMapper;
+	private final ThreadLocal<Object> handlers;
+	private final AtomicLong sequence = new AtomicLong();
+	private final LatencyHistogram responseTimes = new LatencyHistogram();
+	private final LatencyHistogram serviceTimes = new LatencyHistogram();
+	private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+	private LoadDriver(Class<?> handlerClass, List<Template> templates) {
+		this.handlerClass = handlerClass;
+		this.handleRequest = StartupTimer.findHandleRequest(handlerClass);
+		this.templates = templates;
+		this.objectMapper = JsonMapper.builder()
+				.enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)
+				.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+				.build();
+		this.inputType = objectMapper.constructType(handleRequest.getGenericParameterTypes()[0]);
+		this.handlers = ThreadLocal.withInitial(this::newHandler);
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("usage: LoadDriver <handler class> <event.json>[,<event.json>...] [--rps N] [--duration S]"
+					+ " [--warmup S] [--concurrency N] [--aws PORT] [--resources deployment_resources.json]... [--latency-ms N]");
+			System.exit(2);
+		}
+		int rps = 50;
+		int durationSeconds = 30;
+		int warmupSeconds = 5;
+		int concurrency = 16;
+		int awsPort = -1;
+		long latencyMillis = 0;
+		List<String> resources = new ArrayList<>();
+		for (int i = 2; i < args.length; i++) {
+			switch (args[i]) {
+				case "--rps":
+					rps = Integer.parseInt(args[++i]);
+					break;
+				case "--duration":
+					durationSeconds = Integer.parseInt(args[++i]);
+					break;
+				case "--warmup":
+					warmupSeconds = Integer.parseInt(args[++i]);
+					break;
+				case "--concurrency":
+					concurrency = Integer.parseInt(args[++i]);
+					break;
+				case "--aws":
+					awsPort = Integer.parseInt(args[++i]);
+					break;
+				case "--resources":
+					resources.add(args[++i]);
+					break;
+				case "--latency-ms":
+					latencyMillis = Long.parseLong(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+
+		List<Template> templates = new ArrayList<>();
+		for (String file : args[1].split(",")) {
+			templates.add(Template.parse(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8)));
+		}
+
+		LocalAws aws = null;
+		if (awsPort > 0) {
+			aws = new LocalAws(awsPort, LocalAws.userPoolName(), latencyMillis);
+			for (String file : resources) {
+				aws.dynamoDb().loadTables(aws.objectMapper(), Paths.get(file));
+			}
+			aws.start();
+		}
+		try {
+			LoadDriver driver = new LoadDriver(Class.forName(args[0]), templates);
+			driver.run(rps, warmupSeconds, durationSeconds, concurrency);
+			if (aws != null) {
+				System.out.println("emulator calls " + aws.callCounts());
+				System.out.println("table items    " + aws.dynamoDb().itemCounts());
+				System.out.println("s3 objects     " + aws.s3().objectCount() + ", cognito users " + aws.cognito().userCount());
+			}
+		} finally {
+			if (aws != null) {
+				aws.close();
+			}
+		}
+	}
+
+	private void run(int rps, int warmupSeconds, int durationSeconds, int concurrency) throws InterruptedException {
+		ThreadPoolExecutor workers = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>());
+		long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+		long total = (long) rps * (warmupSeconds + durationSeconds);
+		long start = System.nanoTime();
+		long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+		AtomicLong lastCompletion = new AtomicLong(measureFrom);
+
+		for (long i = 0; i < total; i++) {
+			long due = start + i * intervalNanos;
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			workers.execute(() -> {
+				invoke(due, due >= measureFrom);
+				lastCompletion.accumulateAndGet(System.nanoTime(), Math::max);
+			});
+		}
+		workers.shutdown();
+		workers.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+		report(rps, (lastCompletion.get() - measureFrom) / 1e9);
+	}
+
+	private void invoke(long due, boolean measured) {
+		long seq = sequence.incrementAndGet();
+		Template template = templates.get((int) (seq % templates.size()));
+		String outcome;
+		long serviceTime;
+		try {
+			Object input = objectMapper.readValue(template.render(seq), inputType);
+			Context context = new SimulatedContext(handlerClass.getSimpleName(), TIMEOUT_MILLIS);
+			long start = System.nanoTime();
+			try {
+				outcome = outcome(handleRequest.invoke(handlers.get(), input, context));
+			} catch (InvocationTargetException e) {
+				outcome = e.getCause().getClass().getSimpleName();
+			}
+			serviceTime = System.nanoTime() - start;
+		} catch (IOException | IllegalAccessException e) {
+			throw new IllegalStateException("Cannot invoke " + handlerClass.getName(), e);
+		}
+		if (measured) {
+			long now = System.nanoTime();
+			responseTimes.record(now - due);
+			serviceTimes.record(serviceTime);
+			outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+		}
+	}
+
+	/**
+	 * @return the HTTP status of API responses (Map or bean with a statusCode), otherwise "ok"
+	 */
+	private static String outcome(Object response) {
+		Object status = null;
+		if (response instanceof Map) {
+			status = ((Map<?, ?>) response).get("statusCode");
+		} else if (response != null) {
+			try {
+				status = response.getClass().getMethod("getStatusCode").invoke(response);
+			} catch (ReflectiveOperationException e) {
+				status = null;
+			}
+		}
+		return status == null ? "ok" : String.valueOf(status);
+	}
+
+	private Object newHandler() {
+		try {
+			return handlerClass.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create " + handlerClass.getName(), e);
+		}
+	}
+
+	private void report(int rps, double seconds) {
+		long count = responseTimes.count();
+		long errors = 0;
+		Map<String, Long> outcomeCounts = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> outcome : outcomes.entrySet()) {
+			long value = outcome.getValue().sum();
+			outcomeCounts.put(outcome.getKey(), value);
+			if (!outcome.getKey().equals("ok") && !outcome.getKey().matches("[1-4]\\d\\d")) {
+				errors += value;
+			}
+		}
+		System.out.println("handler        " + handlerClass.getName());
+		System.out.printf(Locale.ROOT, "requests       %d in %.2f s, %.1f req/s (target %d), %d errors%n",
+				count, seconds, count / Math.max(seconds, 1e-9), rps, errors);
+		System.out.println("outcomes       " + outcomeCounts);
+		System.out.println("latency (ms)     response     service");
+		for (double percentile : new double[]{50, 90, 99, 99.9}) {
+			System.out.printf(Locale.ROOT, "  p%-6s      %10.3f  %10.3f%n", format(percentile),
+					responseTimes.percentile(percentile) / 1000.0, serviceTimes.percentile(percentile) / 1000.0);
+		}
+		System.out.printf(Locale.ROOT, "  max          %10.3f  %10.3f%n", responseTimes.max() / 1000.0, serviceTimes.max() / 1000.0);
+		System.out.println("response time histogram");
+		responseTimes.printBars(System.out);
+	}
+
+	private static String format(double percentile) {
+		return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+	}
+
+	/**
+	 * Event text split into literal parts and placeholders, so rendering is one pass over the parts.
+	 */
+	private static final class Template {
+		private final List<String> literals;
+		private final List<String> placeholders;
+
+		private Template(List<String> literals, List<String> placeholders) {
+			this.literals = literals;
+			this.placeholders = placeholders;
+		}
+
+		private static Template parse(String text) {
+			List<String> literals = new ArrayList<>();
+			List<String> placeholders = new ArrayList<>();
+			int position = 0;
+			int open;
+			while ((open = text.indexOf("{{", position)) >= 0) {
+				int close = text.indexOf("}}", open);
+				if (close < 0) {
+					break;
+				}
+				literals.add(text.substring(position, open));
+				placeholders.add(text.substring(open + 2, close).trim());
+				position = close + 2;
+			}
+			literals.add(text.substring(position));
+			return new Template(literals, placeholders);
+		}
+
+		private String render(long sequence) {
+			StringBuilder out = new StringBuilder(256);
+			for (int i = 0; i < placeholders.size(); i++) {
+				out.append(literals.get(i)).append(value(placeholders.get(i), sequence));
+			}
+			return out.append(literals.get(placeholders.size())).toString();
+		}
+
+		private static String value(String placeholder, long sequence) {
+			if ("seq".equals(placeholder)) {
+				return Long.toString(sequence);
+			}
+			if ("uuid".equals(placeholder)) {
+				return UUID.randomUUID().toString();
+			}
+			if (placeholder.startsWith("int:")) {
+				String[] range = placeholder.split(":");
+				return Integer.toString(ThreadLocalRandom.current().nextInt(Integer.parseInt(range[1]), Integer.parseInt(range[2]) + 1));
+			}
+			throw new IllegalArgumentException("Unknown placeholder {{" + placeholder + "}}");
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package com.testsupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One local HTTP endpoint that stands in for every service the handlers call, so they run offline with
+ * {@code endpoint_url=http://localhost:<port>} (and {@code forecast_url} for the weather handlers):
+ * <ul>
+ *     <li>{@code X-Amz-Target: DynamoDB_20120810.*} - {@link InMemoryDynamoDb};</li>
+ *     <li>{@code X-Amz-Target: AWSCognitoIdentityProviderService.*} - {@link StubCognito};</li>
+ *     <li>{@code GET /v1/forecast} - {@link StubForecast}, the Open-Meteo upstream;</li>
+ *     <li>anything else - path-style {@link StubS3}.</li>
+ * </ul>
+ * Requests are not authenticated. An optional per-request delay approximates the network round trip.
+ * <pre>
+ * java -cp test-support.jar com.testsupport.LocalAws 4566 task11/deployment_resources.json [--latency-ms 5]
+ * </pre>
+ */
+public final class LocalAws implements AutoCloseable {
+
+	private static final String DYNAMODB_TARGET = "DynamoDB_20120810.";
+	private static final String COGNITO_TARGET = "AWSCognitoIdentityProviderService.";
+	private static final String DYNAMODB_ERROR_PREFIX = "com.amazonaws.dynamodb.v20120810#";
+	private static final int SERVER_THREADS = 64;
+	private static final int ACCEPT_BACKLOG = 1024;
+
+	static {
+		// The JDK server leaves Nagle on by default, so a response written in two parts waits about 40 ms for the
+		// client's delayed ACK on every kept-alive connection. Read once, when the first server is created.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final InMemoryDynamoDb dynamoDb = new InMemoryDynamoDb();
+	private final StubCognito cognito;
+	private final StubS3 s3 = new StubS3();
+	private final StubForecast forecast = new StubForecast();
+	private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+	private final long latencyMillis;
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	public LocalAws(int port, String userPoolName, long latencyMillis) throws IOException {
+		this.cognito = new StubCognito(userPoolName);
+		this.latencyMillis = latencyMillis;
+		this.executor = Executors.newFixedThreadPool(SERVER_THREADS, runnable -> {
+			Thread thread = new Thread(runnable, "local-aws");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.server = HttpServer.create(new InetSocketAddress("localhost", port), ACCEPT_BACKLOG);
+		this.server.createContext("/", this::handle);
+		this.server.setExecutor(executor);
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("usage: LocalAws <port> [deployment_resources.json ...] [--latency-ms N]");
+			System.exit(2);
+		}
+		long latencyMillis = 0;
+		for (int i = 1; i < args.length; i++) {
+			if ("--latency-ms".equals(args[i])) {
+				latencyMillis = Long.parseLong(args[++i]);
+			}
+		}
+		LocalAws aws = new LocalAws(Integer.parseInt(args[0]), userPoolName(), latencyMillis);
+		for (int i = 1; i < args.length; i++) {
+			if ("--latency-ms".equals(args[i])) {
+				i++;
+			} else {
+				aws.dynamoDb().loadTables(aws.objectMapper, Paths.get(args[i]));
+			}
+		}
+		aws.start();
+		System.out.println("Local AWS listening on http://localhost:" + args[0] + ", tables " + aws.dynamoDb().itemCounts().keySet());
+		Thread.currentThread().join();
+	}
+
+	/**
+	 * @return the pool name the Cognito handlers look up, {@code booking_userpool} from the environment
+	 */
+	public static String userPoolName() {
+		String name = System.getenv("booking_userpool");
+		return name == null || name.isEmpty() ? "booking_userpool" : name;
+	}
+
+	/**
+	 * @return the port the endpoint listens on, useful when it was created with port 0
+	 */
+	public int port() {
+		return server.getAddress().getPort();
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	public InMemoryDynamoDb dynamoDb() {
+		return dynamoDb;
+	}
+
+	public StubCognito cognito() {
+		return cognito;
+	}
+
+	public StubS3 s3() {
+		return s3;
+	}
+
+	public ObjectMapper objectMapper() {
+		return objectMapper;
+	}
+
+	/**
+	 * @return calls served so far, by {@code service.operation}
+	 */
+	public Map<String, Long> callCounts() {
+		Map<String, Long> counts = new TreeMap<>();
+		calls.forEach((operation, count) -> counts.put(operation, count.sum()));
+		return counts;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			byte[] body = readBody(exchange.getRequestBody());
+			if (latencyMillis > 0) {
+				Thread.sleep(latencyMillis);
+			}
+			String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+			String path = exchange.getRequestURI().getRawPath();
+			if (target != null && target.startsWith(DYNAMODB_TARGET)) {
+				String operation = target.substring(DYNAMODB_TARGET.length());
+				count("dynamodb." + operation);
+				handleJson(exchange, "application/x-amz-json-1.0", DYNAMODB_ERROR_PREFIX, () -> dynamoDb.handle(operation, readTree(body)));
+			} else if (target != null && target.startsWith(COGNITO_TARGET)) {
+				String operation = target.substring(COGNITO_TARGET.length());
+				count("cognito." + operation);
+				handleJson(exchange, "application/x-amz-json-1.1", "", () -> cognito.handle(operation, readTree(body)));
+			} else if (path.startsWith("/v1/forecast")) {
+				count("upstream.forecast");
+				send(exchange, 200, "application/json", forecast.body(exchange.getRequestURI().getRawQuery()));
+			} else {
+				count("s3." + exchange.getRequestMethod());
+				StubS3.Response response = s3.handle(exchange.getRequestMethod(), path, exchange.getRequestURI().getRawQuery(), body);
+				if (response.getEtag() != null) {
+					exchange.getResponseHeaders().set("ETag", "\"" + response.getEtag() + "\"");
+				}
+				send(exchange, response.getStatus(), response.getContentType(), response.getBody());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			send(exchange, 503, null, null);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void handleJson(HttpExchange exchange, String contentType, String errorPrefix, JsonCall call) throws IOException {
+		int status = 200;
+		JsonNode response;
+		try {
+			response = call.handle();
+		} catch (ServiceException e) {
+			status = 400;
+			ObjectNode error = error(errorPrefix + e.getType(), e.getMessage());
+			if (e.getDetails() != null) {
+				error.setAll(e.getDetails());
+			}
+			response = error;
+		} catch (RuntimeException e) {
+			status = 500;
+			response = error(errorPrefix + "InternalServerError", String.valueOf(e));
+		}
+		send(exchange, status, contentType, objectMapper.writeValueAsBytes(response));
+	}
+
+	private ObjectNode error(String type, String message) {
+		return objectMapper.createObjectNode().put("__type", type).put("message", message);
+	}
+
+	private JsonNode readTree(byte[] body) {
+		try {
+			return objectMapper.readTree(body);
+		} catch (IOException e) {
+			throw new ServiceException("SerializationException", e.getMessage());
+		}
+	}
+
+	private void count(String operation) {
+		calls.computeIfAbsent(operation, key -> new LongAdder()).increment();
+	}
+
+	private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("x-amzn-RequestId", UUID.randomUUID().toString());
+		if (contentType != null) {
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+		}
+		if (body == null || body.length == 0) {
+			exchange.sendResponseHeaders(status, -1);
+			return;
+		}
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static byte[] readBody(InputStream in) throws IOException {
+		try (InputStream body = in) {
+			return body.readAllBytes();
+		}
+	}
+
+	@FunctionalInterface
+	private interface JsonCall {
+		JsonNode handle();
+	}
+}
@@ -0,0 +1,34 @@
+package com.testsupport;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Error of an emulated AWS service, reported to the SDK as {@code {"__type": ..., "message": ...}} with HTTP 400.
+ * Errors that carry more members, such as the CancellationReasons of a cancelled transaction, add them as details.
+ */
+public final class ServiceException extends RuntimeException {
+
+	private final String type;
+	private final ObjectNode details;
+
+	public ServiceException(String type, String message) {
+		this(type, message, null);
+	}
+
+	public ServiceException(String type, String message, ObjectNode details) {
+		super(message);
+		this.type = type;
+		this.details = details;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return extra members of the error body, or null
+	 */
+	public ObjectNode getDetails() {
+		return details;
+	}
+}
@@ -0,0 +1,92 @@
+package com.testsupport;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Lambda Context for running handlers outside the Lambda runtime. Logs go to stdout.
+ */
+public class SimulatedContext implements Context {
+
+	private static final LambdaLogger STDOUT_LOGGER = new LambdaLogger() {
+		@Override
+		public void log(String message) {
+			System.out.println(message);
+		}
+
+		@Override
+		public void log(byte[] message) {
+			System.out.println(new String(message, StandardCharsets.UTF_8));
+		}
+	};
+
+	private final String functionName;
+	private final int timeoutMillis;
+	private final long startedAt = System.currentTimeMillis();
+	private final String requestId = UUID.randomUUID().toString();
+
+	public SimulatedContext(String functionName, int timeoutMillis) {
+		this.functionName = functionName;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	@Override
+	public String getAwsRequestId() {
+		return requestId;
+	}
+
+	@Override
+	public String getLogGroupName() {
+		return "/aws/lambda/" + functionName;
+	}
+
+	@Override
+	public String getLogStreamName() {
+		return "local";
+	}
+
+	@Override
+	public String getFunctionName() {
+		return functionName;
+	}
+
+	@Override
+	public String getFunctionVersion() {
+		return "$LATEST";
+	}
+
+	@Override
+	public String getInvokedFunctionArn() {
+		return "arn:aws:lambda:local:000000000000:function:" + functionName;
+	}
+
+	@Override
+	public CognitoIdentity getIdentity() {
+		return null;
+	}
+
+	@Override
+	public ClientContext getClientContext() {
+		return null;
+	}
+
+	@Override
+	public int getRemainingTimeInMillis() {
+		return (int) Math.max(0, timeoutMillis - (System.currentTimeMillis() - startedAt));
+	}
+
+	@Override
+	public int getMemoryLimitInMB() {
+		return 512;
+	}
+
+	@Override
+	public LambdaLogger getLogger() {
+		return STDOUT_LOGGER;
+	}
+}
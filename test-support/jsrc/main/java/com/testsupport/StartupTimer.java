@@ -0,0 +1,97 @@
+package com.testsupport;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.crac.Core;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Times the phases of a Lambda cold start on a plain JVM: handler class initialization, construction
+ * (the init phase), optional priming, and the first few invocations.
+ * <pre>
+ * priming_enabled=true java -cp test-support.jar:task11.jar com.testsupport.StartupTimer \
+ *     com.task11.ApiHandler event.json [invocations] [--prime]
+ * </pre>
+ * With --prime the CRaC global context is asked to run beforeCheckpoint/afterRestore on the registered
+ * resources, which is what SnapStart does around the snapshot. The event file is bound to the handler's
+ * input type with Jackson, which covers Map and plain bean inputs.
+ */
+public final class StartupTimer {
+
+	private static final int DEFAULT_INVOCATIONS = 3;
+	private static final int TIMEOUT_MILLIS = 30_000;
+
+	private StartupTimer() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("usage: StartupTimer <handler class> <event.json> [invocations] [--prime]");
+			System.exit(2);
+		}
+		long jvmUptime = ManagementFactory.getRuntimeMXBean().getUptime();
+		ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+		boolean prime = false;
+		int invocations = DEFAULT_INVOCATIONS;
+		for (int i = 2; i < args.length; i++) {
+			if ("--prime".equals(args[i])) {
+				prime = true;
+			} else {
+				invocations = Integer.parseInt(args[i]);
+			}
+		}
+
+		ObjectMapper objectMapper = new ObjectMapper();
+		byte[] event = Files.readAllBytes(Paths.get(args[1]));
+		report("jvm start", jvmUptime * 1_000_000, classLoading);
+
+		long start = System.nanoTime();
+		Class<?> handlerClass = Class.forName(args[0]);
+		report("class init", System.nanoTime() - start, classLoading);
+
+		start = System.nanoTime();
+		Object handler = handlerClass.getDeclaredConstructor().newInstance();
+		report("construct", System.nanoTime() - start, classLoading);
+
+		if (prime) {
+			start = System.nanoTime();
+			Core.getGlobalContext().beforeCheckpoint(null);
+			Core.getGlobalContext().afterRestore(null);
+			report("prime", System.nanoTime() - start, classLoading);
+		}
+
+		Method handleRequest = findHandleRequest(handlerClass);
+		String functionName = handlerClass.getSimpleName();
+		for (int i = 1; i <= invocations; i++) {
+			Object input = objectMapper.readValue(event, objectMapper.constructType(handleRequest.getGenericParameterTypes()[0]));
+			Context context = new SimulatedContext(functionName, TIMEOUT_MILLIS);
+			start = System.nanoTime();
+			try {
+				handleRequest.invoke(handler, input, context);
+			} catch (InvocationTargetException e) {
+				System.err.println("invocation " + i + " failed: " + e.getCause());
+			}
+			report("invoke #" + i, System.nanoTime() - start, classLoading);
+		}
+	}
+
+	static Method findHandleRequest(Class<?> handlerClass) {
+		for (Method method : handlerClass.getMethods()) {
+			if ("handleRequest".equals(method.getName()) && !method.isBridge()
+					&& method.getParameterCount() == 2 && method.getParameterTypes()[1] == Context.class) {
+				return method;
+			}
+		}
+		throw new IllegalArgumentException(handlerClass.getName() + " has no handleRequest(input, Context)");
+	}
+
+	private static void report(String phase, long nanos, ClassLoadingMXBean classLoading) {
+		System.out.printf("%-12s %10.2f ms %8d classes loaded%n", phase, nanos / 1e6, classLoading.getTotalLoadedClassCount());
+	}
+}
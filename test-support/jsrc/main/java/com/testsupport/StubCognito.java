@@ -0,0 +1,103 @@
+package com.testsupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for the Cognito user pool API ({@code X-Amz-Target: AWSCognitoIdentityProviderService.*}) with one
+ * user pool and one app client: ListUserPools, ListUserPoolClients, AdminCreateUser, AdminSetUserPassword and
+ * AdminInitiateAuth. Issued tokens are unsigned JWTs whose payload carries the user's email.
+ */
+public final class StubCognito {
+
+	public static final String USER_POOL_ID = "local_pool";
+	public static final String CLIENT_ID = "localclient";
+
+	private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+	private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+	private final String userPoolName;
+	private final Map<String, String> passwords = new ConcurrentHashMap<>();
+
+	public StubCognito(String userPoolName) {
+		this.userPoolName = userPoolName;
+	}
+
+	public int userCount() {
+		return passwords.size();
+	}
+
+	public JsonNode handle(String operation, JsonNode request) {
+		ObjectNode response = NODES.objectNode();
+		switch (operation) {
+			case "ListUserPools":
+				response.putArray("UserPools").addObject().put("Id", USER_POOL_ID).put("Name", userPoolName);
+				return response;
+			case "ListUserPoolClients":
+				checkPool(request);
+				response.putArray("UserPoolClients").addObject()
+						.put("ClientId", CLIENT_ID).put("UserPoolId", USER_POOL_ID).put("ClientName", "local");
+				return response;
+			case "AdminCreateUser": {
+				checkPool(request);
+				String username = request.path("Username").asText();
+				if (passwords.putIfAbsent(username, UUID.randomUUID().toString()) != null) {
+					throw new ServiceException("UsernameExistsException", "User account already exists");
+				}
+				response.putObject("User").put("Username", username).put("Enabled", true)
+						.put("UserStatus", "FORCE_CHANGE_PASSWORD");
+				return response;
+			}
+			case "AdminSetUserPassword": {
+				checkPool(request);
+				String username = request.path("Username").asText();
+				if (passwords.replace(username, request.path("Password").asText()) == null) {
+					throw new ServiceException("UserNotFoundException", "User does not exist.");
+				}
+				return response;
+			}
+			case "AdminInitiateAuth": {
+				checkPool(request);
+				if (!CLIENT_ID.equals(request.path("ClientId").asText())) {
+					throw new ServiceException("ResourceNotFoundException", "User pool client does not exist.");
+				}
+				String username = request.path("AuthParameters").path("USERNAME").asText();
+				String password = request.path("AuthParameters").path("PASSWORD").asText();
+				if (!password.equals(passwords.get(username))) {
+					throw new ServiceException("NotAuthorizedException", "Incorrect username or password.");
+				}
+				response.putObject("AuthenticationResult")
+						.put("IdToken", token(username, "id"))
+						.put("AccessToken", token(username, "access"))
+						.put("RefreshToken", UUID.randomUUID().toString())
+						.put("ExpiresIn", 3600)
+						.put("TokenType", "Bearer");
+				return response;
+			}
+			default:
+				throw new ServiceException("UnknownOperationException", "Unsupported operation " + operation);
+		}
+	}
+
+	private static void checkPool(JsonNode request) {
+		if (!USER_POOL_ID.equals(request.path("UserPoolId").asText())) {
+			throw new ServiceException("ResourceNotFoundException", "User pool " + request.path("UserPoolId").asText() + " does not exist.");
+		}
+	}
+
+	private static String token(String username, String use) {
+		long now = System.currentTimeMillis() / 1000;
+		String payload = "{\"sub\":\"" + UUID.nameUUIDFromBytes(username.getBytes(StandardCharsets.UTF_8))
+				+ "\",\"email\":\"" + username.replace("\"", "") + "\",\"token_use\":\"" + use
+				+ "\",\"iat\":" + now + ",\"exp\":" + (now + 3600) + "}";
+		return BASE64.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+				+ BASE64.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".";
+	}
+}
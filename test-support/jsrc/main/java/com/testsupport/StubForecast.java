@@ -0,0 +1,63 @@
+package com.testsupport;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open-Meteo shaped forecast for the weather handlers: hourly temperature, humidity and wind speed for
+ * {@code forecast_days} days (7 by default, like the real API), plus the current conditions.
+ * Bodies are generated once per day count, so serving them costs no more than copying bytes.
+ */
+public final class StubForecast {
+
+	private static final int DEFAULT_DAYS = 7;
+	private static final int MAX_DAYS = 16;
+
+	private final Map<Integer, byte[]> bodies = new ConcurrentHashMap<>();
+
+	public byte[] body(String query) {
+		int days = DEFAULT_DAYS;
+		if (query != null) {
+			for (String parameter : query.split("&")) {
+				if (parameter.startsWith("forecast_days=")) {
+					days = Math.max(1, Math.min(MAX_DAYS, Integer.parseInt(parameter.substring("forecast_days=".length()))));
+				}
+			}
+		}
+		return bodies.computeIfAbsent(days, StubForecast::generate);
+	}
+
+	private static byte[] generate(int days) {
+		LocalDateTime start = LocalDateTime.of(LocalDateTime.now(ZoneOffset.UTC).toLocalDate(), LocalTime.MIDNIGHT);
+		int hours = days * 24;
+		StringBuilder time = new StringBuilder(hours * 20);
+		StringBuilder temperature = new StringBuilder(hours * 6);
+		StringBuilder humidity = new StringBuilder(hours * 4);
+		StringBuilder wind = new StringBuilder(hours * 6);
+		for (int hour = 0; hour < hours; hour++) {
+			String separator = hour == 0 ? "" : ",";
+			double phase = 2 * Math.PI * (hour % 24) / 24;
+			time.append(separator).append('"').append(start.plusHours(hour)).append('"');
+			temperature.append(separator).append(format(12 + 6 * Math.sin(phase - Math.PI / 2)));
+			humidity.append(separator).append(Math.round(70 + 15 * Math.cos(phase)));
+			wind.append(separator).append(format(8 + 4 * Math.sin(phase / 2)));
+		}
+		String json = "{\"latitude\":50.4375,\"longitude\":30.5,\"generationtime_ms\":0.025,\"utc_offset_seconds\":0,"
+				+ "\"timezone\":\"GMT\",\"timezone_abbreviation\":\"GMT\",\"elevation\":188.0,"
+				+ "\"current_units\":{\"time\":\"iso8601\",\"interval\":\"seconds\",\"temperature_2m\":\"\u00b0C\",\"wind_speed_10m\":\"km/h\"},"
+				+ "\"current\":{\"time\":\"" + start + "\",\"interval\":900,\"temperature_2m\":12.0,\"wind_speed_10m\":8.0},"
+				+ "\"hourly_units\":{\"time\":\"iso8601\",\"temperature_2m\":\"\u00b0C\",\"relative_humidity_2m\":\"%\",\"wind_speed_10m\":\"km/h\"},"
+				+ "\"hourly\":{\"time\":[" + time + "],\"temperature_2m\":[" + temperature
+				+ "],\"relative_humidity_2m\":[" + humidity + "],\"wind_speed_10m\":[" + wind + "]}}";
+		return json.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.1f", value);
+	}
+}
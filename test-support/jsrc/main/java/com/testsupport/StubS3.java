@@ -0,0 +1,165 @@
+package com.testsupport;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Path-style S3 stand-in for object uploads: PutObject, the multipart calls (create, upload part, complete,
+ * abort) and GetObject. Objects are kept in memory under {@code bucket/key}. ETags are the MD5 of the content,
+ * which the v1 SDK checks after every single-part upload.
+ */
+public final class StubS3 {
+
+	private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+	private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+
+	public int objectCount() {
+		return objects.size();
+	}
+
+	public byte[] getObject(String bucket, String key) {
+		return objects.get(bucket + "/" + key);
+	}
+
+	/**
+	 * @param path {@code /bucket/key}
+	 * @param query raw query string, may be null
+	 */
+	public Response handle(String method, String path, String query, byte[] body) {
+		String objectName = path.substring(1);
+		int slash = objectName.indexOf('/');
+		if (slash < 0) {
+			return Response.error(400, "InvalidRequest", "Only object requests are supported");
+		}
+		String bucket = objectName.substring(0, slash);
+		String key = objectName.substring(slash + 1);
+		Map<String, String> parameters = parameters(query);
+		String uploadId = parameters.get("uploadId");
+
+		switch (method) {
+			case "POST":
+				if (parameters.containsKey("uploads")) {
+					uploadId = UUID.randomUUID().toString();
+					uploads.put(uploadId, new TreeMap<>());
+					return Response.xml("<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+							+ "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+				}
+				if (uploadId != null) {
+					Map<Integer, byte[]> parts = uploads.remove(uploadId);
+					if (parts == null) {
+						return Response.error(404, "NoSuchUpload", "The specified upload does not exist");
+					}
+					ByteArrayOutputStream content = new ByteArrayOutputStream();
+					for (byte[] part : parts.values()) {
+						content.write(part, 0, part.length);
+					}
+					objects.put(objectName, content.toByteArray());
+					return Response.xml("<CompleteMultipartUploadResult><Location>/" + objectName + "</Location><Bucket>" + bucket
+							+ "</Bucket><Key>" + key + "</Key><ETag>\"" + md5(content.toByteArray()) + "-" + parts.size()
+							+ "\"</ETag></CompleteMultipartUploadResult>");
+				}
+				break;
+			case "PUT":
+				if (uploadId != null) {
+					Map<Integer, byte[]> parts = uploads.get(uploadId);
+					if (parts == null) {
+						return Response.error(404, "NoSuchUpload", "The specified upload does not exist");
+					}
+					synchronized (parts) {
+						parts.put(Integer.parseInt(parameters.get("partNumber")), body);
+					}
+				} else {
+					objects.put(objectName, body);
+				}
+				return Response.etag(md5(body));
+			case "DELETE":
+				if (uploadId != null) {
+					uploads.remove(uploadId);
+				} else {
+					objects.remove(objectName);
+				}
+				return new Response(204, null, null, null);
+			case "GET": {
+				byte[] content = objects.get(objectName);
+				return content == null
+						? Response.error(404, "NoSuchKey", "The specified key does not exist.")
+						: new Response(200, "application/octet-stream", md5(content), content);
+			}
+			default:
+				break;
+		}
+		return Response.error(405, "MethodNotAllowed", method + " is not supported");
+	}
+
+	private static Map<String, String> parameters(String query) {
+		Map<String, String> parameters = new TreeMap<>();
+		if (query != null) {
+			for (String parameter : query.split("&")) {
+				int equals = parameter.indexOf('=');
+				parameters.put(equals < 0 ? parameter : parameter.substring(0, equals), equals < 0 ? "" : parameter.substring(equals + 1));
+			}
+		}
+		return parameters;
+	}
+
+	private static String md5(byte[] content) {
+		try {
+			StringBuilder hex = new StringBuilder(32);
+			for (byte b : MessageDigest.getInstance("MD5").digest(content)) {
+				hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static final class Response {
+		private final int status;
+		private final String contentType;
+		private final String etag;
+		private final byte[] body;
+
+		private Response(int status, String contentType, String etag, byte[] body) {
+			this.status = status;
+			this.contentType = contentType;
+			this.etag = etag;
+			this.body = body;
+		}
+
+		private static Response xml(String xml) {
+			return new Response(200, "application/xml", null, xml.getBytes(StandardCharsets.UTF_8));
+		}
+
+		private static Response etag(String etag) {
+			return new Response(200, null, etag, null);
+		}
+
+		private static Response error(int status, String code, String message) {
+			return new Response(status, "application/xml", null, ("<Error><Code>" + code + "</Code><Message>" + message
+					+ "</Message></Error>").getBytes(StandardCharsets.UTF_8));
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public String getContentType() {
+			return contentType;
+		}
+
+		public String getEtag() {
+			return etag;
+		}
+
+		public byte[] getBody() {
+			return body;
+		}
+	}
+}